@@ -0,0 +1,42 @@
+package com.thordata.sdk;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** Form encoding of request bodies, paid once per SERP / Universal / builder call. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormEncodeBenchmark {
+  private final Map<String, String> serp = Payloads.serpForm();
+  private final Map<String, String> universal = Payloads.universalForm();
+
+  @Benchmark
+  public String serpToString() {
+    return Utils.formEncode(serp);
+  }
+
+  @Benchmark
+  public String universalToString() {
+    return Utils.formEncode(universal);
+  }
+
+  /** The byte[] path the request templates use. */
+  @Benchmark
+  public byte[] serpToBytes() {
+    return FormEncoder.encode(serp);
+  }
+}
@@ -0,0 +1,42 @@
+package com.thordata.sdk;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Proxy gateway usernames, built for every proxied request. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GatewayUsernameBenchmark {
+  private final ProxyConfig plain = proxy();
+  private final ProxyConfig sticky = proxy().country("US").city("New York").session("a1b2c3d4").sticky(10);
+
+  private static ProxyConfig proxy() {
+    ProxyConfig p = new ProxyConfig();
+    p.username = "user123";
+    p.password = "secret";
+    return p;
+  }
+
+  @Benchmark
+  public String plain() {
+    return plain.buildGatewayUsername();
+  }
+
+  @Benchmark
+  public String stickyGeo() {
+    return sticky.buildGatewayUsername();
+  }
+}
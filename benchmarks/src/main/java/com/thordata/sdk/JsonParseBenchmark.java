@@ -0,0 +1,61 @@
+package com.thordata.sdk;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The client's generic body parsing: a JSON document, JSON re-encoded as a string, and the
+ * non-JSON fallbacks for HTML and binary bodies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonParseBenchmark {
+  private ThordataClient client;
+  private byte[] json;
+  private byte[] jsonString;
+  private byte[] html;
+  private byte[] binary;
+
+  @Setup
+  public void setup() {
+    client = new ThordataClient(ThordataConfig.builder("token").build());
+    json = Payloads.taskList(50);
+    jsonString = Payloads.jsonInString(json);
+    html = Payloads.html(64);
+    binary = Payloads.png(64 * 1024);
+  }
+
+  @Benchmark
+  public Object json() {
+    return client.safeParseJson(json);
+  }
+
+  @Benchmark
+  public Object jsonInString() {
+    return client.safeParseJson(jsonString);
+  }
+
+  @Benchmark
+  public Object htmlFallback() {
+    return client.safeParseJson(html);
+  }
+
+  @Benchmark
+  public Object binaryFallback() {
+    return client.safeParseJsonBytes(binary);
+  }
+}
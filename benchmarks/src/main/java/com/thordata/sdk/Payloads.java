@@ -0,0 +1,159 @@
+package com.thordata.sdk;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/** Deterministic request and response bodies shaped like what the APIs send back. */
+final class Payloads {
+  private Payloads() {}
+
+  /** Form payload of a typical SERP call, as built by the client. */
+  static Map<String, String> serpForm() {
+    Map<String, String> m = new LinkedHashMap<>();
+    m.put("engine", "google");
+    m.put("q", "best espresso machine 2024");
+    m.put("json", "1");
+    m.put("num", "20");
+    m.put("google_domain", "google.com");
+    m.put("gl", "us");
+    m.put("hl", "en");
+    m.put("device", "desktop");
+    return m;
+  }
+
+  /** Form payload of a Universal call with a long URL and a non-ASCII wait selector. */
+  static Map<String, String> universalForm() {
+    Map<String, String> m = new LinkedHashMap<>();
+    m.put("url", "https://www.example.com/search?q=caf%C3%A9+cr%C3%A8me&page=3&sort=price_asc&filters=brand:acme,color:red");
+    m.put("type", "html");
+    m.put("js_render", "True");
+    m.put("country", "de");
+    m.put("wait_for", "div.résultats > ul li:nth-child(2) a[href*=\"/produit/\"]");
+    m.put("header", "{\"Accept-Language\":\"de-DE,de;q=0.9\",\"User-Agent\":\"Mozilla/5.0 (X11; Linux x86_64)\"}");
+    return m;
+  }
+
+  /**
+   * A SERP response with {@code organic} results, each carrying sitelinks, plus local, news,
+   * shopping, image and related-search sections and fields the typed model does not know.
+   */
+  static byte[] serpResponse(int organic) {
+    StringBuilder sb = new StringBuilder(organic * 1200 + 8192);
+    sb.append("{\"code\":200,\"status\":\"ok\",\"search_metadata\":{\"id\":\"6654f1c2a9\",\"status\":\"Success\",")
+        .append("\"created_at\":\"2024-05-27 12:00:01 UTC\",\"processed_at\":\"2024-05-27 12:00:01 UTC\",")
+        .append("\"total_time_taken\":1.84,\"engine_url\":\"https://www.google.com/search?q=best+espresso+machine\"},")
+        .append("\"search_parameters\":{\"engine\":\"google\",\"q\":\"best espresso machine 2024\",\"gl\":\"us\",\"hl\":\"en\"},")
+        .append("\"search_information\":{\"total_results\":182000000,\"time_taken_displayed\":0.41},");
+
+    sb.append("\"organic\":[");
+    for (int i = 1; i <= organic; i++) {
+      if (i > 1) sb.append(',');
+      sb.append("{\"position\":").append(i)
+          .append(",\"title\":\"The ").append(i).append(" Best Espresso Machines of 2024, Tested and Reviewed\"")
+          .append(",\"link\":\"https://www.site").append(i).append(".com/reviews/best-espresso-machines\"")
+          .append(",\"displayed_link\":\"https://www.site").append(i).append(".com \\u203a reviews \\u203a espresso\"")
+          .append(",\"snippet\":\"We tested dozens of espresso machines \\u2014 from manual lever models to super-automatics \\u2014 ")
+          .append("to find the best ones for every budget. Our top pick pulls consistent shots and steams silky milk.\"")
+          .append(",\"date\":\"Apr 12, 2024\"")
+          .append(",\"sitelinks\":{\"inline\":[{\"title\":\"Best Overall\",\"link\":\"https://www.site").append(i)
+          .append(".com/reviews/best-espresso-machines#overall\"},{\"title\":\"Best Budget\",\"link\":\"https://www.site").append(i)
+          .append(".com/reviews/best-espresso-machines#budget\"}]}")
+          .append(",\"rich_snippet\":{\"top\":{\"extensions\":[\"Rating: 4.7\",\"").append(300 + i).append(" reviews\"]}}}");
+    }
+    sb.append("],");
+
+    sb.append("\"local_results\":[");
+    for (int i = 1; i <= 3; i++) {
+      if (i > 1) sb.append(',');
+      sb.append("{\"position\":").append(i).append(",\"title\":\"Espresso Bar ").append(i)
+          .append("\",\"rating\":4.").append(i).append(",\"reviews\":").append(100 * i)
+          .append(",\"address\":\"").append(10 * i).append(" Main St, Springfield\",\"type\":\"Coffee shop\"")
+          .append(",\"gps_coordinates\":{\"latitude\":40.71").append(i).append(",\"longitude\":-74.00").append(i).append("}}");
+    }
+    sb.append("],");
+
+    sb.append("\"news_results\":[");
+    for (int i = 1; i <= 4; i++) {
+      if (i > 1) sb.append(',');
+      sb.append("{\"position\":").append(i).append(",\"title\":\"Coffee prices climb for the ").append(i)
+          .append("th straight month\",\"link\":\"https://news.example.com/a/").append(i)
+          .append("\",\"source\":\"Example News\",\"date\":\"").append(i).append(" hours ago\"")
+          .append(",\"snippet\":\"Wholesale arabica futures rose again as supply tightened.\"}");
+    }
+    sb.append("],");
+
+    sb.append("\"shopping_results\":[");
+    for (int i = 1; i <= 6; i++) {
+      if (i > 1) sb.append(',');
+      sb.append("{\"position\":").append(i).append(",\"title\":\"Acme Barista Pro ").append(i)
+          .append("\",\"link\":\"https://shop.example.com/p/").append(i).append("\",\"source\":\"Shop ").append(i)
+          .append("\",\"price\":\"$").append(199 + i * 50).append(".99\",\"extracted_price\":").append(199 + i * 50).append(".99")
+          .append(",\"rating\":4.").append(i % 10).append(",\"reviews\":").append(1000 + i).append('}');
+    }
+    sb.append("],");
+
+    sb.append("\"images_results\":[");
+    for (int i = 1; i <= 8; i++) {
+      if (i > 1) sb.append(',');
+      sb.append("{\"position\":").append(i).append(",\"title\":\"Espresso machine ").append(i)
+          .append("\",\"link\":\"https://img.example.com/page/").append(i)
+          .append("\",\"original\":\"https://img.example.com/full/").append(i).append(".jpg\"")
+          .append(",\"thumbnail\":\"https://img.example.com/thumb/").append(i).append(".jpg\"}");
+    }
+    sb.append("],");
+
+    sb.append("\"related_searches\":[");
+    for (int i = 1; i <= 8; i++) {
+      if (i > 1) sb.append(',');
+      sb.append("{\"query\":\"espresso machine with grinder ").append(i)
+          .append("\",\"link\":\"https://www.google.com/search?q=espresso+machine+with+grinder+").append(i).append("\"}");
+    }
+    sb.append("],\"pagination\":{\"current\":1,\"next\":\"https://www.google.com/search?q=best+espresso+machine&start=20\"}}");
+    return sb.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /** A Web Scraper task list response, the typical JSON body handled by {@code safeParseJson}. */
+  static byte[] taskList(int tasks) {
+    StringBuilder sb = new StringBuilder("{\"code\":200,\"data\":{\"count\":").append(tasks).append(",\"list\":[");
+    for (int i = 0; i < tasks; i++) {
+      if (i > 0) sb.append(',');
+      sb.append("{\"task_id\":\"9f3c2a1b").append(i).append("\",\"spider_id\":\"youtube_video_by-url\",")
+          .append("\"status\":\"ready\",\"created_at\":\"2024-05-27 12:00:0").append(i % 10).append("\",\"data_count\":").append(i)
+          .append('}');
+    }
+    return sb.append("]}}").toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /** {@code json} re-encoded as a JSON string, as some endpoints return it. */
+  static byte[] jsonInString(byte[] json) {
+    String s = new String(json, StandardCharsets.UTF_8).replace("\\", "\\\\").replace("\"", "\\\"");
+    return ("\"" + s + "\"").getBytes(StandardCharsets.UTF_8);
+  }
+
+  static byte[] html(int kb) {
+    StringBuilder sb = new StringBuilder(kb * 1024 + 64).append("<!doctype html><html><body>");
+    while (sb.length() < kb * 1024) sb.append("<div class=\"item\"><a href=\"/p/1\">Product</a> <span>$9.99</span></div>\n");
+    return sb.append("</body></html>").toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /** Random bytes standing in for PNG data; incompressible, like a real screenshot. */
+  static byte[] png(int bytes) {
+    byte[] b = new byte[bytes];
+    new Random(42).nextBytes(b);
+    b[0] = (byte) 0x89;
+    b[1] = 'P';
+    b[2] = 'N';
+    b[3] = 'G';
+    return b;
+  }
+
+  /** A Universal screenshot response wrapping {@code png}, optionally as a data URI. */
+  static byte[] screenshotResponse(byte[] png, boolean dataUri) {
+    String b64 = Base64.getEncoder().encodeToString(png);
+    String value = dataUri ? "data:image/png;base64," + b64 : b64;
+    return ("{\"code\":200,\"msg\":\"success\",\"png\":\"" + value + "\"}").getBytes(StandardCharsets.US_ASCII);
+  }
+}
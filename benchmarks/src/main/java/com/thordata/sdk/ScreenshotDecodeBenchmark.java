@@ -0,0 +1,58 @@
+package com.thordata.sdk;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding multi-MB Universal screenshot responses: streamed into a discarding sink, as
+ * {@code universalScreenshot} does, and buffered into a byte[], as {@code universalPng} does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScreenshotDecodeBenchmark {
+  @Param({"2", "8"})
+  public int megabytes;
+
+  @Param({"false", "true"})
+  public boolean dataUri;
+
+  private byte[] body;
+
+  @Setup
+  public void setup() {
+    body = Payloads.screenshotResponse(Payloads.png(megabytes * 1024 * 1024), dataUri);
+  }
+
+  @Benchmark
+  public long streamed() throws Exception {
+    ScreenshotDecoder d = new ScreenshotDecoder(new ByteArrayInputStream(body));
+    d.decode(OutputStream.nullOutputStream(), false);
+    return d.written();
+  }
+
+  @Benchmark
+  public byte[] buffered() throws Exception {
+    ScreenshotDecoder d = new ScreenshotDecoder(new ByteArrayInputStream(body));
+    ByteArrayOutputStream png = new ByteArrayOutputStream(body.length / 4 * 3);
+    d.decode(png, false);
+    return png.toByteArray();
+  }
+}
@@ -0,0 +1,66 @@
+package com.thordata.sdk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binding a SERP response body, with the same reader configuration the client builds: eagerly,
+ * lazily without touching any section, and lazily reading only the organic results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerpBindBenchmark {
+  @Param({"10", "100"})
+  public int organic;
+
+  @Param({"false", "true"})
+  public boolean retainUnknownFields;
+
+  private byte[] body;
+  private ObjectReader reader;
+
+  @Setup
+  public void setup() {
+    body = Payloads.serpResponse(organic);
+    ObjectMapper om = new ObjectMapper();
+    reader = retainUnknownFields
+        ? om.copy()
+            .addMixIn(SerpResponse.class, RetainUnknownFields.class)
+            .addMixIn(SerpResult.class, RetainUnknownFields.class)
+            .readerFor(SerpResponse.class)
+        : om.readerFor(SerpResponse.class);
+  }
+
+  @Benchmark
+  public SerpResponse eager() throws Exception {
+    return reader.readValue(body);
+  }
+
+  @Benchmark
+  public SerpResponse lazyEnvelope() throws Exception {
+    return SerpResponse.lazy(body, reader);
+  }
+
+  @Benchmark
+  public List<OrganicResult> lazyOrganic() throws Exception {
+    return SerpResponse.lazy(body, reader).organicResults();
+  }
+}
@@ -0,0 +1,87 @@
+package com.thordata.sdk;
+
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@code serpSearch} against an in-process server returning a canned response: request
+ * building, the send pipeline, the HTTP round trip over loopback and response binding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@Threads(4)
+public class SerpSearchBenchmark {
+  @Param({"false", "true"})
+  public boolean lazy;
+
+  private HttpServer server;
+  private ExecutorService serverPool;
+  private ThordataClient client;
+  private SerpOptions opt;
+
+  @Setup
+  public void setup() throws Exception {
+    byte[] body = Payloads.serpResponse(10);
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+    server.createContext("/request", ex -> {
+      try (InputStream in = ex.getRequestBody()) {
+        in.readAllBytes();
+      }
+      ex.getResponseHeaders().add("Content-Type", "application/json");
+      ex.sendResponseHeaders(200, body.length);
+      try (OutputStream out = ex.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    serverPool = Executors.newFixedThreadPool(8);
+    server.setExecutor(serverPool);
+    server.start();
+
+    String base = "http://127.0.0.1:" + server.getAddress().getPort();
+    client = new ThordataClient(ThordataConfig.builder("token")
+        .timeout(Duration.ofSeconds(10))
+        .scraperApiBaseUrl(base)
+        .lazySerpResponses(lazy)
+        .build());
+
+    opt = new SerpOptions();
+    opt.query = "best espresso machine 2024";
+    opt.num = 10;
+    opt.country = "us";
+  }
+
+  @TearDown
+  public void tearDown() {
+    server.stop(0);
+    serverPool.shutdownNow();
+  }
+
+  @Benchmark
+  public SerpResponse serpSearch() throws Exception {
+    return client.serpSearch(opt);
+  }
+}
@@ -0,0 +1,52 @@
+package com.thordata.sdk;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * Fans a list of inputs out over the async API with a bounded number of requests in flight.
+ * Each request is a non-blocking {@code sendAsync}, so concurrency costs no threads; the
+ * semaphore only keeps the caller from issuing more than {@link BulkOptions#maxConcurrency}.
+ */
+final class BulkExecutor {
+    private BulkExecutor() {}
+
+    static <I, T> BulkResult<T> run(List<I> inputs, BulkOptions options, Function<I, CompletableFuture<T>> call)
+            throws InterruptedException {
+        if (inputs == null) throw new IllegalArgumentException("inputs is required");
+        BulkOptions opts = options == null ? new BulkOptions() : options;
+        if (opts.maxConcurrency <= 0) throw new IllegalArgumentException("maxConcurrency must be positive");
+
+        int n = inputs.size();
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ScrapeResult<T>[] slots = new ScrapeResult[n];
+        Semaphore permits = new Semaphore(opts.maxConcurrency);
+        CountDownLatch done = new CountDownLatch(n);
+        long batchStart = System.nanoTime();
+
+        for (int i = 0; i < n; i++) {
+            permits.acquire();
+            final int idx = i;
+            final long start = System.nanoTime();
+            CompletableFuture<T> f;
+            try {
+                f = call.apply(inputs.get(i));
+            } catch (RuntimeException e) {
+                f = CompletableFuture.failedFuture(e);
+            }
+            f.whenComplete((value, err) -> {
+                Duration latency = Duration.ofNanos(System.nanoTime() - start);
+                slots[idx] = new ScrapeResult<>(idx, err == null ? value : null, Utils.unwrapAsync(err), latency);
+                permits.release();
+                done.countDown();
+            });
+        }
+        done.await();
+
+        return new BulkResult<>(List.of(slots), Duration.ofNanos(System.nanoTime() - batchStart));
+    }
+}
@@ -0,0 +1,18 @@
+package com.thordata.sdk;
+
+/**
+ * Options for {@link ThordataClient#serpSearchAll} and {@link ThordataClient#universalScrapeAll}
+ * and their streaming counterparts.
+ */
+public class BulkOptions {
+    /** Maximum number of requests in flight at once; for streams, results not yet delivered count too. */
+    public int maxConcurrency = 16;
+
+    public BulkOptions() {}
+
+    public BulkOptions(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public BulkOptions maxConcurrency(int n) { this.maxConcurrency = n; return this; }
+}
@@ -0,0 +1,54 @@
+package com.thordata.sdk;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Results of a bulk call in input order, plus a throughput/latency summary for the batch.
+ */
+public final class BulkResult<T> {
+    public final List<ScrapeResult<T>> results;
+    public final int succeeded;
+    public final int failed;
+    public final Duration elapsed;
+    public final double requestsPerSecond;
+    public final Duration latencyP50;
+    public final Duration latencyP99;
+    public final Duration latencyMax;
+
+    BulkResult(List<ScrapeResult<T>> results, Duration elapsed) {
+        this.results = results;
+        this.elapsed = elapsed;
+
+        int ok = 0;
+        long[] nanos = new long[results.size()];
+        for (int i = 0; i < nanos.length; i++) {
+            ScrapeResult<T> r = results.get(i);
+            if (r.isSuccess()) ok++;
+            nanos[i] = r.latency.toNanos();
+        }
+        Arrays.sort(nanos);
+        this.succeeded = ok;
+        this.failed = results.size() - ok;
+
+        long elapsedNanos = Math.max(1, elapsed.toNanos());
+        this.requestsPerSecond = results.size() * 1_000_000_000.0 / elapsedNanos;
+        this.latencyP50 = Duration.ofNanos(percentile(nanos, 0.50));
+        this.latencyP99 = Duration.ofNanos(percentile(nanos, 0.99));
+        this.latencyMax = Duration.ofNanos(nanos.length == 0 ? 0 : nanos[nanos.length - 1]);
+    }
+
+    private static long percentile(long[] sorted, double q) {
+        if (sorted.length == 0) return 0;
+        int idx = (int) Math.ceil(q * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(idx, sorted.length - 1))];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BulkResult{total=%d, succeeded=%d, failed=%d, elapsed=%dms, rps=%.1f, p50=%dms, p99=%dms, max=%dms}",
+            results.size(), succeeded, failed, elapsed.toMillis(), requestsPerSecond,
+            latencyP50.toMillis(), latencyP99.toMillis(), latencyMax.toMillis());
+    }
+}
@@ -0,0 +1,205 @@
+package com.thordata.sdk;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per-endpoint circuit breaker, enabled through {@link ThordataConfig.Builder#circuitBreaker}.
+ *
+ * <p>Each {@link ThordataEndpoint} keeps a sliding window over its last {@code windowSize}
+ * calls. Once at least {@code minimumCalls} are recorded and the failure rate (connection
+ * errors, timeouts, 5xx) or the slow-call rate crosses its threshold, the circuit opens and
+ * calls fail immediately with {@link ThordataErrors.ThordataCircuitOpenException}. After
+ * {@code openDuration} it half-opens and lets {@code halfOpenProbes} calls through: if they all
+ * succeed the circuit closes, any failure opens it again.
+ */
+public final class CircuitBreaker {
+
+  public enum State { CLOSED, OPEN, HALF_OPEN }
+
+  /** Receives state transitions, e.g. to raise alerts. Called outside the breaker's locks. */
+  @FunctionalInterface
+  public interface Listener {
+    void onStateChange(ThordataEndpoint endpoint, State from, State to);
+  }
+
+  public double failureRateThreshold = 0.5;
+  public Duration slowCallDuration = Duration.ofSeconds(10);
+  public double slowCallRateThreshold = 0.8;
+  public int windowSize = 50;
+  public int minimumCalls = 20;
+  public Duration openDuration = Duration.ofSeconds(30);
+  public int halfOpenProbes = 3;
+  public Listener listener;
+
+  private final Map<ThordataEndpoint, Circuit> circuits = new EnumMap<>(ThordataEndpoint.class);
+
+  public CircuitBreaker() {
+    for (ThordataEndpoint e : ThordataEndpoint.values()) circuits.put(e, new Circuit(e));
+  }
+
+  public CircuitBreaker failureRateThreshold(double r) { this.failureRateThreshold = r; return this; }
+  public CircuitBreaker slowCallDuration(Duration d) { this.slowCallDuration = d; return this; }
+  public CircuitBreaker slowCallRateThreshold(double r) { this.slowCallRateThreshold = r; return this; }
+  public CircuitBreaker windowSize(int n) { this.windowSize = n; return this; }
+  public CircuitBreaker minimumCalls(int n) { this.minimumCalls = n; return this; }
+  public CircuitBreaker openDuration(Duration d) { this.openDuration = d; return this; }
+  public CircuitBreaker halfOpenProbes(int n) { this.halfOpenProbes = n; return this; }
+  public CircuitBreaker listener(Listener l) { this.listener = l; return this; }
+
+  public State state(ThordataEndpoint endpoint) {
+    return circuits.get(endpoint).currentState();
+  }
+
+  /**
+   * Admits a call or throws {@link ThordataErrors.ThordataCircuitOpenException}. The returned
+   * ticket must be handed back to {@link #onResult}.
+   */
+  long acquire(ThordataEndpoint endpoint) {
+    return circuits.get(endpoint).acquire();
+  }
+
+  void onResult(ThordataEndpoint endpoint, long ticket, Throwable error, long latencyNanos) {
+    circuits.get(endpoint).record(ticket, isFailure(error), latencyNanos >= slowCallDuration.toNanos());
+  }
+
+  /**
+   * Only errors that say something about the endpoint's health count; rejected input, auth
+   * problems and rate limits are the caller's concern, and a body that arrived but does not
+   * parse is the client's.
+   */
+  static boolean isFailure(Throwable error) {
+    return Utils.isTransportError(error) || error instanceof ThordataErrors.ThordataServerException;
+  }
+
+  private void fire(ThordataEndpoint endpoint, State from, State to) {
+    Listener l = listener;
+    if (l == null || from == to) return;
+    try {
+      l.onStateChange(endpoint, from, to);
+    } catch (RuntimeException ignored) {
+      // A misbehaving listener must not break request handling.
+    }
+  }
+
+  private final class Circuit {
+    private final ThordataEndpoint endpoint;
+    private State state = State.CLOSED;
+    // Bumped on every transition so results of calls admitted in an earlier state are ignored.
+    private long epoch;
+    private byte[] window = new byte[0];
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slow;
+    private long openedAt;
+    private int probesIssued;
+    private int probesSucceeded;
+
+    Circuit(ThordataEndpoint endpoint) {
+      this.endpoint = endpoint;
+    }
+
+    State currentState() {
+      State from;
+      State to;
+      synchronized (this) {
+        from = state;
+        maybeHalfOpen(System.nanoTime());
+        to = state;
+      }
+      fire(endpoint, from, to);
+      return to;
+    }
+
+    long acquire() {
+      State from;
+      State to;
+      long ticket = 0;
+      Duration rejectedFor = null;
+      synchronized (this) {
+        from = state;
+        long now = System.nanoTime();
+        maybeHalfOpen(now);
+        to = state;
+        if (state == State.OPEN) {
+          rejectedFor = Duration.ofNanos(Math.max(0, openedAt + openDuration.toNanos() - now));
+        } else if (state == State.HALF_OPEN && probesIssued >= halfOpenProbes) {
+          rejectedFor = Duration.ZERO;
+        } else {
+          if (state == State.HALF_OPEN) probesIssued++;
+          ticket = epoch;
+        }
+      }
+      fire(endpoint, from, to);
+      if (rejectedFor != null) throw new ThordataErrors.ThordataCircuitOpenException(endpoint, rejectedFor);
+      return ticket;
+    }
+
+    void record(long ticket, boolean failed, boolean wasSlow) {
+      State from;
+      State to;
+      synchronized (this) {
+        if (ticket != epoch) return;
+        from = state;
+        if (state == State.HALF_OPEN) {
+          if (failed || wasSlow) open();
+          else if (++probesSucceeded >= halfOpenProbes) transition(State.CLOSED);
+        } else if (state == State.CLOSED) {
+          add(failed, wasSlow);
+          if (recorded >= Math.max(1, minimumCalls)
+              && (failures >= failureRateThreshold * recorded || slow >= slowCallRateThreshold * recorded)) {
+            open();
+          }
+        }
+        to = state;
+      }
+      fire(endpoint, from, to);
+    }
+
+    private void add(boolean failed, boolean wasSlow) {
+      int size = Math.max(1, windowSize);
+      if (window.length != size) resetWindow(size);
+      if (recorded == size) {
+        byte old = window[next];
+        if ((old & 1) != 0) failures--;
+        if ((old & 2) != 0) slow--;
+      } else {
+        recorded++;
+      }
+      byte b = (byte) ((failed ? 1 : 0) | (wasSlow ? 2 : 0));
+      window[next] = b;
+      if (failed) failures++;
+      if (wasSlow) slow++;
+      next = (next + 1) % size;
+    }
+
+    private void resetWindow(int size) {
+      window = new byte[size];
+      next = 0;
+      recorded = 0;
+      failures = 0;
+      slow = 0;
+    }
+
+    private void maybeHalfOpen(long now) {
+      if (state == State.OPEN && now - openedAt >= openDuration.toNanos()) {
+        transition(State.HALF_OPEN);
+      }
+    }
+
+    private void open() {
+      transition(State.OPEN);
+      openedAt = System.nanoTime();
+    }
+
+    private void transition(State to) {
+      state = to;
+      epoch++;
+      probesIssued = 0;
+      probesSucceeded = 0;
+      if (to == State.CLOSED) resetWindow(Math.max(1, windowSize));
+    }
+  }
+}
@@ -0,0 +1,386 @@
+package com.thordata.sdk;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Body handler that undoes a {@code gzip} or {@code deflate} {@code Content-Encoding} as the body
+ * arrives, since {@code java.net.http} leaves that to the caller. Uncompressed bodies pass through
+ * untouched.
+ *
+ * <ul>
+ *   <li>{@link #ofByteArray()} inflates each network buffer on arrival, so the compressed body is
+ *       never held in full and decoding overlaps the transfer;</li>
+ *   <li>{@link #ofInputStream()} wraps the stream in an inflater on the first read, on the
+ *       consumer's thread.</li>
+ * </ul>
+ *
+ * <p>A handler counts the bytes of the response it last served, as received and decoded, for
+ * {@link ThordataMetrics.Call}. Use one handler per call; retries reuse it one attempt at a time.
+ */
+final class DecodingBodyHandler<T> implements HttpResponse.BodyHandler<T> {
+  static final String ACCEPT_ENCODING = "gzip, deflate";
+
+  private final boolean stream;
+  private volatile Counts counts = new Counts();
+
+  private DecodingBodyHandler(boolean stream) {
+    this.stream = stream;
+  }
+
+  static DecodingBodyHandler<byte[]> ofByteArray() {
+    return new DecodingBodyHandler<>(false);
+  }
+
+  static DecodingBodyHandler<InputStream> ofInputStream() {
+    return new DecodingBodyHandler<>(true);
+  }
+
+  /** Body bytes received for the last response, before decoding. */
+  long wireBytes() {
+    return counts.wire;
+  }
+
+  /** Body bytes after decoding; for streams, the bytes read so far. */
+  long decodedBytes() {
+    return counts.decoded;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public HttpResponse.BodySubscriber<T> apply(HttpResponse.ResponseInfo info) {
+    Counts c = new Counts();
+    counts = c;
+    String encoding = info.headers().firstValue("Content-Encoding")
+        .map(e -> e.trim().toLowerCase(Locale.ROOT)).orElse("identity");
+    boolean gzip = encoding.equals("gzip") || encoding.equals("x-gzip");
+    boolean deflate = encoding.equals("deflate");
+    // Other encodings are never asked for; such a body is handed over as-is.
+
+    if (stream) {
+      boolean g = gzip;
+      boolean compressed = gzip || deflate;
+      return (HttpResponse.BodySubscriber<T>) HttpResponse.BodySubscribers.mapping(
+          HttpResponse.BodySubscribers.ofInputStream(), in -> new DecodingInputStream(in, c, compressed, g));
+    }
+    if (gzip || deflate) return (HttpResponse.BodySubscriber<T>) new InflatingSubscriber(c, gzip);
+    return (HttpResponse.BodySubscriber<T>) HttpResponse.BodySubscribers.mapping(
+        HttpResponse.BodySubscribers.ofByteArray(), body -> {
+          c.wire = body.length;
+          c.decoded = body.length;
+          return body;
+        });
+  }
+
+  private static final class Counts {
+    volatile long wire;
+    volatile long decoded;
+  }
+
+  /**
+   * Inflates a compressed body into a byte array buffer by buffer. gzip headers and trailers are
+   * parsed here (the CRC and length are checked) and concatenated members are accepted; for
+   * {@code deflate} both the zlib-wrapped form the RFC specifies and the raw form some servers
+   * send are recognised from the first two bytes.
+   */
+  private static final class InflatingSubscriber implements HttpResponse.BodySubscriber<byte[]> {
+    private static final int HEADER = 0, BODY = 1, TRAILER = 2, DONE = 3, SKIP = 4;
+    /** Steps through a gzip header; optional fields are skipped as they stream past. */
+    private static final int H_FIXED = 0, H_XLEN = 1, H_EXTRA = 2, H_NAME = 3, H_COMMENT = 4, H_CRC = 5;
+
+    private final Counts counts;
+    private final boolean gzip;
+    private final CompletableFuture<byte[]> result = new CompletableFuture<>();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream(16);
+    private final byte[] chunk = new byte[16 * 1024];
+    private final CRC32 crc = new CRC32();
+    private Inflater inflater;
+    private int state = HEADER;
+    private int headerStep = H_FIXED;
+    private int flags;
+    /** Bytes of the current header field still to skip. */
+    private int skip;
+    private long wire;
+    private boolean failed;
+
+    InflatingSubscriber(Counts counts, boolean gzip) {
+      this.counts = counts;
+      this.gzip = gzip;
+    }
+
+    @Override
+    public CompletionStage<byte[]> getBody() {
+      return result;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> buffers) {
+      if (failed) return;
+      try {
+        for (ByteBuffer b : buffers) {
+          wire += b.remaining();
+          feed(b);
+        }
+      } catch (IOException | DataFormatException e) {
+        fail(e);
+      }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      end();
+      result.completeExceptionally(t);
+    }
+
+    @Override
+    public void onComplete() {
+      if (failed) return;
+      counts.wire = wire;
+      // Complete once a member was read; an empty body (HEAD, 204) may still carry the header.
+      boolean complete = state == DONE || state == SKIP || (state == HEADER && (wire == 0 || inflater != null));
+      if (!complete) {
+        fail(new ZipException("Compressed body ended early"));
+        return;
+      }
+      end();
+      counts.decoded = out.size();
+      result.complete(out.toByteArray());
+    }
+
+    private void feed(ByteBuffer b) throws IOException, DataFormatException {
+      while (b.hasRemaining()) {
+        switch (state) {
+          case HEADER -> readHeader(b);
+          case BODY -> inflate(b);
+          case TRAILER -> readTrailer(b);
+          // Another gzip member may follow.
+          case DONE -> state = gzip ? HEADER : SKIP;
+          default -> b.position(b.limit());
+        }
+      }
+    }
+
+    private void readHeader(ByteBuffer b) throws ZipException, DataFormatException {
+      if (!gzip) {
+        // Deflate has no header of its own: the bytes looked at belong to the stream.
+        if (!collect(b, 2)) return;
+        byte[] h = pending.toByteArray();
+        pending.reset();
+        boolean zlib = (h[0] & 0x0F) == 8 && (((h[0] & 0xFF) << 8) | (h[1] & 0xFF)) % 31 == 0;
+        inflater = new Inflater(!zlib);
+        state = BODY;
+        inflate(ByteBuffer.wrap(h));
+        return;
+      }
+      while (true) {
+        switch (headerStep) {
+          case H_FIXED -> {
+            if (!collect(b, 10)) return;
+            byte[] h = pending.toByteArray();
+            pending.reset();
+            try {
+              if ((h[0] & 0xFF) != 0x1F || (h[1] & 0xFF) != 0x8B) throw new ZipException("Not in gzip format");
+              if (h[2] != 8) throw new ZipException("Unsupported gzip compression method " + h[2]);
+            } catch (ZipException e) {
+              if (inflater == null) throw e;
+              // Trailing garbage after the last member is ignored, as GZIPInputStream does.
+              state = SKIP;
+              return;
+            }
+            flags = h[3];
+            headerStep = (flags & 4) != 0 ? H_XLEN : H_NAME;
+          }
+          case H_XLEN -> {
+            if (!collect(b, 2)) return;
+            byte[] x = pending.toByteArray();
+            pending.reset();
+            skip = (x[0] & 0xFF) | (x[1] & 0xFF) << 8;
+            headerStep = H_EXTRA;
+          }
+          case H_EXTRA -> {
+            if (!skip(b)) return;
+            headerStep = H_NAME;
+          }
+          case H_NAME, H_COMMENT -> {
+            if ((flags & (headerStep == H_NAME ? 8 : 16)) != 0 && !skipPastZero(b)) return;
+            if (headerStep == H_COMMENT) skip = (flags & 2) != 0 ? 2 : 0;
+            headerStep++;
+          }
+          case H_CRC -> {
+            if (!skip(b)) return;
+            if (inflater == null) inflater = new Inflater(true);
+            else inflater.reset();
+            crc.reset();
+            headerStep = H_FIXED;
+            state = BODY;
+            return;
+          }
+        }
+      }
+    }
+
+    /** Gathers {@code n} bytes in {@code pending}; false while more are needed. */
+    private boolean collect(ByteBuffer b, int n) {
+      while (b.hasRemaining() && pending.size() < n) pending.write(b.get());
+      return pending.size() == n;
+    }
+
+    private boolean skip(ByteBuffer b) {
+      int n = Math.min(skip, b.remaining());
+      b.position(b.position() + n);
+      skip -= n;
+      return skip == 0;
+    }
+
+    private static boolean skipPastZero(ByteBuffer b) {
+      while (b.hasRemaining()) {
+        if (b.get() == 0) return true;
+      }
+      return false;
+    }
+
+    private void inflate(ByteBuffer b) throws DataFormatException, ZipException {
+      inflater.setInput(b);
+      while (true) {
+        int n = inflater.inflate(chunk);
+        if (n > 0) {
+          out.write(chunk, 0, n);
+          if (gzip) crc.update(chunk, 0, n);
+          continue;
+        }
+        if (inflater.finished()) {
+          state = gzip ? TRAILER : DONE;
+          return;
+        }
+        if (inflater.needsDictionary()) throw new ZipException("deflate stream needs a preset dictionary");
+        if (inflater.needsInput()) return;
+      }
+    }
+
+    private void readTrailer(ByteBuffer b) throws ZipException {
+      while (b.hasRemaining() && pending.size() < 8) pending.write(b.get());
+      if (pending.size() < 8) return;
+      byte[] t = pending.toByteArray();
+      pending.reset();
+      if (le32(t, 0) != crc.getValue()) throw new ZipException("Corrupt gzip body: CRC mismatch");
+      if (le32(t, 4) != (inflater.getBytesWritten() & 0xFFFFFFFFL)) throw new ZipException("Corrupt gzip body: size mismatch");
+      state = DONE;
+    }
+
+    private static long le32(byte[] b, int off) {
+      return (b[off] & 0xFFL) | (b[off + 1] & 0xFFL) << 8 | (b[off + 2] & 0xFFL) << 16 | (b[off + 3] & 0xFFL) << 24;
+    }
+
+    private void fail(Exception e) {
+      failed = true;
+      counts.wire = wire;
+      end();
+      result.completeExceptionally(e);
+    }
+
+    private void end() {
+      if (inflater != null) inflater.end();
+    }
+  }
+
+  /**
+   * Decodes a streamed body. The inflater is set up on the first read rather than when the
+   * response arrives: reading the gzip header blocks, which must not happen on the HTTP client's
+   * thread.
+   */
+  private static final class DecodingInputStream extends InputStream {
+    private final CountingInputStream raw;
+    private final Counts counts;
+    private final boolean compressed;
+    private final boolean gzip;
+    private InputStream in;
+
+    DecodingInputStream(InputStream raw, Counts counts, boolean compressed, boolean gzip) {
+      this.raw = new CountingInputStream(raw, counts);
+      this.counts = counts;
+      this.compressed = compressed;
+      this.gzip = gzip;
+    }
+
+    private InputStream in() throws IOException {
+      if (in != null) return in;
+      if (!compressed) return in = raw;
+      if (gzip) return in = new GZIPInputStream(raw, 16 * 1024);
+      PushbackInputStream p = new PushbackInputStream(raw, 2);
+      byte[] h = p.readNBytes(2);
+      p.unread(h);
+      boolean zlib = h.length == 2 && (h[0] & 0x0F) == 8 && (((h[0] & 0xFF) << 8) | (h[1] & 0xFF)) % 31 == 0;
+      return in = new InflaterInputStream(p, new Inflater(!zlib), 16 * 1024);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = in().read();
+      if (b >= 0) counts.decoded++;
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = in().read(b, off, len);
+      if (n > 0) counts.decoded += n;
+      return n;
+    }
+
+    @Override
+    public int available() throws IOException {
+      return in == null ? 0 : in.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (in != null) in.close();
+      else raw.close();
+    }
+  }
+
+  private static final class CountingInputStream extends FilterInputStream {
+    private final Counts counts;
+
+    CountingInputStream(InputStream in, Counts counts) {
+      super(in);
+      this.counts = counts;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b >= 0) counts.wire++;
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = super.read(b, off, len);
+      if (n > 0) counts.wire += n;
+      return n;
+    }
+  }
+}
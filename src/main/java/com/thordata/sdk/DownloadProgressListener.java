@@ -0,0 +1,14 @@
+package com.thordata.sdk;
+
+/**
+ * Receives progress updates while {@link ThordataClient#downloadFile} writes a file to disk.
+ */
+@FunctionalInterface
+public interface DownloadProgressListener {
+  /**
+   * @param bytesDownloaded bytes on disk so far, including any resumed prefix
+   * @param totalBytes      expected file size, or {@code -1} when the server did not say
+   * @param bytesPerSecond  average transfer rate of the current download
+   */
+  void onProgress(long bytesDownloaded, long totalBytes, double bytesPerSecond);
+}
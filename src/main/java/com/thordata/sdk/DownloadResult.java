@@ -0,0 +1,33 @@
+package com.thordata.sdk;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Summary of a completed file download.
+ */
+public final class DownloadResult {
+  public final Path path;
+  public final long bytes;
+  /** Bytes that were already on disk from an earlier, interrupted download. */
+  public final long resumedFrom;
+  public final int attempts;
+  public final Duration elapsed;
+  public final double bytesPerSecond;
+
+  DownloadResult(Path path, long bytes, long resumedFrom, int attempts, Duration elapsed) {
+    this.path = path;
+    this.bytes = bytes;
+    this.resumedFrom = resumedFrom;
+    this.attempts = attempts;
+    this.elapsed = elapsed;
+    long nanos = Math.max(1, elapsed.toNanos());
+    this.bytesPerSecond = (bytes - resumedFrom) * 1_000_000_000.0 / nanos;
+  }
+
+  @Override
+  public String toString() {
+    return "DownloadResult{path=" + path + ", bytes=" + bytes + ", resumedFrom=" + resumedFrom
+        + ", attempts=" + attempts + ", elapsed=" + elapsed.toMillis() + "ms}";
+  }
+}
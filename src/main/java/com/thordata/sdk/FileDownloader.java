@@ -0,0 +1,298 @@
+package com.thordata.sdk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Streams a URL to disk without buffering it in memory. Data goes to {@code <target>.part}
+ * through a {@link FileChannel}; an interrupted transfer is resumed with an HTTP Range request
+ * (also across processes, since the part file is kept), the final size is checked against
+ * Content-Length / Content-Range, and the part file is moved into place at the end.
+ */
+final class FileDownloader {
+  private static final int MAX_ATTEMPTS = 5;
+  private static final long PROGRESS_INTERVAL_NANOS = 200_000_000L;
+
+  private final ThordataTransport http;
+  private final String userAgent;
+  private final Duration timeout;
+  private final boolean compression;
+
+  FileDownloader(ThordataTransport http, String userAgent, Duration timeout, boolean compression) {
+    this.http = http;
+    this.userAgent = userAgent;
+    this.timeout = timeout;
+    this.compression = compression;
+  }
+
+  DownloadResult download(String url, Path target, DownloadProgressListener listener) throws Exception {
+    if (url == null || url.isBlank()) throw new IllegalArgumentException("url is required");
+    if (target == null) throw new IllegalArgumentException("target is required");
+
+    Path part = target.resolveSibling(target.getFileName() + ".part");
+    long resumedFrom = Files.exists(part) ? Files.size(part) : 0L;
+    long started = System.nanoTime();
+
+    IOException lastError = null;
+    for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+      long have = Files.exists(part) ? Files.size(part) : 0L;
+      Transfer t = new Transfer(part, have, listener);
+
+      HttpRequest.Builder rb = HttpRequest.newBuilder()
+          .uri(URI.create(url))
+          .timeout(timeout)
+          .header("User-Agent", userAgent)
+          // Byte offsets must refer to the file itself, so no transport may compress it.
+          .header("Accept-Encoding", "identity")
+          .GET();
+      if (have > 0) rb.header("Range", "bytes=" + have + "-");
+
+      HttpResponse<Long> res;
+      try {
+        res = http.send(rb.build(), t::handler);
+      } catch (IOException e) {
+        // A part file that cannot be opened or written does not get better by downloading again.
+        if (t.writeError != null) throw t.writeError;
+        lastError = e;
+        pause(attempt);
+        continue;
+      }
+
+      int status = res.statusCode();
+      if (status == 416 && have > 0) {
+        // Either the part file is already complete or it no longer matches the remote file.
+        if (t.total == have) return finish(part, target, have, resumedFrom, attempt, started);
+        Files.deleteIfExists(part);
+        continue;
+      }
+      if (status >= 500) {
+        lastError = new IOException("HTTP " + status + " while downloading");
+        pause(attempt);
+        continue;
+      }
+      if (status != 200 && status != 206) {
+        throw new ThordataErrors.ThordataApiException("Download failed with HTTP " + status, null, status, url);
+      }
+      if (!t.accepted) {
+        // A partial response that does not line up with the part file; start over.
+        Files.deleteIfExists(part);
+        continue;
+      }
+
+      long size = Files.size(part);
+      if (t.total < 0 || size == t.total) {
+        return finish(part, target, size, resumedFrom, attempt, started);
+      }
+      if (size > t.total) {
+        Files.deleteIfExists(part);
+        throw new ThordataErrors.ThordataException("Downloaded " + size + " bytes but expected " + t.total);
+      }
+      // Short read: the connection ended early, resume from where we are.
+      lastError = new IOException("Connection closed after " + size + " of " + t.total + " bytes");
+    }
+    throw new ThordataErrors.ThordataException("Download failed after " + MAX_ATTEMPTS + " attempts: "
+        + (lastError == null ? "unknown error" : lastError.getMessage()));
+  }
+
+  /**
+   * Opens {@code url} as a plain response stream for callers that consume the body as it arrives.
+   * Closing the stream before the end cancels the transfer.
+   */
+  InputStream open(String url) throws Exception {
+    if (url == null || url.isBlank()) throw new IllegalArgumentException("url is required");
+    HttpRequest req = HttpRequest.newBuilder()
+        .uri(URI.create(url))
+        .timeout(timeout)
+        .header("User-Agent", userAgent)
+        .header("Accept-Encoding", compression ? DecodingBodyHandler.ACCEPT_ENCODING : "identity")
+        .GET()
+        .build();
+    HttpResponse<InputStream> res = http.send(req, DecodingBodyHandler.ofInputStream());
+    if (res.statusCode() != 200) {
+      String detail;
+      try (InputStream in = res.body()) {
+        detail = new String(in.readNBytes(2048), StandardCharsets.UTF_8);
+      }
+      throw new ThordataErrors.ThordataApiException("Download failed with HTTP " + res.statusCode(), null, res.statusCode(), detail);
+    }
+    return res.body();
+  }
+
+  private static DownloadResult finish(Path part, Path target, long size, long resumedFrom, int attempts, long started)
+      throws IOException {
+    try {
+      Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+    return new DownloadResult(target, size, resumedFrom, attempts, Duration.ofNanos(System.nanoTime() - started));
+  }
+
+  private static void pause(int attempt) throws InterruptedException {
+    Thread.sleep(Math.min(5_000L, 250L * attempt * attempt));
+  }
+
+  /**
+   * One HTTP exchange. The body handler decides from the status line whether to append to the
+   * part file (matching 206), rewrite it (200) or discard the body (anything else).
+   */
+  private static final class Transfer implements HttpResponse.BodySubscriber<Long> {
+    private final Path part;
+    private final long have;
+    private final long started;
+    private final DownloadProgressListener listener;
+    private volatile long total = -1;
+    private volatile boolean accepted;
+    /**
+     * Set when the part file could not be opened or written; the exchange is cancelled and fails
+     * with it.
+     */
+    private volatile IOException writeError;
+    private final CompletableFuture<Long> body = new CompletableFuture<>();
+    private FileChannel channel;
+    private Flow.Subscription subscription;
+    private long written;
+    private long sessionBytes;
+    private long lastReport;
+
+    Transfer(Path part, long have, DownloadProgressListener listener) {
+      this.part = part;
+      this.have = have;
+      // The rate covers this attempt's bytes, so it is timed from this attempt on.
+      this.started = System.nanoTime();
+      this.listener = listener;
+    }
+
+    HttpResponse.BodySubscriber<Long> handler(HttpResponse.ResponseInfo info) {
+      int status = info.statusCode();
+      String range = info.headers().firstValue("Content-Range").orElse(null);
+      try {
+        if (status == 206 && rangeStart(range) == have) {
+          total = rangeTotal(range);
+          return open(have > 0, have);
+        }
+        if (status == 200) {
+          total = info.headers().firstValueAsLong("Content-Length").orElse(-1L);
+          return open(false, 0);
+        }
+      } catch (IOException e) {
+        writeError = e;
+        throw new UncheckedIOException(e);
+      }
+      if (status == 416) total = rangeTotal(range);
+      return HttpResponse.BodySubscribers.replacing(-1L);
+    }
+
+    private HttpResponse.BodySubscriber<Long> open(boolean append, long offset) throws IOException {
+      channel = append
+          ? FileChannel.open(part, StandardOpenOption.WRITE, StandardOpenOption.APPEND)
+          : FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+      written = offset;
+      accepted = true;
+      return this;
+    }
+
+    @Override
+    public CompletionStage<Long> getBody() {
+      return body;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription s) {
+      subscription = s;
+      s.request(1);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> buffers) {
+      if (body.isDone()) return;
+      try {
+        for (ByteBuffer b : buffers) {
+          int n = b.remaining();
+          while (b.hasRemaining()) channel.write(b);
+          written += n;
+          sessionBytes += n;
+        }
+        report(false);
+        subscription.request(1);
+      } catch (IOException e) {
+        // The client sends nothing after a cancel, so the body has to be failed here.
+        writeError = e;
+        subscription.cancel();
+        onError(e);
+      }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      closeQuietly();
+      body.completeExceptionally(t);
+    }
+
+    @Override
+    public void onComplete() {
+      closeQuietly();
+      report(true);
+      body.complete(written);
+    }
+
+    private void report(boolean force) {
+      if (listener == null) return;
+      long now = System.nanoTime();
+      if (!force && now - lastReport < PROGRESS_INTERVAL_NANOS) return;
+      lastReport = now;
+      double seconds = Math.max(1e-9, (now - started) / 1e9);
+      listener.onProgress(written, total, sessionBytes / seconds);
+    }
+
+    private void closeQuietly() {
+      try {
+        if (channel != null) channel.close();
+      } catch (IOException ignored) {
+      }
+    }
+
+    private static long rangeStart(String contentRange) {
+      // "bytes 100-199/200"
+      if (contentRange == null) return -1;
+      int sp = contentRange.indexOf(' ');
+      int dash = contentRange.indexOf('-', sp + 1);
+      if (sp < 0 || dash < 0) return -1;
+      try {
+        return Long.parseLong(contentRange.substring(sp + 1, dash).trim());
+      } catch (NumberFormatException e) {
+        return -1;
+      }
+    }
+
+    private static long rangeTotal(String contentRange) {
+      if (contentRange == null) return -1;
+      int slash = contentRange.lastIndexOf('/');
+      if (slash < 0) return -1;
+      String t = contentRange.substring(slash + 1).trim();
+      if (t.equals("*")) return -1;
+      try {
+        return Long.parseLong(t);
+      } catch (NumberFormatException e) {
+        return -1;
+      }
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package com.thordata.sdk;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * {@code application/x-www-form-urlencoded} encoder producing the same output as
+ * {@link java.net.URLEncoder} with UTF-8, but writing bytes straight into a per-thread scratch
+ * buffer. Characters that need no escaping are copied as-is; only the final body is allocated.
+ */
+final class FormEncoder {
+  private static final boolean[] UNRESERVED = new boolean[128];
+  private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+  /** Scratch buffers that grew past this size are dropped after use rather than kept per thread. */
+  private static final int MAX_RETAINED = 64 * 1024;
+  private static final ThreadLocal<FormEncoder> SCRATCH = ThreadLocal.withInitial(FormEncoder::new);
+
+  static {
+    for (char c = 'a'; c <= 'z'; c++) UNRESERVED[c] = true;
+    for (char c = 'A'; c <= 'Z'; c++) UNRESERVED[c] = true;
+    for (char c = '0'; c <= '9'; c++) UNRESERVED[c] = true;
+    UNRESERVED['.'] = true;
+    UNRESERVED['-'] = true;
+    UNRESERVED['*'] = true;
+    UNRESERVED['_'] = true;
+  }
+
+  private byte[] buf = new byte[1024];
+  private int len;
+
+  private FormEncoder() {
+  }
+
+  /** Encodes {@code form} in iteration order, skipping null values. */
+  static byte[] encode(Map<String, String> form) {
+    FormEncoder e = SCRATCH.get();
+    e.len = 0;
+    boolean first = true;
+    for (Map.Entry<String, String> entry : form.entrySet()) {
+      if (entry.getValue() == null) continue;
+      if (!first) e.put((byte) '&');
+      first = false;
+      e.append(entry.getKey());
+      e.put((byte) '=');
+      e.append(entry.getValue());
+    }
+    byte[] out = Arrays.copyOf(e.buf, e.len);
+    if (e.buf.length > MAX_RETAINED) e.buf = new byte[1024];
+    return out;
+  }
+
+  static String encodeToString(Map<String, String> form) {
+    // The encoded form is pure ASCII.
+    return new String(encode(form), StandardCharsets.ISO_8859_1);
+  }
+
+  private void append(String s) {
+    int n = s.length();
+    ensure(n);
+    for (int i = 0; i < n; i++) {
+      char c = s.charAt(i);
+      if (c < 128) {
+        if (UNRESERVED[c]) {
+          put((byte) c);
+        } else if (c == ' ') {
+          put((byte) '+');
+        } else {
+          escape(c);
+        }
+      } else if (c < 0x800) {
+        escape(0xC0 | (c >> 6));
+        escape(0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+        int cp = Character.toCodePoint(c, s.charAt(++i));
+        escape(0xF0 | (cp >> 18));
+        escape(0x80 | ((cp >> 12) & 0x3F));
+        escape(0x80 | ((cp >> 6) & 0x3F));
+        escape(0x80 | (cp & 0x3F));
+      } else if (Character.isSurrogate(c)) {
+        // Unpaired surrogate: URLEncoder's UTF-8 encoder substitutes '?'.
+        escape('?');
+      } else {
+        escape(0xE0 | (c >> 12));
+        escape(0x80 | ((c >> 6) & 0x3F));
+        escape(0x80 | (c & 0x3F));
+      }
+    }
+  }
+
+  private void escape(int b) {
+    ensure(3);
+    buf[len++] = '%';
+    buf[len++] = HEX[(b >> 4) & 0xF];
+    buf[len++] = HEX[b & 0xF];
+  }
+
+  private void put(byte b) {
+    if (len == buf.length) ensure(1);
+    buf[len++] = b;
+  }
+
+  private void ensure(int extra) {
+    if (len + extra > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + extra));
+  }
+}
@@ -0,0 +1,37 @@
+package com.thordata.sdk;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One entry of {@code images_results} ({@code searchType = "images"}).
+ */
+public class ImageResult extends SerpResult {
+    @JsonProperty("position")
+    public int position;
+
+    @JsonProperty("title")
+    public String title;
+
+    @JsonProperty("link")
+    public String link;
+
+    @JsonProperty("source")
+    public String source;
+
+    @JsonProperty("original")
+    public String original;
+
+    @JsonProperty("thumbnail")
+    public String thumbnail;
+
+    @JsonProperty("original_width")
+    public Integer originalWidth;
+
+    @JsonProperty("original_height")
+    public Integer originalHeight;
+
+    @Override
+    public String toString() {
+        return "ImageResult{position=" + position + ", title='" + title + "', original='" + original + "'}";
+    }
+}
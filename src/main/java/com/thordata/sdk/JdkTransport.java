@@ -0,0 +1,54 @@
+package com.thordata.sdk;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link ThordataTransport} on {@code java.net.http.HttpClient}. The client uses one built from
+ * its config unless another transport is set; wrap a custom {@code HttpClient} to control its
+ * executor, SSL context or authenticator.
+ */
+public final class JdkTransport implements ThordataTransport {
+  private final HttpClient http;
+
+  public JdkTransport(HttpClient http) {
+    if (http == null) throw new IllegalArgumentException("http is required");
+    this.http = http;
+  }
+
+  /** The client's default: connect timeout, normal redirects, HTTP version and the optional HTTP proxy. */
+  static JdkTransport forConfig(ThordataConfig cfg) {
+    HttpClient.Builder b = HttpClient.newBuilder()
+        .connectTimeout(cfg.timeout == null ? Duration.ofSeconds(30) : cfg.timeout)
+        .followRedirects(HttpClient.Redirect.NORMAL);
+    if (cfg.httpVersion != null) b.version(cfg.httpVersion);
+
+    if (cfg.httpProxyUrl != null && !cfg.httpProxyUrl.isBlank()) {
+      InetSocketAddress proxy = Utils.parseHttpProxy(cfg.httpProxyUrl);
+      if (proxy != null) {
+        b.proxy(ProxySelector.of(proxy));
+      }
+    }
+    return new JdkTransport(b.build());
+  }
+
+  public HttpClient httpClient() {
+    return http;
+  }
+
+  @Override
+  public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException, InterruptedException {
+    return http.send(request, handler);
+  }
+
+  @Override
+  public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+    return http.sendAsync(request, handler);
+  }
+}
@@ -0,0 +1,122 @@
+package com.thordata.sdk;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free log-linear histogram of durations at microsecond resolution.
+ *
+ * <p>Values below 16us get a bucket each; above that every power of two is split into 16 equal
+ * buckets, so a reported percentile is at most 1/16 (6.25%) above the true value. Durations up to
+ * about 12 days are kept apart, longer ones land in the last bucket. Counts are striped across
+ * several arrays by thread to keep concurrent recorders off each other's cache lines.
+ */
+public final class LatencyHistogram {
+  private static final int SUB_BITS = 4;
+  private static final int SUB_COUNT = 1 << SUB_BITS;
+  private static final int MAX_EXPONENT = 39;
+  static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_COUNT;
+
+  private final AtomicLongArray[] stripes;
+  private final LongAdder sumMicros = new LongAdder();
+  private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+  public LatencyHistogram() {
+    int n = Integer.highestOneBit(Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors())));
+    stripes = new AtomicLongArray[n];
+    for (int i = 0; i < n; i++) stripes[i] = new AtomicLongArray(BUCKETS);
+  }
+
+  public void record(long nanos) {
+    long micros = Math.max(0, nanos / 1_000);
+    AtomicLongArray stripe = stripes[(int) Thread.currentThread().getId() & (stripes.length - 1)];
+    stripe.incrementAndGet(bucket(micros));
+    sumMicros.add(micros);
+    maxMicros.accumulate(micros);
+  }
+
+  public void record(Duration d) {
+    record(d.toNanos());
+  }
+
+  /** Point-in-time copy; recording may continue while it is taken. */
+  public Snapshot snapshot() {
+    long[] counts = new long[BUCKETS];
+    long total = 0;
+    for (AtomicLongArray stripe : stripes) {
+      for (int i = 0; i < BUCKETS; i++) {
+        long c = stripe.get(i);
+        counts[i] += c;
+        total += c;
+      }
+    }
+    return new Snapshot(counts, total, sumMicros.sum(), maxMicros.get());
+  }
+
+  static int bucket(long micros) {
+    if (micros < SUB_COUNT) return (int) micros;
+    int exp = 63 - Long.numberOfLeadingZeros(micros);
+    if (exp > MAX_EXPONENT) return BUCKETS - 1;
+    int sub = (int) (micros >>> (exp - SUB_BITS)) & (SUB_COUNT - 1);
+    return (exp - SUB_BITS + 1) * SUB_COUNT + sub;
+  }
+
+  /** Largest value that falls into {@code bucket}. */
+  static long highestValue(int bucket) {
+    return lowestValue(bucket + 1) - 1;
+  }
+
+  private static long lowestValue(int bucket) {
+    if (bucket < SUB_COUNT) return bucket;
+    int exp = bucket / SUB_COUNT + SUB_BITS - 1;
+    long sub = bucket % SUB_COUNT;
+    return (SUB_COUNT + sub) << (exp - SUB_BITS);
+  }
+
+  public static final class Snapshot {
+    private final long[] counts;
+    private final long count;
+    private final long sumMicros;
+    private final long maxMicros;
+
+    Snapshot(long[] counts, long count, long sumMicros, long maxMicros) {
+      this.counts = counts;
+      this.count = count;
+      this.sumMicros = sumMicros;
+      this.maxMicros = maxMicros;
+    }
+
+    public long count() { return count; }
+
+    public Duration max() { return Duration.ofNanos(maxMicros * 1_000); }
+
+    public Duration mean() {
+      return count == 0 ? Duration.ZERO : Duration.ofNanos(sumMicros * 1_000 / count);
+    }
+
+    public Duration p50() { return percentile(0.50); }
+    public Duration p99() { return percentile(0.99); }
+    public Duration p999() { return percentile(0.999); }
+
+    /** Smallest bucket bound that covers {@code quantile} (0..1) of the recorded values. */
+    public Duration percentile(double quantile) {
+      if (quantile < 0 || quantile > 1) throw new IllegalArgumentException("quantile must be within [0, 1]");
+      if (count == 0) return Duration.ZERO;
+      long rank = Math.max(1, (long) Math.ceil(quantile * count));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) return Duration.ofNanos(Math.min(highestValue(i), maxMicros) * 1_000);
+      }
+      return max();
+    }
+
+    @Override
+    public String toString() {
+      return "count=" + count + ", p50=" + p50().toNanos() / 1_000 + "us, p99=" + p99().toNanos() / 1_000
+          + "us, p999=" + p999().toNanos() / 1_000 + "us, max=" + maxMicros + "us";
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package com.thordata.sdk;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonSetter;
+
+/**
+ * One entry of {@code local_results} (map packs, {@code google_maps}).
+ */
+public class LocalResult extends SerpResult {
+    @JsonProperty("position")
+    public int position;
+
+    @JsonProperty("title")
+    public String title;
+
+    @JsonProperty("place_id")
+    public String placeId;
+
+    @JsonProperty("address")
+    public String address;
+
+    @JsonProperty("phone")
+    public String phone;
+
+    @JsonProperty("website")
+    public String website;
+
+    @JsonProperty("type")
+    public String type;
+
+    @JsonProperty("rating")
+    public Double rating;
+
+    @JsonProperty("reviews")
+    public Integer reviews;
+
+    @JsonProperty("hours")
+    public String hours;
+
+    @JsonSetter("rating")
+    void setRating(Object v) { rating = lenientDouble("rating", v); }
+
+    @JsonSetter("reviews")
+    void setReviews(Object v) { reviews = lenientInt("reviews", v); }
+
+    @JsonSetter("hours")
+    void setHours(Object v) { hours = lenientString("hours", v); }
+
+    @Override
+    public String toString() {
+        return "LocalResult{position=" + position + ", title='" + title + "', address='" + address + "'}";
+    }
+}
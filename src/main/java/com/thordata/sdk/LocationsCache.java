@@ -0,0 +1,158 @@
+package com.thordata.sdk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * TTL cache for the Locations API, enabled through {@link ThordataConfig.Builder#locationsCache}.
+ *
+ * <p>Entries are keyed by (endpoint, proxy_type, country_code, state_code) and expire
+ * {@code ttl} after they were fetched. With a {@code snapshot} path set, the cache is loaded from
+ * that file when a client is created and written back after new entries arrive, so a fresh
+ * process starts warm. The write happens in the background, {@code snapshotDelay} after the
+ * first new entry, so a burst of lookups costs one write and no request thread does file I/O;
+ * {@link ThordataClient#close()} and {@link #saveSnapshot()} write pending entries right away.
+ * Cached lists are shared between callers and must be treated as read-only.
+ */
+public final class LocationsCache {
+  private static final ObjectMapper OM = new ObjectMapper();
+  private static final int SNAPSHOT_VERSION = 1;
+
+  public Duration ttl = Duration.ofHours(6);
+  public Path snapshot;
+  public Duration snapshotDelay = Duration.ofSeconds(2);
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private volatile boolean dirty;
+  private final AtomicBoolean saveScheduled = new AtomicBoolean();
+
+  public LocationsCache ttl(Duration d) { this.ttl = d; return this; }
+  public LocationsCache snapshot(Path p) { this.snapshot = p; return this; }
+  public LocationsCache snapshotDelay(Duration d) { this.snapshotDelay = d; return this; }
+
+  /** Number of entries, fresh or not. */
+  public int size() {
+    return entries.size();
+  }
+
+  public void clear() {
+    entries.clear();
+    dirty = true;
+  }
+
+  static String key(String endpoint, Map<String, String> params) {
+    return endpoint
+        + '|' + params.getOrDefault("proxy_type", "")
+        + '|' + params.getOrDefault("country_code", "")
+        + '|' + params.getOrDefault("state_code", "");
+  }
+
+  /** The cached value, or null when missing or older than {@code ttl}. */
+  Object get(String key) {
+    Entry e = entries.get(key);
+    if (e == null) return null;
+    if (System.currentTimeMillis() - e.fetchedAt >= ttl.toMillis()) {
+      entries.remove(key, e);
+      return null;
+    }
+    return e.data;
+  }
+
+  void put(String key, Object data) {
+    entries.put(key, new Entry(System.currentTimeMillis(), data));
+    dirty = true;
+    scheduleSave();
+  }
+
+  private void scheduleSave() {
+    if (snapshot == null || !saveScheduled.compareAndSet(false, true)) return;
+    CompletableFuture.delayedExecutor(snapshotDelay.toMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+      // Entries arriving during the write schedule the next one.
+      saveScheduled.set(false);
+      try {
+        saveSnapshot();
+      } catch (IOException ignored) {
+        // The snapshot is an optimisation; the next new entry tries again.
+      }
+    });
+  }
+
+  /**
+   * Reads {@code snapshot} if it exists, keeping only entries that are still fresh. A missing or
+   * unreadable file leaves the cache empty.
+   */
+  void loadSnapshot() {
+    Path p = snapshot;
+    if (p == null || !Files.isRegularFile(p)) return;
+    try {
+      Snapshot s = OM.readValue(p.toFile(), Snapshot.class);
+      if (s.version != SNAPSHOT_VERSION || s.entries == null) return;
+      long now = System.currentTimeMillis();
+      for (Map.Entry<String, Entry> e : s.entries.entrySet()) {
+        Entry v = e.getValue();
+        if (v != null && now - v.fetchedAt < ttl.toMillis()) entries.putIfAbsent(e.getKey(), v);
+      }
+    } catch (IOException ignored) {
+      // A corrupt snapshot only costs a cold start.
+    }
+  }
+
+  /**
+   * Writes the cache to {@code snapshot} if anything changed since the last write. The file is
+   * replaced atomically, so a concurrent reader never sees half of it.
+   */
+  public synchronized void saveSnapshot() throws IOException {
+    Path p = snapshot;
+    if (p == null || !dirty) return;
+    dirty = false;
+
+    Snapshot s = new Snapshot();
+    s.version = SNAPSHOT_VERSION;
+    s.entries = new LinkedHashMap<>(entries);
+    Path tmp = p.resolveSibling(p.getFileName() + ".tmp");
+    try {
+      if (p.getParent() != null) Files.createDirectories(p.getParent());
+      OM.writeValue(tmp.toFile(), s);
+      try {
+        Files.move(tmp, p, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmp, p, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException e) {
+      dirty = true;
+      Files.deleteIfExists(tmp);
+      throw e;
+    }
+  }
+
+  // Jackson-bound snapshot layout: {"version":1,"entries":{"key":{"fetchedAt":...,"data":[...]}}}
+  static final class Snapshot {
+    public int version;
+    public Map<String, Entry> entries;
+  }
+
+  static final class Entry {
+    public long fetchedAt;
+    public Object data;
+
+    public Entry() {
+    }
+
+    Entry(long fetchedAt, Object data) {
+      this.fetchedAt = fetchedAt;
+      this.data = data;
+    }
+  }
+}
@@ -0,0 +1,125 @@
+package com.thordata.sdk;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Default {@link ThordataMetrics}: keeps per-endpoint counters and latency histograms in memory
+ * and has no dependencies, so it can be scraped into whatever monitoring system is in use.
+ *
+ * <pre>{@code
+ * MetricsRecorder metrics = new MetricsRecorder();
+ * ThordataClient client = new ThordataClient(ThordataConfig.builder(token).metrics(metrics).build());
+ * ...
+ * System.out.println(metrics.endpoint(ThordataEndpoint.SERP).networkLatency().p99());
+ * }</pre>
+ *
+ * All counters are striped ({@link LongAdder}) and recording never takes a lock.
+ */
+public final class MetricsRecorder implements ThordataMetrics {
+  private final Map<ThordataEndpoint, EndpointMetrics> endpoints = new EnumMap<>(ThordataEndpoint.class);
+
+  public MetricsRecorder() {
+    for (ThordataEndpoint e : ThordataEndpoint.values()) endpoints.put(e, new EndpointMetrics());
+  }
+
+  @Override
+  public void onCall(Call call) {
+    endpoints.get(call.endpoint).record(call);
+  }
+
+  public EndpointMetrics endpoint(ThordataEndpoint endpoint) {
+    return endpoints.get(endpoint);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (Map.Entry<ThordataEndpoint, EndpointMetrics> e : endpoints.entrySet()) {
+      if (e.getValue().calls() == 0) continue;
+      sb.append(e.getKey()).append(": ").append(e.getValue()).append('\n');
+    }
+    return sb.toString();
+  }
+
+  /** Live counters of one endpoint. */
+  public static final class EndpointMetrics {
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder requestBytes = new LongAdder();
+    private final LongAdder responseBytes = new LongAdder();
+    private final LongAdder wireBytes = new LongAdder();
+    private final Map<Integer, LongAdder> httpStatuses = new ConcurrentHashMap<>();
+    private final Map<Integer, LongAdder> apiCodes = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errorTypes = new ConcurrentHashMap<>();
+    private final LatencyHistogram networkLatency = new LatencyHistogram();
+    private final LatencyHistogram queueLatency = new LatencyHistogram();
+
+    EndpointMetrics() {
+    }
+
+    void record(Call call) {
+      calls.increment();
+      if (call.attempt > 1) retries.increment();
+      requestBytes.add(call.requestBytes);
+      if (call.responseBytes > 0) responseBytes.add(call.responseBytes);
+      if (call.wireBytes > 0) wireBytes.add(call.wireBytes);
+      if (call.httpStatus > 0) httpStatuses.computeIfAbsent(call.httpStatus, k -> new LongAdder()).increment();
+      if (call.apiCode != null) apiCodes.computeIfAbsent(call.apiCode, k -> new LongAdder()).increment();
+      if (call.error != null) {
+        errors.increment();
+        errorTypes.computeIfAbsent(call.error.getSimpleName(), k -> new LongAdder()).increment();
+      }
+      networkLatency.record(call.networkNanos);
+      queueLatency.record(call.queueNanos);
+    }
+
+    /** Attempts made, retries included. */
+    public long calls() { return calls.sum(); }
+
+    /** Attempts that failed, for whatever reason. */
+    public long errors() { return errors.sum(); }
+
+    /** Attempts that were retries of an earlier failed attempt. */
+    public long retries() { return retries.sum(); }
+
+    public long requestBytes() { return requestBytes.sum(); }
+
+    /** Response body bytes after decompression. */
+    public long responseBytes() { return responseBytes.sum(); }
+
+    /** Response body bytes as transferred, before decompression. */
+    public long wireBytes() { return wireBytes.sum(); }
+
+    /** Attempts per HTTP status. */
+    public Map<Integer, Long> httpStatuses() { return sums(httpStatuses); }
+
+    /** Failed attempts per API {@code code}. */
+    public Map<Integer, Long> apiCodes() { return sums(apiCodes); }
+
+    /** Failed attempts per exception class (simple name). */
+    public Map<String, Long> errorTypes() { return sums(errorTypes); }
+
+    public LatencyHistogram.Snapshot networkLatency() { return networkLatency.snapshot(); }
+
+    public LatencyHistogram.Snapshot queueLatency() { return queueLatency.snapshot(); }
+
+    private static <K> Map<K, Long> sums(Map<K, LongAdder> counters) {
+      Map<K, Long> out = new TreeMap<>();
+      counters.forEach((k, v) -> out.put(k, v.sum()));
+      return out;
+    }
+
+    @Override
+    public String toString() {
+      return "calls=" + calls() + ", errors=" + errors() + ", retries=" + retries()
+          + ", bytes=" + requestBytes() + "/" + responseBytes() + " (wire " + wireBytes() + ")"
+          + ", http=" + httpStatuses() + ", errorTypes=" + errorTypes()
+          + ", network{" + networkLatency() + "}";
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package com.thordata.sdk;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One entry of {@code news_results} ({@code searchType = "news"}).
+ */
+public class NewsResult extends SerpResult {
+    @JsonProperty("position")
+    public int position;
+
+    @JsonProperty("title")
+    public String title;
+
+    @JsonProperty("link")
+    public String link;
+
+    @JsonProperty("source")
+    public String source;
+
+    @JsonProperty("date")
+    public String date;
+
+    @JsonProperty("snippet")
+    public String snippet;
+
+    @JsonProperty("thumbnail")
+    public String thumbnail;
+
+    @Override
+    public String toString() {
+        return "NewsResult{position=" + position + ", title='" + title + "', source='" + source + "'}";
+    }
+}
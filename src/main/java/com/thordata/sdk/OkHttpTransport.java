@@ -0,0 +1,356 @@
+package com.thordata.sdk;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import javax.net.ssl.SSLSession;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ThordataTransport} on OkHttp, with control over connection pooling and dispatching:
+ *
+ * <pre>{@code
+ * OkHttpTransport transport = new OkHttpTransport().maxRequestsPerHost(128).maxIdleConnections(64);
+ * ThordataClient client = new ThordataClient(ThordataConfig.builder(token).transport(transport).build());
+ * ...
+ * System.out.println(transport.stats());
+ * }</pre>
+ *
+ * <p>{@code maxRequests} and {@code maxRequestsPerHost} cap concurrent async calls; further
+ * calls queue in the dispatcher instead of opening more connections. Sync calls are not limited.
+ * The per-request timeout set by the client applies to each read and write, as with the JDK
+ * client's timeout it does not cap the time taken to stream a large body. The proxy from
+ * {@link ThordataConfig.Builder#httpProxy} is not picked up; set {@link #httpProxy} here.
+ *
+ * <p>Configure the transport before its first request; the OkHttp client is built then.
+ */
+public final class OkHttpTransport implements ThordataTransport {
+  public int maxIdleConnections = 32;
+  public Duration keepAlive = Duration.ofMinutes(5);
+  public int maxRequests = 256;
+  public int maxRequestsPerHost = 64;
+  /**
+   * Runs async calls; null uses OkHttp's default cached thread pool. A pool passed in stays the
+   * caller's: {@link #close} only shuts down the default one.
+   */
+  public ExecutorService executor;
+  public Duration connectTimeout = Duration.ofSeconds(30);
+  public String httpProxy;
+  /** {@code HTTP_1_1} disables HTTP/2; null or {@code HTTP_2} negotiates it over TLS. */
+  public HttpClient.Version httpVersion;
+
+  private volatile OkHttpClient client;
+  /** Whether the dispatcher's executor was created here rather than passed in. */
+  private boolean ownsExecutor;
+  private final Map<Duration, OkHttpClient> byTimeout = new ConcurrentHashMap<>();
+
+  public OkHttpTransport maxIdleConnections(int n) { this.maxIdleConnections = n; return this; }
+  public OkHttpTransport keepAlive(Duration d) { this.keepAlive = d; return this; }
+  public OkHttpTransport maxRequests(int n) { this.maxRequests = n; return this; }
+  public OkHttpTransport maxRequestsPerHost(int n) { this.maxRequestsPerHost = n; return this; }
+  public OkHttpTransport executor(ExecutorService e) { this.executor = e; return this; }
+  public OkHttpTransport connectTimeout(Duration d) { this.connectTimeout = d; return this; }
+  public OkHttpTransport httpProxy(String url) { this.httpProxy = url; return this; }
+  public OkHttpTransport httpVersion(HttpClient.Version v) { this.httpVersion = v; return this; }
+
+  /** The underlying client, built on first use. */
+  public OkHttpClient okHttpClient() {
+    OkHttpClient c = client;
+    if (c == null) {
+      synchronized (this) {
+        c = client;
+        if (c == null) client = c = build();
+      }
+    }
+    return c;
+  }
+
+  private OkHttpClient build() {
+    ownsExecutor = executor == null;
+    Dispatcher dispatcher = executor == null ? new Dispatcher() : new Dispatcher(executor);
+    dispatcher.setMaxRequests(maxRequests);
+    dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+    OkHttpClient.Builder b = new OkHttpClient.Builder()
+        .dispatcher(dispatcher)
+        .connectionPool(new ConnectionPool(maxIdleConnections, keepAlive.toMillis(), TimeUnit.MILLISECONDS))
+        .connectTimeout(connectTimeout);
+    InetSocketAddress proxy = Utils.parseHttpProxy(httpProxy);
+    if (proxy != null) b.proxy(new Proxy(Proxy.Type.HTTP, proxy));
+    if (httpVersion == HttpClient.Version.HTTP_1_1) b.protocols(List.of(Protocol.HTTP_1_1));
+    return b.build();
+  }
+
+  /** Clients differing only in timeouts share the pool and dispatcher. */
+  private OkHttpClient clientFor(HttpRequest request) {
+    OkHttpClient base = okHttpClient();
+    Optional<Duration> timeout = request.timeout();
+    if (timeout.isEmpty()) return base;
+    return byTimeout.computeIfAbsent(timeout.get(), t -> base.newBuilder().readTimeout(t).writeTimeout(t).build());
+  }
+
+  @Override
+  public Stats stats() {
+    OkHttpClient c = client;
+    if (c == null) return new Stats(0, 0, 0, 0);
+    return new Stats(c.connectionPool().connectionCount(), c.connectionPool().idleConnectionCount(),
+        c.dispatcher().runningCallsCount(), c.dispatcher().queuedCallsCount());
+  }
+
+  @Override
+  public void close() {
+    OkHttpClient c = client;
+    if (c == null) return;
+    if (ownsExecutor) c.dispatcher().executorService().shutdown();
+    c.connectionPool().evictAll();
+  }
+
+  @Override
+  public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException, InterruptedException {
+    Response res = clientFor(request).newCall(toOkRequest(request)).execute();
+    return toResponse(request, res, handler);
+  }
+
+  @Override
+  public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+    Call call;
+    try {
+      call = clientFor(request).newCall(toOkRequest(request));
+    } catch (IOException | RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+    call.enqueue(new Callback() {
+      @Override
+      public void onFailure(Call c, IOException e) {
+        result.completeExceptionally(e);
+      }
+
+      @Override
+      public void onResponse(Call c, Response res) {
+        try {
+          result.complete(toResponse(request, res, handler));
+        } catch (Exception e) {
+          result.completeExceptionally(e);
+        }
+      }
+    });
+    result.whenComplete((r, e) -> {
+      if (result.isCancelled()) call.cancel();
+    });
+    return result;
+  }
+
+  private static Request toOkRequest(HttpRequest req) throws IOException {
+    Request.Builder b = new Request.Builder().url(HttpUrl.get(req.uri()));
+    req.headers().map().forEach((name, values) -> {
+      for (String v : values) b.addHeader(name, v);
+    });
+    String method = req.method();
+    HttpRequest.BodyPublisher publisher = req.bodyPublisher().orElse(null);
+    RequestBody body = null;
+    if (publisher != null && publisher.contentLength() != 0) {
+      body = RequestBody.create(readBody(publisher), null);
+    } else if (method.equals("POST") || method.equals("PUT") || method.equals("PATCH")) {
+      body = RequestBody.create(new byte[0], null);
+    }
+    return b.method(method, body).build();
+  }
+
+  /** The client's bodies are in-memory byte arrays, so publishing completes synchronously. */
+  private static byte[] readBody(HttpRequest.BodyPublisher publisher) throws IOException {
+    long length = publisher.contentLength();
+    ByteArrayOutputStream out = new ByteArrayOutputStream(length > 0 && length < Integer.MAX_VALUE ? (int) length : 256);
+    CompletableFuture<Void> done = new CompletableFuture<>();
+    publisher.subscribe(new Flow.Subscriber<>() {
+      @Override
+      public void onSubscribe(Flow.Subscription s) {
+        s.request(Long.MAX_VALUE);
+      }
+
+      @Override
+      public void onNext(ByteBuffer buf) {
+        if (buf.hasArray()) {
+          out.write(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+        } else {
+          byte[] a = new byte[buf.remaining()];
+          buf.get(a);
+          out.write(a, 0, a.length);
+        }
+      }
+
+      @Override
+      public void onError(Throwable t) {
+        done.completeExceptionally(t);
+      }
+
+      @Override
+      public void onComplete() {
+        done.complete(null);
+      }
+    });
+    await(done);
+    return out.toByteArray();
+  }
+
+  private static <T> HttpResponse<T> toResponse(HttpRequest request, Response res, HttpResponse.BodyHandler<T> handler) throws IOException {
+    HttpHeaders headers = HttpHeaders.of(res.headers().toMultimap(), (k, v) -> true);
+    HttpClient.Version version = res.protocol() == Protocol.HTTP_2 || res.protocol() == Protocol.H2_PRIOR_KNOWLEDGE
+        ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1;
+    int status = res.code();
+    URI uri = res.request().url().uri();
+
+    HttpResponse.BodySubscriber<T> subscriber;
+    try {
+      subscriber = handler.apply(new HttpResponse.ResponseInfo() {
+        @Override public int statusCode() { return status; }
+        @Override public HttpHeaders headers() { return headers; }
+        @Override public HttpClient.Version version() { return version; }
+      });
+    } catch (RuntimeException e) {
+      res.close();
+      if (e instanceof UncheckedIOException u) throw u.getCause();
+      throw new IOException(e.getMessage(), e);
+    }
+    subscriber.onSubscribe(new BodyFeeder(res, subscriber));
+    T body = await(subscriber.getBody().toCompletableFuture());
+    return new OkResponse<>(status, request, uri, headers, version, body);
+  }
+
+  private static <T> T await(CompletableFuture<T> f) throws IOException {
+    try {
+      return f.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException io) throw io;
+      if (cause instanceof UncheckedIOException u) throw u.getCause();
+      throw new IOException(cause);
+    }
+  }
+
+  /**
+   * Feeds the OkHttp body to a {@code BodySubscriber} as it asks for data. Reads happen on the
+   * thread that requests them: inline for subscribers that buffer the whole body, on the
+   * consumer's thread for {@code ofInputStream}.
+   */
+  private static final class BodyFeeder implements Flow.Subscription {
+    private static final int CHUNK = 16 * 1024;
+
+    private final Response res;
+    private final HttpResponse.BodySubscriber<?> subscriber;
+    private final InputStream in;
+    private long demand;
+    private boolean draining;
+    private boolean done;
+
+    BodyFeeder(Response res, HttpResponse.BodySubscriber<?> subscriber) {
+      this.res = res;
+      this.subscriber = subscriber;
+      ResponseBody body = res.body();
+      this.in = body == null ? InputStream.nullInputStream() : body.byteStream();
+    }
+
+    @Override
+    public synchronized void request(long n) {
+      if (done) return;
+      if (n <= 0) {
+        finish(new IllegalArgumentException("non-positive request: " + n));
+        return;
+      }
+      demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+      // onNext may call request() again; the outer loop picks up the new demand.
+      if (draining) return;
+      draining = true;
+      try {
+        while (demand > 0 && !done) {
+          // A fresh buffer per chunk: subscribers such as ofInputStream hold on to it.
+          byte[] buf = new byte[CHUNK];
+          int r = in.read(buf, 0, buf.length);
+          if (r < 0) {
+            finish(null);
+            return;
+          }
+          demand--;
+          subscriber.onNext(List.of(ByteBuffer.wrap(buf, 0, r)));
+        }
+      } catch (IOException e) {
+        finish(e);
+      } finally {
+        draining = false;
+      }
+    }
+
+    @Override
+    public synchronized void cancel() {
+      done = true;
+      res.close();
+    }
+
+    private void finish(Throwable error) {
+      if (done) return;
+      done = true;
+      res.close();
+      if (error == null) subscriber.onComplete();
+      else subscriber.onError(error);
+    }
+  }
+
+  private static final class OkResponse<T> implements HttpResponse<T> {
+    private final int status;
+    private final HttpRequest request;
+    private final URI uri;
+    private final HttpHeaders headers;
+    private final HttpClient.Version version;
+    private final T body;
+
+    OkResponse(int status, HttpRequest request, URI uri, HttpHeaders headers, HttpClient.Version version, T body) {
+      this.status = status;
+      this.request = request;
+      this.uri = uri;
+      this.headers = headers;
+      this.version = version;
+      this.body = body;
+    }
+
+    @Override public int statusCode() { return status; }
+    @Override public HttpRequest request() { return request; }
+    @Override public Optional<HttpResponse<T>> previousResponse() { return Optional.empty(); }
+    @Override public HttpHeaders headers() { return headers; }
+    @Override public T body() { return body; }
+    @Override public Optional<SSLSession> sslSession() { return Optional.empty(); }
+    @Override public URI uri() { return uri; }
+    @Override public HttpClient.Version version() { return version; }
+  }
+}
@@ -0,0 +1,37 @@
+package com.thordata.sdk;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One entry of {@code organic}.
+ */
+public class OrganicResult extends SerpResult {
+    @JsonProperty("position")
+    public int position;
+
+    @JsonProperty("title")
+    public String title;
+
+    @JsonProperty("link")
+    public String link;
+
+    @JsonProperty("displayed_link")
+    public String displayedLink;
+
+    @JsonProperty("snippet")
+    public String snippet;
+
+    @JsonProperty("source")
+    public String source;
+
+    @JsonProperty("date")
+    public String date;
+
+    @JsonProperty("favicon")
+    public String favicon;
+
+    @Override
+    public String toString() {
+        return "OrganicResult{position=" + position + ", title='" + title + "', link='" + link + "'}";
+    }
+}
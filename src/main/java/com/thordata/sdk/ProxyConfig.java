@@ -27,6 +27,22 @@ public final class ProxyConfig {
   public ProxyConfig session(String s) { this.sessionId = s; return this; }
   public ProxyConfig sticky(int minutes) { this.sessionDurationMinutes = minutes; return this; }
 
+  ProxyConfig copy() {
+    ProxyConfig c = new ProxyConfig();
+    c.product = product;
+    c.username = username;
+    c.password = password;
+    c.protocol = protocol;
+    c.host = host;
+    c.port = port;
+    c.noAuth = noAuth;
+    c.country = country;
+    c.city = city;
+    c.sessionId = sessionId;
+    c.sessionDurationMinutes = sessionDurationMinutes;
+    return c;
+  }
+
   public String buildGatewayUsername() {
     String base = "td-customer-" + this.username;
     StringBuilder sb = new StringBuilder(base);
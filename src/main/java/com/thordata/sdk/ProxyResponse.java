@@ -0,0 +1,59 @@
+package com.thordata.sdk;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A response fetched through the proxy network by {@link ThordataProxyClient}.
+ */
+public final class ProxyResponse {
+  public final int statusCode;
+  /** Final URL, after redirects. */
+  public final String url;
+  /** Response headers; names are lower-case. */
+  public final Map<String, List<String>> headers;
+  public final byte[] body;
+
+  ProxyResponse(int statusCode, String url, Map<String, List<String>> headers, byte[] body) {
+    this.statusCode = statusCode;
+    this.url = url;
+    this.headers = headers;
+    this.body = body;
+  }
+
+  /** First value of header {@code name}, or null. */
+  public String header(String name) {
+    List<String> values = headers.get(name.toLowerCase(Locale.ROOT));
+    return values == null || values.isEmpty() ? null : values.get(0);
+  }
+
+  /** The body decoded with the charset from {@code Content-Type}, UTF-8 by default. */
+  public String bodyText() {
+    return new String(body, charset());
+  }
+
+  private Charset charset() {
+    String type = header("content-type");
+    if (type != null) {
+      for (String part : type.split(";")) {
+        String p = part.trim();
+        if (p.regionMatches(true, 0, "charset=", 0, 8)) {
+          try {
+            return Charset.forName(p.substring(8).replace("\"", "").trim());
+          } catch (RuntimeException ignored) {
+            break;
+          }
+        }
+      }
+    }
+    return StandardCharsets.UTF_8;
+  }
+
+  @Override
+  public String toString() {
+    return "ProxyResponse{status=" + statusCode + ", url=" + url + ", bytes=" + body.length + "}";
+  }
+}
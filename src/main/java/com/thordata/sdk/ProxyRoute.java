@@ -0,0 +1,63 @@
+package com.thordata.sdk;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Immutable snapshot of a {@link ProxyConfig}: gateway endpoint and credentials resolved once,
+ * including environment variable lookups, with the {@code Proxy-Authorization} value precomputed.
+ * Obtain it from {@link #of(ProxyConfig)} and reuse it across requests.
+ *
+ * <p>Routes with the same {@link #key} (product, gateway endpoint and gateway username, which
+ * carries country, city and session) share keep-alive connections in {@link ThordataProxyClient}.
+ */
+public final class ProxyRoute {
+  public final ProxyProduct product;
+  /** {@code http}, or {@code https} for TLS to the gateway. */
+  public final String protocol;
+  public final String host;
+  public final int port;
+  /** Gateway username ({@code td-customer-...}), null with {@code noAuth}. */
+  public final String username;
+  public final String key;
+
+  final String proxyAuthorization;
+
+  private ProxyRoute(ProxyProduct product, String protocol, String host, int port, String username, String password) {
+    this.product = product;
+    this.protocol = protocol;
+    this.host = host;
+    this.port = port;
+    this.username = username;
+    this.proxyAuthorization = username == null ? null : "Basic " + Base64.getEncoder()
+        .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+    this.key = product + "|" + protocol + "://" + host + ":" + port + "|" + (username == null ? "" : username);
+  }
+
+  public static ProxyRoute of(ProxyConfig cfg) {
+    if (cfg == null) throw new IllegalArgumentException("ProxyConfig is required");
+    String protocol = cfg.effectiveProtocol();
+    if (!protocol.equals("http") && !protocol.equals("https")) {
+      throw new IllegalArgumentException("Unsupported proxy protocol: " + protocol);
+    }
+    String username = null;
+    String password = null;
+    if (!cfg.noAuth) {
+      if (cfg.username == null || cfg.username.isBlank() || cfg.password == null || cfg.password.isBlank()) {
+        throw new IllegalArgumentException("ProxyConfig username and password are required unless noAuth is set");
+      }
+      username = cfg.buildGatewayUsername();
+      password = cfg.password;
+    }
+    return new ProxyRoute(cfg.product, protocol, cfg.effectiveHost(), cfg.effectivePort(), username, password);
+  }
+
+  boolean isTls() {
+    return protocol.equals("https");
+  }
+
+  @Override
+  public String toString() {
+    return "ProxyRoute{" + key + "}";
+  }
+}
@@ -0,0 +1,284 @@
+package com.thordata.sdk;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of sticky proxy sessions, leased per (product, country, city) of a template
+ * {@link ProxyConfig}.
+ *
+ * <pre>{@code
+ * ProxySessionPool pool = new ProxySessionPool().maxSessions(200).sessionMinutes(10);
+ * ProxyConfig us = ProxyConfig.residentialFromEnv().country("us");
+ * ProxyResponse res = pool.get(proxyClient, "https://example.com", us);
+ * }</pre>
+ *
+ * <p>A lease goes to an idle session with the best score (smoothed latency, penalised by its
+ * error rate). When every session is busy and fewer than {@code maxSessions} exist, a new session
+ * id is generated; otherwise the least busy session is shared. Warm sessions keep their exit IP
+ * and pooled connections, which is what keeps tail latency down.
+ *
+ * <p>A session is retired, and a fresh id takes its place on demand, when
+ * <ul>
+ *   <li>its {@code sessionMinutes} ({@code sesstime}) have elapsed,</li>
+ *   <li>it served {@code maxRequestsPerSession} requests (0 = no limit),</li>
+ *   <li>it failed {@code maxConsecutiveFailures} times in a row,</li>
+ *   <li>after {@code minSamples} requests its error rate exceeds {@code maxErrorRate}, or</li>
+ *   <li>after {@code minSamples} requests its latency exceeds {@code slowFactor} times the
+ *       median of its peers, or {@code slowLatency} when set: a slow exit IP.</li>
+ * </ul>
+ * Configure the pool before first use; it is thread-safe afterwards.
+ */
+public final class ProxySessionPool {
+  private static final double ALPHA = 0.2;
+  private static final char[] ID_CHARS = "abcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+
+  public int maxSessions = 50;
+  public int sessionMinutes = 10;
+  public int maxRequestsPerSession = 0;
+  public int maxConsecutiveFailures = 1;
+  public double maxErrorRate = 0.5;
+  public double slowFactor = 3.0;
+  public Duration slowLatency;
+  public int minSamples = 5;
+
+  private final Map<String, Group> groups = new ConcurrentHashMap<>();
+  private final LongAdder created = new LongAdder();
+  private final LongAdder retired = new LongAdder();
+
+  public ProxySessionPool maxSessions(int n) { this.maxSessions = n; return this; }
+  public ProxySessionPool sessionMinutes(int m) { this.sessionMinutes = m; return this; }
+  public ProxySessionPool maxRequestsPerSession(int n) { this.maxRequestsPerSession = n; return this; }
+  public ProxySessionPool maxConsecutiveFailures(int n) { this.maxConsecutiveFailures = n; return this; }
+  public ProxySessionPool maxErrorRate(double r) { this.maxErrorRate = r; return this; }
+  public ProxySessionPool slowFactor(double f) { this.slowFactor = f; return this; }
+  public ProxySessionPool slowLatency(Duration d) { this.slowLatency = d; return this; }
+  public ProxySessionPool minSamples(int n) { this.minSamples = n; return this; }
+
+  /** Session ids generated so far. */
+  public long created() { return created.sum(); }
+
+  /** Sessions retired by any of the rotation rules. */
+  public long retired() { return retired.sum(); }
+
+  /** Live sessions across all groups. */
+  public int size() {
+    int n = 0;
+    for (Group g : groups.values()) {
+      synchronized (g) {
+        n += g.sessions.size();
+      }
+    }
+    return n;
+  }
+
+  /**
+   * Leases a session for {@code template}'s product, country and city. Any session settings on
+   * the template are ignored. Report the outcome on the returned lease exactly once.
+   */
+  public Lease lease(ProxyConfig template) {
+    if (template == null) throw new IllegalArgumentException("ProxyConfig is required");
+    Group g = groups.computeIfAbsent(groupKey(template), k -> new Group(template.copy()));
+    synchronized (g) {
+      long now = System.nanoTime();
+      double typical = typicalLatency(g);
+      Session best = null;
+      Session leastBusy = null;
+      for (Iterator<Session> it = g.sessions.iterator(); it.hasNext(); ) {
+        Session s = it.next();
+        if (expired(s, now)) {
+          it.remove();
+          retired.increment();
+          continue;
+        }
+        double score = s.score(typical);
+        if (s.inFlight == 0 && (best == null || score < best.score(typical))) best = s;
+        if (leastBusy == null || s.inFlight < leastBusy.inFlight
+            || (s.inFlight == leastBusy.inFlight && score < leastBusy.score(typical))) {
+          leastBusy = s;
+        }
+      }
+      Session s = best != null ? best : g.sessions.size() < Math.max(1, maxSessions) ? newSession(g, now) : leastBusy;
+      s.inFlight++;
+      s.requests++;
+      return new Lease(g, s);
+    }
+  }
+
+  /**
+   * Fetches {@code url} through a leased session and records the outcome. Connection errors and
+   * 5xx gateway responses count as failures of the session.
+   */
+  public ProxyResponse get(ThordataProxyClient client, String url, ProxyConfig template) throws IOException {
+    Lease lease = lease(template);
+    long started = System.nanoTime();
+    try {
+      ProxyResponse res = client.get(url, lease.route);
+      lease.record(res.statusCode < 500, System.nanoTime() - started);
+      return res;
+    } catch (IOException | RuntimeException e) {
+      lease.record(false, System.nanoTime() - started);
+      throw e;
+    }
+  }
+
+  public CompletableFuture<ProxyResponse> getAsync(ThordataProxyClient client, String url, ProxyConfig template) {
+    Lease lease;
+    try {
+      lease = lease(template);
+    } catch (RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    long started = System.nanoTime();
+    return client.getAsync(url, lease.route).whenComplete((res, err) ->
+        lease.record(err == null && res.statusCode < 500, System.nanoTime() - started));
+  }
+
+  private static String groupKey(ProxyConfig t) {
+    return t.product + "|" + t.username + "|" + t.country + "|" + t.city + "|" + t.protocol + "|" + t.host + "|" + t.port;
+  }
+
+  private Session newSession(Group g, long now) {
+    char[] id = new char[12];
+    ThreadLocalRandom rnd = ThreadLocalRandom.current();
+    for (int i = 0; i < id.length; i++) id[i] = ID_CHARS[rnd.nextInt(ID_CHARS.length)];
+    ProxyConfig cfg = g.template.copy().session(new String(id)).sticky(sessionMinutes);
+    Session s = new Session(cfg.sessionId, ProxyRoute.of(cfg), now);
+    g.sessions.add(s);
+    created.increment();
+    return s;
+  }
+
+  private boolean expired(Session s, long now) {
+    if (sessionMinutes > 0 && now - s.createdAt >= Duration.ofMinutes(sessionMinutes).toNanos()) return true;
+    return maxRequestsPerSession > 0 && s.requests >= maxRequestsPerSession;
+  }
+
+  private void retire(Group g, Session s) {
+    if (g.sessions.remove(s)) retired.increment();
+  }
+
+  // Called with the group's lock held.
+  private void onResult(Group g, Session s, boolean ok, long latencyNanos) {
+    s.inFlight--;
+    s.samples++;
+    s.errorRate += ALPHA * ((ok ? 0 : 1) - s.errorRate);
+    if (ok) {
+      s.consecutiveFailures = 0;
+      s.latency = s.latency == 0 ? latencyNanos : s.latency + ALPHA * (latencyNanos - s.latency);
+    } else {
+      s.consecutiveFailures++;
+    }
+
+    if (!ok && maxConsecutiveFailures > 0 && s.consecutiveFailures >= maxConsecutiveFailures) {
+      retire(g, s);
+    } else if (s.samples >= minSamples && (s.errorRate > maxErrorRate || isSlow(g, s))) {
+      retire(g, s);
+    }
+  }
+
+  /**
+   * Median latency of the group's sessions that have one, standing in for sessions that have not
+   * succeeded yet; 1 when none has, so that error rates alone decide.
+   */
+  private static double typicalLatency(Group g) {
+    double[] latencies = new double[g.sessions.size()];
+    int n = 0;
+    for (Session s : g.sessions) {
+      if (s.latency > 0) latencies[n++] = s.latency;
+    }
+    if (n == 0) return 1;
+    Arrays.sort(latencies, 0, n);
+    return latencies[n / 2];
+  }
+
+  private boolean isSlow(Group g, Session s) {
+    if (s.latency == 0) return false;
+    if (slowLatency != null && s.latency > slowLatency.toNanos()) return true;
+    if (slowFactor <= 0) return false;
+    double[] peers = new double[g.sessions.size()];
+    int n = 0;
+    for (Session p : g.sessions) {
+      if (p != s && p.samples >= minSamples && p.latency > 0) peers[n++] = p.latency;
+    }
+    if (n < 2) return false;
+    Arrays.sort(peers, 0, n);
+    return s.latency > slowFactor * peers[n / 2];
+  }
+
+  /** A leased session. Call {@link #success} or {@link #failure} once the request is done. */
+  public final class Lease {
+    public final String sessionId;
+    public final ProxyRoute route;
+    private final Group group;
+    private final Session session;
+    private final AtomicBoolean done = new AtomicBoolean();
+
+    private Lease(Group group, Session session) {
+      this.group = group;
+      this.session = session;
+      this.sessionId = session.id;
+      this.route = session.route;
+    }
+
+    public void success(Duration latency) {
+      record(true, latency.toNanos());
+    }
+
+    public void failure() {
+      record(false, 0);
+    }
+
+    void record(boolean ok, long latencyNanos) {
+      if (!done.compareAndSet(false, true)) return;
+      synchronized (group) {
+        onResult(group, session, ok, latencyNanos);
+      }
+    }
+  }
+
+  private static final class Group {
+    final ProxyConfig template;
+    final List<Session> sessions = new ArrayList<>();
+
+    Group(ProxyConfig template) {
+      this.template = template;
+    }
+  }
+
+  private static final class Session {
+    final String id;
+    final ProxyRoute route;
+    final long createdAt;
+    int inFlight;
+    int requests;
+    int samples;
+    int consecutiveFailures;
+    double latency;
+    double errorRate;
+
+    Session(String id, ProxyRoute route, long createdAt) {
+      this.id = id;
+      this.route = route;
+      this.createdAt = createdAt;
+    }
+
+    /**
+     * Lower is better. Latency is only measured on success, so a session without one, whether
+     * new or failing so far, is taken to be as fast as {@code typical} and ranks by its errors.
+     */
+    double score(double typical) {
+      return (latency > 0 ? latency : typical) * (1 + 4 * errorRate);
+    }
+  }
+}
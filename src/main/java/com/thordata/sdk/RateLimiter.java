@@ -0,0 +1,107 @@
+package com.thordata.sdk;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Client-side token-bucket limiter with one bucket per {@link ThordataEndpoint.Family}.
+ *
+ * <p>Callers are delayed instead of rejected when a bucket is empty. When the API answers with
+ * a rate-limit error the bucket halves its rate (down to {@code minRateFraction} of the
+ * configured rate) and then climbs back linearly over {@code recoveryPeriod}.
+ *
+ * <p>Configure all families before passing the limiter to {@link ThordataConfig.Builder#rateLimiter}.
+ */
+public final class RateLimiter {
+  private final Map<ThordataEndpoint.Family, TokenBucket> buckets = new EnumMap<>(ThordataEndpoint.Family.class);
+  private double minRateFraction = 0.1;
+  private Duration recoveryPeriod = Duration.ofSeconds(30);
+
+  public RateLimiter() {}
+
+  /**
+   * Limits a family to {@code permitsPerSecond} with bursts of up to {@code burst} requests.
+   */
+  public RateLimiter limit(ThordataEndpoint.Family family, double permitsPerSecond, int burst) {
+    if (family == null) throw new IllegalArgumentException("family is required");
+    if (permitsPerSecond <= 0) throw new IllegalArgumentException("permitsPerSecond must be positive");
+    if (burst <= 0) throw new IllegalArgumentException("burst must be positive");
+    buckets.put(family, new TokenBucket(permitsPerSecond, burst));
+    return this;
+  }
+
+  public RateLimiter minRateFraction(double f) { this.minRateFraction = f; return this; }
+  public RateLimiter recoveryPeriod(Duration d) { this.recoveryPeriod = d; return this; }
+
+  /**
+   * Takes a permit for {@code family} and returns how long the caller must wait before sending,
+   * in nanoseconds. Families without a configured limit never wait.
+   */
+  long reserve(ThordataEndpoint.Family family) {
+    TokenBucket b = buckets.get(family);
+    return b == null ? 0L : b.reserve(System.nanoTime());
+  }
+
+  /**
+   * Signals that the API rejected a request of this family for exceeding its rate.
+   */
+  void onRateLimited(ThordataEndpoint.Family family) {
+    TokenBucket b = buckets.get(family);
+    if (b != null) b.tighten(System.nanoTime());
+  }
+
+  /**
+   * Current effective rate of a family in permits per second, or {@code -1} when unlimited.
+   */
+  public double currentRate(ThordataEndpoint.Family family) {
+    TokenBucket b = buckets.get(family);
+    if (b == null) return -1;
+    synchronized (b) {
+      b.refill(System.nanoTime());
+      return b.rate;
+    }
+  }
+
+  private final class TokenBucket {
+    private final double configuredRate;
+    private final double burst;
+    private double rate;
+    private double tokens;
+    private long lastNanos;
+
+    TokenBucket(double rate, int burst) {
+      this.configuredRate = rate;
+      this.rate = rate;
+      this.burst = burst;
+      this.tokens = burst;
+      this.lastNanos = System.nanoTime();
+    }
+
+    synchronized long reserve(long now) {
+      refill(now);
+      tokens -= 1;
+      if (tokens >= 0) return 0L;
+      // Negative balance queues callers behind each other at the current rate.
+      return (long) (-tokens / rate * 1_000_000_000L);
+    }
+
+    synchronized void tighten(long now) {
+      refill(now);
+      rate = Math.max(configuredRate * minRateFraction, rate / 2);
+      // Drop any saved-up burst so the slowdown takes effect immediately.
+      tokens = Math.min(tokens, 0);
+    }
+
+    void refill(long now) {
+      double seconds = (now - lastNanos) / 1e9;
+      if (seconds <= 0) return;
+      lastNanos = now;
+      if (rate < configuredRate) {
+        double recovery = configuredRate * seconds / Math.max(1e-3, recoveryPeriod.toMillis() / 1000.0);
+        rate = Math.min(configuredRate, rate + recovery);
+      }
+      tokens = Math.min(burst, tokens + seconds * rate);
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package com.thordata.sdk;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-endpoint request prototype built once per client: the parsed {@link URI}, timeout and the
+ * fixed header set (credentials, content type, user agent). Each call only adds the encoded body.
+ */
+final class RequestTemplate {
+  private final URI uri;
+  private final Duration timeout;
+  private final String[] headers;
+
+  /**
+   * @param headerPairs name/value pairs; pairs with a null value are left out so optional
+   *                    credentials can be passed unconditionally
+   */
+  RequestTemplate(String url, Duration timeout, String... headerPairs) {
+    this.uri = URI.create(url);
+    this.timeout = timeout;
+    List<String> h = new ArrayList<>(headerPairs.length);
+    for (int i = 0; i + 1 < headerPairs.length; i += 2) {
+      if (headerPairs[i + 1] == null) continue;
+      h.add(headerPairs[i]);
+      h.add(headerPairs[i + 1]);
+    }
+    this.headers = h.toArray(new String[0]);
+  }
+
+  HttpRequest post(Map<String, String> form) {
+    return builder().POST(HttpRequest.BodyPublishers.ofByteArray(FormEncoder.encode(form))).build();
+  }
+
+  private HttpRequest.Builder builder() {
+    HttpRequest.Builder b = HttpRequest.newBuilder(uri).timeout(timeout);
+    return headers.length == 0 ? b : b.headers(headers);
+  }
+}
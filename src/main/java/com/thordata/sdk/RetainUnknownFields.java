@@ -0,0 +1,13 @@
+package com.thordata.sdk;
+
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+
+/**
+ * Jackson mix-in that routes undeclared JSON properties of the SERP models into their
+ * {@code extra} map. Registered only when unknown-field retention is requested, so the default
+ * path allocates no side maps.
+ */
+abstract class RetainUnknownFields {
+    @JsonAnySetter
+    abstract void putExtra(String name, Object value);
+}
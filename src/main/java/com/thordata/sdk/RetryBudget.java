@@ -0,0 +1,47 @@
+package com.thordata.sdk;
+
+/**
+ * Caps retries to a fraction of overall traffic. Every request deposits {@code retryRatio}
+ * tokens and every retry withdraws one; a small per-second allowance keeps low-traffic clients
+ * able to retry at all. Share one instance between clients to make the budget global.
+ */
+public final class RetryBudget {
+    private final double retryRatio;
+    private final double minRetriesPerSecond;
+    private final double maxTokens;
+    private double tokens;
+    private long lastNanos = System.nanoTime();
+
+    /** Retries limited to 20% of requests plus 5 per second. */
+    public RetryBudget() {
+        this(0.2, 5);
+    }
+
+    public RetryBudget(double retryRatio, double minRetriesPerSecond) {
+        if (retryRatio < 0) throw new IllegalArgumentException("retryRatio must not be negative");
+        if (minRetriesPerSecond < 0) throw new IllegalArgumentException("minRetriesPerSecond must not be negative");
+        this.retryRatio = retryRatio;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        this.maxTokens = Math.max(10, minRetriesPerSecond * 10);
+        this.tokens = minRetriesPerSecond;
+    }
+
+    synchronized void onRequest() {
+        refill();
+        tokens = Math.min(maxTokens, tokens + retryRatio);
+    }
+
+    synchronized boolean tryWithdraw() {
+        refill();
+        if (tokens < 1) return false;
+        tokens -= 1;
+        return true;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        double seconds = (now - lastNanos) / 1e9;
+        lastNanos = now;
+        if (seconds > 0) tokens = Math.min(maxTokens, tokens + seconds * minRetriesPerSecond);
+    }
+}
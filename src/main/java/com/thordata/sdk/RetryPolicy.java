@@ -0,0 +1,102 @@
+package com.thordata.sdk;
+
+import java.net.ConnectException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retry settings for {@link ThordataClient}, enabled through {@link ThordataConfig.Builder#retryPolicy}.
+ *
+ * <p>Transient failures (connection errors, 5xx, 429) are retried with exponential backoff and
+ * full jitter, or after the server's {@code Retry-After} when it sends one. Calls that create
+ * something (task builder, proxy users, whitelist entries) are only retried when the request
+ * provably did not reach the server: a refused connection, a connect timeout or a 429.
+ *
+ * <p>Every retry also needs a token from the {@link RetryBudget}, so during an outage retries
+ * stay a small fraction of traffic instead of multiplying it.
+ */
+public class RetryPolicy {
+    /** Total attempts including the first one. */
+    public int maxAttempts = 3;
+    public Duration initialBackoff = Duration.ofMillis(200);
+    public Duration maxBackoff = Duration.ofSeconds(10);
+    /** A {@code Retry-After} longer than this is not waited for; the error is surfaced instead. */
+    public Duration maxRetryAfter = Duration.ofSeconds(30);
+    public RetryBudget budget = new RetryBudget();
+
+    public RetryPolicy() {}
+
+    public RetryPolicy maxAttempts(int n) { this.maxAttempts = n; return this; }
+    public RetryPolicy initialBackoff(Duration d) { this.initialBackoff = d; return this; }
+    public RetryPolicy maxBackoff(Duration d) { this.maxBackoff = d; return this; }
+    public RetryPolicy maxRetryAfter(Duration d) { this.maxRetryAfter = d; return this; }
+    public RetryPolicy budget(RetryBudget b) { this.budget = b; return this; }
+
+    /**
+     * Returns how long to wait before the next attempt, or {@code -1} if the failure must be surfaced.
+     *
+     * @param attempt    the attempt that just failed, starting at 1
+     * @param headers    response headers when the failure came from a response, otherwise null
+     * @param idempotent whether repeating the request is harmless
+     */
+    long retryDelayNanos(Throwable error, int attempt, HttpHeaders headers, boolean idempotent) {
+        if (attempt >= maxAttempts) return -1;
+        if (!isRetryable(error, idempotent)) return -1;
+
+        long delay;
+        Duration retryAfter = headers == null ? null : parseRetryAfter(headers);
+        if (retryAfter != null) {
+            if (retryAfter.compareTo(maxRetryAfter) > 0) return -1;
+            delay = retryAfter.toNanos();
+        } else {
+            delay = backoffNanos(attempt);
+        }
+
+        if (budget != null && !budget.tryWithdraw()) return -1;
+        return delay;
+    }
+
+    /**
+     * Full jitter: a uniform random delay between zero and the capped exponential backoff.
+     */
+    long backoffNanos(int attempt) {
+        long base = initialBackoff.toNanos();
+        long cap = maxBackoff.toNanos();
+        long exp = attempt >= 62 ? cap : Math.min(cap, base << Math.min(attempt - 1, 30));
+        return exp <= 0 ? 0 : ThreadLocalRandom.current().nextLong(exp + 1);
+    }
+
+    static boolean isRetryable(Throwable error, boolean idempotent) {
+        if (error instanceof ThordataErrors.ThordataRateLimitException e) {
+            // 402 means the account is out of balance, which waiting will not fix.
+            return Integer.valueOf(429).equals(e.httpStatus) || Integer.valueOf(429).equals(e.apiCode);
+        }
+        if (error instanceof ConnectException || error instanceof HttpConnectTimeoutException) {
+            return true;
+        }
+        if (!idempotent) return false;
+        return error instanceof ThordataErrors.ThordataServerException || Utils.isTransportError(error);
+    }
+
+    static Duration parseRetryAfter(HttpHeaders headers) {
+        Optional<String> v = headers.firstValue("Retry-After");
+        if (v.isEmpty() || v.get().isBlank()) return null;
+        String s = v.get().trim();
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(s)));
+        } catch (NumberFormatException ignored) {
+        }
+        try {
+            ZonedDateTime at = ZonedDateTime.parse(s, DateTimeFormatter.RFC_1123_DATE_TIME);
+            Duration d = Duration.between(ZonedDateTime.now(at.getZone()), at);
+            return d.isNegative() ? Duration.ZERO : d;
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+}
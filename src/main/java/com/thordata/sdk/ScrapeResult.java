@@ -0,0 +1,29 @@
+package com.thordata.sdk;
+
+import java.time.Duration;
+
+/**
+ * Outcome of a single item in a bulk or streaming call: either a value or the error it failed with.
+ */
+public final class ScrapeResult<T> {
+    public final int index;
+    public final T value;
+    public final Throwable error;
+    public final Duration latency;
+
+    public ScrapeResult(int index, T value, Throwable error, Duration latency) {
+        this.index = index;
+        this.value = value;
+        this.error = error;
+        this.latency = latency;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        return "ScrapeResult{index=" + index + ", success=" + isSuccess() + ", latency=" + latency.toMillis() + "ms}";
+    }
+}
@@ -0,0 +1,226 @@
+package com.thordata.sdk;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * {@link Flow.Publisher} that runs each item of an upstream publisher through an async call and
+ * publishes a {@link ScrapeResult} per item, in completion order ({@code index} is the position
+ * in the upstream sequence).
+ *
+ * <p>At most {@link BulkOptions#maxConcurrency} items are held at once, counting both calls in
+ * flight and results the subscriber has not asked for yet. Upstream items are requested only as
+ * such a slot frees up, so a slow subscriber slows the source down instead of filling a buffer.
+ * A failed item is published as a result carrying its error; an upstream error is passed on
+ * after the items already taken have been published. The publisher is cold and takes a single
+ * subscriber, who subscribes it to the upstream.
+ */
+final class ScrapeStream<I, T> implements Flow.Publisher<ScrapeResult<T>> {
+    private final Flow.Publisher<I> upstream;
+    private final int maxConcurrency;
+    private final Function<I, CompletableFuture<T>> call;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    ScrapeStream(Flow.Publisher<I> upstream, BulkOptions options, Function<I, CompletableFuture<T>> call) {
+        if (upstream == null) throw new IllegalArgumentException("upstream publisher is required");
+        BulkOptions opts = options == null ? new BulkOptions() : options;
+        if (opts.maxConcurrency <= 0) throw new IllegalArgumentException("maxConcurrency must be positive");
+        this.upstream = upstream;
+        this.maxConcurrency = opts.maxConcurrency;
+        this.call = call;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ScrapeResult<T>> subscriber) {
+        if (subscriber == null) throw new NullPointerException("subscriber");
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override public void request(long n) { }
+                @Override public void cancel() { }
+            });
+            subscriber.onError(new IllegalStateException("ScrapeStream allows a single subscriber"));
+            return;
+        }
+        Bridge bridge = new Bridge(subscriber);
+        subscriber.onSubscribe(bridge);
+        upstream.subscribe(bridge);
+    }
+
+    /**
+     * Upstream subscriber and downstream subscription in one. State is guarded by the monitor;
+     * signals to either side are made outside it, serialised by the {@code wip} counter.
+     */
+    private final class Bridge implements Flow.Subscriber<I>, Flow.Subscription {
+        private final Flow.Subscriber<? super ScrapeResult<T>> downstream;
+        private final ArrayDeque<ScrapeResult<T>> ready = new ArrayDeque<>();
+        private final AtomicInteger wip = new AtomicInteger();
+        private Flow.Subscription subscription;
+        private long demand;
+        /** Items taken from upstream and not yet published. */
+        private int active;
+        /** Items requested from upstream and not yet received. */
+        private long outstanding;
+        private int nextIndex;
+        private boolean upstreamDone;
+        private Throwable upstreamError;
+        private boolean cancelled;
+        private boolean terminated;
+        /** The subscriber made an invalid request; results still in flight are dropped. */
+        private boolean rejected;
+
+        Bridge(Flow.Subscriber<? super ScrapeResult<T>> downstream) {
+            this.downstream = downstream;
+        }
+
+        // ---- upstream side
+
+        @Override
+        public void onSubscribe(Flow.Subscription s) {
+            synchronized (this) {
+                if (subscription != null || cancelled) {
+                    s.cancel();
+                    return;
+                }
+                subscription = s;
+            }
+            drain();
+        }
+
+        @Override
+        public void onNext(I item) {
+            int index;
+            synchronized (this) {
+                if (cancelled || upstreamDone) return;
+                outstanding = Math.max(0, outstanding - 1);
+                active++;
+                index = nextIndex++;
+            }
+            long start = System.nanoTime();
+            CompletableFuture<T> f;
+            try {
+                f = call.apply(item);
+            } catch (RuntimeException e) {
+                f = CompletableFuture.failedFuture(e);
+            }
+            f.whenComplete((value, err) -> {
+                Duration latency = Duration.ofNanos(System.nanoTime() - start);
+                synchronized (this) {
+                    if (cancelled || rejected) return;
+                    ready.add(new ScrapeResult<>(index, err == null ? value : null, Utils.unwrapAsync(err), latency));
+                }
+                drain();
+            });
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            synchronized (this) {
+                if (upstreamDone) return;
+                upstreamDone = true;
+                upstreamError = t;
+            }
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            synchronized (this) {
+                if (upstreamDone) return;
+                upstreamDone = true;
+            }
+            drain();
+        }
+
+        // ---- downstream side
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                // Rule 3.9: fail the stream, dropping whatever is pending.
+                synchronized (this) {
+                    rejected = true;
+                    upstreamDone = true;
+                    upstreamError = new IllegalArgumentException("non-positive request: " + n);
+                    ready.clear();
+                    active = 0;
+                }
+                cancelUpstream();
+                drain();
+                return;
+            }
+            synchronized (this) {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                cancelled = true;
+                ready.clear();
+            }
+            cancelUpstream();
+        }
+
+        private void cancelUpstream() {
+            Flow.Subscription s;
+            synchronized (this) {
+                s = subscription;
+            }
+            if (s != null) s.cancel();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) return;
+            int missed = 1;
+            while (true) {
+                while (true) {
+                    ScrapeResult<T> next = null;
+                    long toRequest = 0;
+                    Flow.Subscription s;
+                    boolean finish = false;
+                    Throwable error = null;
+                    synchronized (this) {
+                        if (cancelled || terminated) {
+                            ready.clear();
+                            break;
+                        }
+                        s = subscription;
+                        if (demand > 0 && !ready.isEmpty()) {
+                            next = ready.poll();
+                            demand--;
+                            active--;
+                        } else if (upstreamDone && active == 0) {
+                            terminated = true;
+                            finish = true;
+                            error = upstreamError;
+                        }
+                        long free = maxConcurrency - active - outstanding;
+                        if (!upstreamDone && s != null && free > 0) {
+                            outstanding += free;
+                            toRequest = free;
+                        }
+                    }
+                    if (toRequest > 0) s.request(toRequest);
+                    if (next != null) {
+                        downstream.onNext(next);
+                        continue;
+                    }
+                    if (finish) {
+                        if (error != null) downstream.onError(error);
+                        else downstream.onComplete();
+                    }
+                    break;
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) return;
+            }
+        }
+    }
+}
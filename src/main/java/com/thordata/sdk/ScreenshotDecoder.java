@@ -0,0 +1,311 @@
+package com.thordata.sdk;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Single-pass scanner for Universal API screenshot responses ({@code {"code":200,"png":"..."}}).
+ *
+ * <p>The top-level {@code png} string is fed straight from the response bytes through a MIME
+ * Base64 decoder into the sink, so the screenshot never exists as a Java String. Every other
+ * top-level member is copied verbatim into a small {@link #envelope()} document that the caller
+ * parses for {@code code} / {@code msg}. A body that is not a JSON object is passed through as-is
+ * when {@code copyNonJson} is set, matching what the API does for raw image responses.
+ */
+final class ScreenshotDecoder {
+  private static final byte[] PNG_KEY = "png".getBytes(StandardCharsets.US_ASCII);
+  /** A data URI header ("data:image/png;base64,") must end within this many bytes. */
+  private static final int MAX_PREFIX = 128;
+  private static final int MAX_RAW_PREFIX = 2048;
+
+  private final InputStream in;
+  private final byte[] buf = new byte[16 * 1024];
+  private int pos;
+  private int lim;
+
+  private final ByteArrayOutputStream envelope = new ByteArrayOutputStream(256);
+  private boolean json;
+  private boolean found;
+  private long written;
+
+  ScreenshotDecoder(InputStream in) {
+    this.in = in;
+  }
+
+  /** True when the body was a JSON object. */
+  boolean isJson() {
+    return json;
+  }
+
+  /** True when a top-level {@code png} string was decoded into the sink. */
+  boolean found() {
+    return found;
+  }
+
+  /** Bytes written to the sink so far, also valid after {@link #decode} failed. */
+  long written() {
+    return written;
+  }
+
+  /** The response without its {@code png} member, or the start of a non-JSON body. */
+  byte[] envelope() {
+    return envelope.toByteArray();
+  }
+
+  void decode(OutputStream sink, boolean copyNonJson) throws IOException {
+    int c = skipWhitespace();
+    if (c != '{') {
+      passThrough(c, sink, copyNonJson);
+      return;
+    }
+    json = true;
+    envelope.write('{');
+
+    boolean first = true;
+    c = skipWhitespace();
+    if (c != '}') {
+      while (true) {
+        if (c != '"') throw malformed("object key");
+        byte[] key = readKey();
+        if (skipWhitespace() != ':') throw malformed("':'");
+        c = skipWhitespace();
+
+        if (!found && c == '"' && Arrays.equals(key, PNG_KEY)) {
+          decodeBase64String(sink);
+          found = true;
+        } else {
+          if (!first) envelope.write(',');
+          first = false;
+          envelope.write('"');
+          envelope.write(key);
+          envelope.write('"');
+          envelope.write(':');
+          copyValue(c);
+        }
+
+        c = skipWhitespace();
+        if (c == '}') break;
+        if (c != ',') throw malformed("',' or '}'");
+        c = skipWhitespace();
+      }
+    }
+    envelope.write('}');
+  }
+
+  private void passThrough(int c, OutputStream sink, boolean copy) throws IOException {
+    if (c < 0) return;
+    if (!copy) {
+      envelope.write(c);
+      while (envelope.size() < MAX_RAW_PREFIX && (c = read()) >= 0) envelope.write(c);
+      return;
+    }
+    sink.write(c);
+    written++;
+    while (true) {
+      if (pos == lim && !fill()) return;
+      sink.write(buf, pos, lim - pos);
+      written += lim - pos;
+      pos = lim;
+    }
+  }
+
+  private void decodeBase64String(OutputStream sink) throws IOException {
+    skipDataUriPrefix();
+    JsonStringInput chars = new JsonStringInput();
+    InputStream decoded = Base64.getMimeDecoder().wrap(chars);
+    byte[] out = new byte[12 * 1024];
+    int n;
+    while ((n = decoded.read(out)) > 0) {
+      sink.write(out, 0, n);
+      written += n;
+    }
+    // The decoder stops at '=' padding; consume the rest of the string up to its closing quote.
+    chars.drain();
+  }
+
+  /** Drops a "data:image/png;base64," style header. Base64 never contains ',', so a comma
+   * close to the start of the string can only belong to such a header. */
+  private void skipDataUriPrefix() throws IOException {
+    ensure(MAX_PREFIX);
+    for (int i = pos; i < lim && i - pos < MAX_PREFIX; i++) {
+      byte b = buf[i];
+      if (b == '"' || b == '\\') return;
+      if (b == ',') {
+        pos = i + 1;
+        return;
+      }
+    }
+  }
+
+  private byte[] readKey() throws IOException {
+    ByteArrayOutputStream key = new ByteArrayOutputStream(16);
+    copyStringBody(key);
+    return key.toByteArray();
+  }
+
+  /** Copies the raw bytes of a JSON string after its opening quote, escapes included. */
+  private void copyStringBody(OutputStream out) throws IOException {
+    while (true) {
+      int c = read();
+      if (c < 0) throw malformed("end of string");
+      if (c == '"') return;
+      out.write(c);
+      if (c == '\\') {
+        int e = read();
+        if (e < 0) throw malformed("escape");
+        out.write(e);
+      }
+    }
+  }
+
+  private void copyValue(int c) throws IOException {
+    if (c == '"') {
+      envelope.write('"');
+      copyStringBody(envelope);
+      envelope.write('"');
+      return;
+    }
+    if (c == '{' || c == '[') {
+      envelope.write(c);
+      int depth = 1;
+      while (depth > 0) {
+        c = read();
+        if (c < 0) throw malformed("end of value");
+        envelope.write(c);
+        if (c == '"') {
+          copyStringBody(envelope);
+          envelope.write('"');
+        } else if (c == '{' || c == '[') {
+          depth++;
+        } else if (c == '}' || c == ']') {
+          depth--;
+        }
+      }
+      return;
+    }
+    if (c < 0) throw malformed("value");
+    // Number, true, false or null.
+    envelope.write(c);
+    while (true) {
+      int p = peek();
+      if (p < 0 || p == ',' || p == '}' || p == ']' || isWhitespace(p)) return;
+      envelope.write(read());
+    }
+  }
+
+  private int skipWhitespace() throws IOException {
+    int c;
+    do {
+      c = read();
+    } while (isWhitespace(c));
+    return c;
+  }
+
+  private static boolean isWhitespace(int c) {
+    return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+  }
+
+  private int read() throws IOException {
+    if (pos == lim && !fill()) return -1;
+    return buf[pos++] & 0xFF;
+  }
+
+  private int peek() throws IOException {
+    if (pos == lim && !fill()) return -1;
+    return buf[pos] & 0xFF;
+  }
+
+  private boolean fill() throws IOException {
+    int n = in.read(buf, 0, buf.length);
+    pos = 0;
+    lim = Math.max(n, 0);
+    return n > 0;
+  }
+
+  /** Makes at least {@code n} bytes available in the buffer unless the stream ends first. */
+  private void ensure(int n) throws IOException {
+    if (lim - pos >= n) return;
+    System.arraycopy(buf, pos, buf, 0, lim - pos);
+    lim -= pos;
+    pos = 0;
+    while (lim < n) {
+      int r = in.read(buf, lim, buf.length - lim);
+      if (r <= 0) return;
+      lim += r;
+    }
+  }
+
+  private static IOException malformed(String expected) {
+    return new IOException("Malformed screenshot response: expected " + expected);
+  }
+
+  /**
+   * The characters of the current JSON string, up to but not including its closing quote.
+   * JSON escapes are resolved; escaped whitespace is dropped since the MIME decoder would skip
+   * it anyway.
+   */
+  private final class JsonStringInput extends InputStream {
+    private boolean done;
+
+    @Override
+    public int read() throws IOException {
+      byte[] one = new byte[1];
+      return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0) return 0;
+      int n = 0;
+      while (n < len && !done) {
+        if (pos == lim && !fill()) throw malformed("end of png string");
+        byte c = buf[pos];
+        if (c == '"') {
+          pos++;
+          done = true;
+        } else if (c == '\\') {
+          pos++;
+          int r = unescape();
+          if (r >= 0) b[off + n++] = (byte) r;
+        } else {
+          // Fast path: copy the run of plain characters up to the next quote or escape.
+          int end = pos;
+          int max = Math.min(lim, pos + (len - n));
+          while (end < max && buf[end] != '"' && buf[end] != '\\') end++;
+          System.arraycopy(buf, pos, b, off + n, end - pos);
+          n += end - pos;
+          pos = end;
+        }
+      }
+      return n == 0 && done ? -1 : n;
+    }
+
+    private int unescape() throws IOException {
+      int e = ScreenshotDecoder.this.read();
+      if (e < 0) throw malformed("escape");
+      if (e == '/') return '/';
+      if (e == 'u') {
+        int cp = 0;
+        for (int i = 0; i < 4; i++) {
+          int h = Character.digit(ScreenshotDecoder.this.read(), 16);
+          if (h < 0) throw malformed("unicode escape");
+          cp = (cp << 4) | h;
+        }
+        return cp < 0x80 ? cp : -1;
+      }
+      return -1;
+    }
+
+    void drain() throws IOException {
+      byte[] skip = new byte[1024];
+      while (read(skip, 0, skip.length) >= 0) {
+        // discard
+      }
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package com.thordata.sdk;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The {@code search_metadata} block of a SERP response.
+ */
+public class SearchMetadata extends SerpResult {
+    @JsonProperty("id")
+    public String id;
+
+    @JsonProperty("status")
+    public String status;
+
+    @JsonProperty("created_at")
+    public String createdAt;
+
+    @JsonProperty("processed_at")
+    public String processedAt;
+
+    @JsonProperty("total_time_taken")
+    public Double totalTimeTaken;
+
+    @Override
+    public String toString() {
+        return "SearchMetadata{id='" + id + "', status='" + status + "'}";
+    }
+}
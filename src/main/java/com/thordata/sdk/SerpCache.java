@@ -0,0 +1,132 @@
+package com.thordata.sdk;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * In-memory cache in front of the SERP API, enabled through {@link ThordataConfig.Builder#serpCache}.
+ *
+ * <p>Requests are keyed by their encoded payload with parameters sorted, so options that produce
+ * the same request (after engine normalisation and lower-casing) share an entry. Successful
+ * responses are kept for {@code ttl}, at most {@code maxEntries} of them, least recently used
+ * first out. Concurrent identical requests are coalesced into one call. Requests with
+ * {@code noCache = true} bypass the cache entirely. Cached responses are shared between callers
+ * and must be treated as read-only.
+ */
+public final class SerpCache {
+  public Duration ttl = Duration.ofMinutes(5);
+  public int maxEntries = 1000;
+
+  private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+      return size() > maxEntries;
+    }
+  };
+  private final Map<String, CompletableFuture<SerpResponse>> inFlight = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+
+  public SerpCache ttl(Duration d) { this.ttl = d; return this; }
+  public SerpCache maxEntries(int n) { this.maxEntries = n; return this; }
+
+  /** Calls answered from the cache. */
+  public long hits() { return hits.sum(); }
+
+  /** Calls that went to the API. */
+  public long misses() { return misses.sum(); }
+
+  /** Calls that joined an identical request already in flight. */
+  public long coalesced() { return coalesced.sum(); }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+  }
+
+  /** Canonical key: the form-encoded payload with parameters in sorted order. */
+  static String key(Map<String, String> payload) {
+    Map<String, String> sorted = new TreeMap<>(payload);
+    sorted.remove("no_cache");
+    return Utils.formEncode(sorted);
+  }
+
+  /**
+   * Returns the cached response for {@code key}, joins a call already in flight, or starts one
+   * with {@code loader}. Only successful responses are stored.
+   */
+  CompletableFuture<SerpResponse> get(String key, Supplier<CompletableFuture<SerpResponse>> loader) {
+    SerpResponse cached = lookup(key);
+    if (cached != null) {
+      hits.increment();
+      return CompletableFuture.completedFuture(cached);
+    }
+
+    CompletableFuture<SerpResponse> flight = new CompletableFuture<>();
+    CompletableFuture<SerpResponse> existing = inFlight.putIfAbsent(key, flight);
+    if (existing != null) {
+      coalesced.increment();
+      // A copy, so one caller cancelling does not cancel the others.
+      return existing.copy();
+    }
+
+    // Another caller may have stored the entry between the lookup and registering the flight.
+    cached = lookup(key);
+    if (cached != null) {
+      inFlight.remove(key, flight);
+      flight.complete(cached);
+      hits.increment();
+      return CompletableFuture.completedFuture(cached);
+    }
+
+    misses.increment();
+    CompletableFuture<SerpResponse> call;
+    try {
+      call = loader.get();
+    } catch (RuntimeException e) {
+      call = CompletableFuture.failedFuture(e);
+    }
+    call.whenComplete((res, err) -> {
+      if (err == null) store(key, res);
+      inFlight.remove(key, flight);
+      if (err == null) flight.complete(res);
+      else flight.completeExceptionally(Utils.unwrapAsync(err));
+    });
+    return flight.copy();
+  }
+
+  private synchronized SerpResponse lookup(String key) {
+    Entry e = entries.get(key);
+    if (e == null) return null;
+    if (System.nanoTime() - e.storedAt >= ttl.toNanos()) {
+      entries.remove(key);
+      return null;
+    }
+    return e.response;
+  }
+
+  private synchronized void store(String key, SerpResponse response) {
+    if (maxEntries <= 0 || ttl.isZero() || ttl.isNegative()) return;
+    entries.put(key, new Entry(response, System.nanoTime()));
+  }
+
+  private static final class Entry {
+    final SerpResponse response;
+    final long storedAt;
+
+    Entry(SerpResponse response, long storedAt) {
+      this.response = response;
+      this.storedAt = storedAt;
+    }
+  }
+}
@@ -1,12 +1,35 @@
 package com.thordata.sdk;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.filter.FilteringParserDelegate;
+import com.fasterxml.jackson.core.filter.JsonPointerBasedFilter;
+import com.fasterxml.jackson.core.filter.TokenFilter;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
- * Strongly-typed response object for SERP API requests.
+ * Strongly-typed response object for SERP API requests. Result lists are null when the response
+ * does not contain them; which ones are present depends on the engine and {@code searchType}.
+ *
+ * <p>With {@link ThordataConfig.Builder#lazySerpResponses} enabled the client only reads
+ * {@code code} and {@code status} up front and keeps the raw JSON; each section is bound the
+ * first time its accessor ({@link #organicResults()}, {@link #searchMetadata()}, ...) is called,
+ * and {@link #at(String)} reads any other part of the document. The accessors work in both modes,
+ * so code that uses them does not depend on the setting; the public fields stay null in lazy
+ * mode until the matching accessor has run.
  */
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class SerpResponse {
@@ -17,17 +40,161 @@ public class SerpResponse {
     public String status;
 
     @JsonProperty("organic")
-    public List<Map<String, Object>> organicResults;
+    public List<OrganicResult> organicResults;
 
     @JsonProperty("local_results")
-    public List<Map<String, Object>> localResults;
+    public List<LocalResult> localResults;
+
+    @JsonProperty("news_results")
+    public List<NewsResult> newsResults;
+
+    @JsonProperty("shopping_results")
+    public List<ShoppingResult> shoppingResults;
+
+    @JsonProperty("images_results")
+    public List<ImageResult> imagesResults;
 
     @JsonProperty("search_metadata")
-    public Map<String, Object> searchMetadata;
+    public SearchMetadata searchMetadata;
 
-    // Google Shopping / Flights / etc specific fields can be accessed via this catch-all map
-    // or you can add specific fields later.
-    // For now, let's keep it simple but structured.
+    /**
+     * Top-level fields without a typed counterpart (e.g. {@code related_searches}). Only filled
+     * when {@link ThordataConfig.Builder#serpRetainUnknownFields} is enabled, and never for lazy
+     * responses, which read such fields through {@link #at(String)} instead.
+     */
+    @JsonIgnore
+    public Map<String, Object> extra;
+
+    // Bound as @JsonAnySetter through RetainUnknownFields only when retention is enabled.
+    void putExtra(String name, Object value) {
+        if (extra == null) extra = new HashMap<>(8);
+        extra.put(name, value);
+    }
+
+    private static final int ORGANIC = 1;
+    private static final int LOCAL = 1 << 1;
+    private static final int NEWS = 1 << 2;
+    private static final int SHOPPING = 1 << 3;
+    private static final int IMAGES = 1 << 4;
+    private static final int METADATA = 1 << 5;
+
+    private byte[] raw;
+    private ObjectReader reader;
+    private int bound;
+
+    /**
+     * Reads only {@code code} and {@code status} from {@code raw} and defers everything else to
+     * the accessors. {@code reader} carries the client's binding configuration.
+     */
+    static SerpResponse lazy(byte[] raw, ObjectReader reader) throws IOException {
+        SerpResponse r = new SerpResponse();
+        r.raw = raw;
+        r.reader = reader;
+        try (JsonParser p = reader.createParser(raw)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(p, "SERP response is not a JSON object");
+            }
+            boolean haveCode = false;
+            boolean haveStatus = false;
+            while (!(haveCode && haveStatus) && p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.currentName();
+                JsonToken t = p.nextToken();
+                if (!haveCode && name.equals("code")) {
+                    r.code = t.isScalarValue() ? p.getValueAsInt(0) : 0;
+                    haveCode = true;
+                } else if (!haveStatus && name.equals("status")) {
+                    r.status = t == JsonToken.VALUE_NULL ? null : p.getValueAsString();
+                    haveStatus = true;
+                }
+                p.skipChildren();
+            }
+        }
+        return r;
+    }
+
+    /** True when this response was created in lazy mode and still holds its raw JSON. */
+    public boolean isLazy() {
+        return raw != null;
+    }
+
+    /** The raw UTF-8 response body of a lazy response; do not modify. Null in eager mode. */
+    public byte[] rawJson() {
+        return raw;
+    }
+
+    public synchronized List<OrganicResult> organicResults() {
+        if (needs(ORGANIC)) organicResults = section("organic", listOf(OrganicResult.class));
+        return organicResults;
+    }
+
+    public synchronized List<LocalResult> localResults() {
+        if (needs(LOCAL)) localResults = section("local_results", listOf(LocalResult.class));
+        return localResults;
+    }
+
+    public synchronized List<NewsResult> newsResults() {
+        if (needs(NEWS)) newsResults = section("news_results", listOf(NewsResult.class));
+        return newsResults;
+    }
+
+    public synchronized List<ShoppingResult> shoppingResults() {
+        if (needs(SHOPPING)) shoppingResults = section("shopping_results", listOf(ShoppingResult.class));
+        return shoppingResults;
+    }
+
+    public synchronized List<ImageResult> imagesResults() {
+        if (needs(IMAGES)) imagesResults = section("images_results", listOf(ImageResult.class));
+        return imagesResults;
+    }
+
+    public synchronized SearchMetadata searchMetadata() {
+        if (needs(METADATA)) searchMetadata = section("search_metadata", reader.getTypeFactory().constructType(SearchMetadata.class));
+        return searchMetadata;
+    }
+
+    /**
+     * Reads the value at a JSON pointer such as {@code "/organic/0/link"} or
+     * {@code "/related_searches"}, streaming past everything else. Returns a missing node when
+     * nothing is there. Only available on lazy responses.
+     */
+    public JsonNode at(String jsonPointer) {
+        if (raw == null) throw new IllegalStateException("at() needs a lazy response; see ThordataConfig.Builder#lazySerpResponses");
+        JsonPointer ptr = JsonPointer.compile(jsonPointer);
+        try (JsonParser p = new FilteringParserDelegate(reader.createParser(raw), new JsonPointerBasedFilter(ptr),
+                TokenFilter.Inclusion.ONLY_INCLUDE_ALL, false)) {
+            JsonNode n = reader.readTree(p);
+            return n == null ? MissingNode.getInstance() : n;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean needs(int section) {
+        if (raw == null || (bound & section) != 0) return false;
+        bound |= section;
+        return true;
+    }
+
+    private JavaType listOf(Class<?> type) {
+        return reader.getTypeFactory().constructCollectionType(List.class, type);
+    }
+
+    private <T> T section(String name, JavaType type) {
+        try (JsonParser p = reader.createParser(raw)) {
+            p.nextToken();
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken t = p.nextToken();
+                if (field.equals(name)) {
+                    return t == JsonToken.VALUE_NULL ? null : reader.forType(type).readValue(p);
+                }
+                p.skipChildren();
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
     @Override
     public String toString() {
@@ -0,0 +1,68 @@
+package com.thordata.sdk;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Base class of the typed SERP result models. Fields the model does not declare are dropped,
+ * unless {@link ThordataConfig.Builder#serpRetainUnknownFields} is enabled, in which case they
+ * are collected in {@link #extra}.
+ *
+ * <p>Loosely specified scalars such as ratings and review counts are bound leniently: a value of
+ * an unexpected shape, e.g. {@code "reviews": "1.2K"}, leaves the field null and is kept in
+ * {@link #extra} under its own name, so one odd entry cannot fail the whole response.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public abstract class SerpResult {
+    /**
+     * Undeclared fields (only when retention is on) and declared fields whose value did not fit
+     * their type; null when there were none.
+     */
+    @JsonIgnore
+    public Map<String, Object> extra;
+
+    // Bound as @JsonAnySetter through RetainUnknownFields only when retention is enabled.
+    void putExtra(String name, Object value) {
+        if (extra == null) extra = new HashMap<>(4);
+        extra.put(name, value);
+    }
+
+    Integer lenientInt(String name, Object value) {
+        if (value instanceof Integer) return (Integer) value;
+        if (value instanceof Number) {
+            double d = ((Number) value).doubleValue();
+            if (d == Math.rint(d) && Math.abs(d) <= Integer.MAX_VALUE) return (int) d;
+        } else if (value instanceof String) {
+            try {
+                return Integer.valueOf(((String) value).trim());
+            } catch (NumberFormatException ignored) {
+                // Kept below.
+            }
+        }
+        if (value != null) putExtra(name, value);
+        return null;
+    }
+
+    Double lenientDouble(String name, Object value) {
+        if (value instanceof Number) return ((Number) value).doubleValue();
+        if (value instanceof String) {
+            try {
+                return Double.valueOf(((String) value).trim());
+            } catch (NumberFormatException ignored) {
+                // Kept below.
+            }
+        }
+        if (value != null) putExtra(name, value);
+        return null;
+    }
+
+    String lenientString(String name, Object value) {
+        if (value instanceof String) return (String) value;
+        if (value instanceof Number || value instanceof Boolean) return value.toString();
+        if (value != null) putExtra(name, value);
+        return null;
+    }
+}
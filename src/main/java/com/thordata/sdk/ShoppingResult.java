@@ -0,0 +1,54 @@
+package com.thordata.sdk;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonSetter;
+
+/**
+ * One entry of {@code shopping_results} ({@code searchType = "shopping"}).
+ */
+public class ShoppingResult extends SerpResult {
+    @JsonProperty("position")
+    public int position;
+
+    @JsonProperty("title")
+    public String title;
+
+    @JsonProperty("link")
+    public String link;
+
+    @JsonProperty("product_link")
+    public String productLink;
+
+    @JsonProperty("source")
+    public String source;
+
+    /** Price as displayed, e.g. {@code "$19.99"}. */
+    @JsonProperty("price")
+    public String price;
+
+    @JsonProperty("extracted_price")
+    public Double extractedPrice;
+
+    @JsonProperty("rating")
+    public Double rating;
+
+    @JsonProperty("reviews")
+    public Integer reviews;
+
+    @JsonProperty("thumbnail")
+    public String thumbnail;
+
+    @JsonSetter("extracted_price")
+    void setExtractedPrice(Object v) { extractedPrice = lenientDouble("extracted_price", v); }
+
+    @JsonSetter("rating")
+    void setRating(Object v) { rating = lenientDouble("rating", v); }
+
+    @JsonSetter("reviews")
+    void setReviews(Object v) { reviews = lenientInt("reviews", v); }
+
+    @Override
+    public String toString() {
+        return "ShoppingResult{position=" + position + ", title='" + title + "', price='" + price + "'}";
+    }
+}
@@ -0,0 +1,69 @@
+package com.thordata.sdk;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Record-at-a-time view over a task result file while it downloads. Records are bound one by
+ * one from the response stream, so memory use does not grow with the size of the file.
+ *
+ * <p>Both a top-level JSON array and newline-delimited JSON are accepted. The iterator closes
+ * itself once the last record has been read; closing it earlier aborts the download.
+ */
+public final class TaskResultIterator<T> implements Iterator<T>, AutoCloseable {
+  private final MappingIterator<T> records;
+  private boolean closed;
+
+  TaskResultIterator(MappingIterator<T> records) {
+    this.records = records;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (closed) return false;
+    boolean more;
+    try {
+      more = records.hasNextValue();
+    } catch (IOException e) {
+      close();
+      throw new UncheckedIOException(e);
+    }
+    if (!more) close();
+    return more;
+  }
+
+  @Override
+  public T next() {
+    if (!hasNext()) throw new NoSuchElementException();
+    try {
+      return records.nextValue();
+    } catch (IOException e) {
+      close();
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Sequential stream over the remaining records; closing the stream closes this iterator. */
+  public Stream<T> stream() {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false)
+        .onClose(this::close);
+  }
+
+  @Override
+  public void close() {
+    if (closed) return;
+    closed = true;
+    try {
+      records.close();
+    } catch (IOException ignored) {
+    }
+  }
+}
@@ -0,0 +1,241 @@
+package com.thordata.sdk;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Watches many Web Scraper tasks at once without a thread per task. Obtain it from
+ * {@link ThordataClient#taskWatcher()}.
+ *
+ * <p>Each watched task is polled on the same schedule as {@link ThordataClient#runTask}: first
+ * right away, then after {@code initialPollInterval}, growing by 1.5x up to
+ * {@code maxPollInterval}, until {@code maxWait} runs out. Tasks that are due at about the same
+ * time share one {@link ThordataClient#getTaskStatusesAsync batched status call}, and all
+ * bookkeeping runs on a single scheduler thread. Futures and callbacks complete on that thread,
+ * so keep work done there short.
+ */
+public final class TaskWatcher implements AutoCloseable {
+
+  /** Per-task completion callback; exactly one of {@code downloadUrl} and {@code error} is set. */
+  @FunctionalInterface
+  public interface Callback {
+    void onComplete(String taskId, String downloadUrl, Throwable error);
+  }
+
+  /** Tasks due within this window of each other are polled in the same batch. */
+  private static final long COALESCE_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+  private final ThordataClient client;
+  private final ScheduledExecutorService scheduler;
+  private final Map<String, Watch> watches = new ConcurrentHashMap<>();
+  private final AtomicBoolean closed = new AtomicBoolean();
+
+  // Only touched on the scheduler thread.
+  private ScheduledFuture<?> wake;
+  private long wakeAt;
+
+  TaskWatcher(ThordataClient client) {
+    this.client = client;
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "thordata-task-watcher");
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  /**
+   * Starts watching {@code taskId}. The future completes with the task's JSON download URL, or
+   * exceptionally when the task fails or {@code maxWait} elapses. Cancelling it stops the watch.
+   */
+  public CompletableFuture<String> watch(String taskId, RunTaskConfig runConfig) {
+    if (taskId == null || taskId.isBlank()) throw new IllegalArgumentException("taskId is required");
+    if (closed.get()) throw new IllegalStateException("TaskWatcher is closed");
+    RunTaskConfig rc = runConfig == null ? new RunTaskConfig() : runConfig;
+
+    Watch w = new Watch(taskId, rc);
+    try {
+      scheduler.execute(() -> register(w));
+    } catch (RejectedExecutionException e) {
+      // Closed concurrently and the scheduler is already shut down.
+      w.future.completeExceptionally(new ThordataErrors.ThordataException("TaskWatcher closed"));
+    }
+    return w.future;
+  }
+
+  public void watch(String taskId, RunTaskConfig runConfig, Callback callback) {
+    if (callback == null) throw new IllegalArgumentException("callback is required");
+    watch(taskId, runConfig).whenComplete((url, err) -> callback.onComplete(taskId, url, Utils.unwrapAsync(err)));
+  }
+
+  /** Number of tasks currently being watched. */
+  public int pending() {
+    return watches.size();
+  }
+
+  boolean isClosed() {
+    return closed.get();
+  }
+
+  /** Stops polling; futures of tasks still being watched complete exceptionally. */
+  @Override
+  public void close() {
+    if (!closed.compareAndSet(false, true)) return;
+    scheduler.execute(() -> {
+      for (Watch w : watches.values()) {
+        w.future.completeExceptionally(new ThordataErrors.ThordataException("TaskWatcher closed"));
+      }
+      watches.clear();
+      scheduler.shutdown();
+    });
+  }
+
+  private void register(Watch w) {
+    if (closed.get()) {
+      w.future.completeExceptionally(new ThordataErrors.ThordataException("TaskWatcher closed"));
+      return;
+    }
+    Watch existing = watches.putIfAbsent(w.taskId, w);
+    if (existing != null) {
+      // Already watched: share the running watch instead of polling twice.
+      existing.future.whenComplete((url, err) -> {
+        if (err == null) w.future.complete(url);
+        else w.future.completeExceptionally(Utils.unwrapAsync(err));
+      });
+      return;
+    }
+    wakeAt(w.nextPollAt);
+  }
+
+  private void pollDue() {
+    wake = null;
+    if (closed.get()) return;
+    long now = System.nanoTime();
+    List<Watch> due = new ArrayList<>();
+    long next = Long.MAX_VALUE;
+
+    for (Iterator<Watch> it = watches.values().iterator(); it.hasNext(); ) {
+      Watch w = it.next();
+      if (w.inFlight) continue;
+      if (w.future.isDone()) {
+        it.remove();
+      } else if (now - w.deadline >= 0) {
+        it.remove();
+        w.future.completeExceptionally(new TimeoutException("Task " + w.taskId + " timed out after " + w.config.maxWait));
+      } else if (w.nextPollAt - now <= COALESCE_NANOS) {
+        w.inFlight = true;
+        due.add(w);
+      } else {
+        next = Math.min(next, Math.min(w.nextPollAt, w.deadline));
+      }
+    }
+
+    for (int i = 0; i < due.size(); i += ThordataClient.TASK_STATUS_BATCH_SIZE) {
+      List<Watch> batch = due.subList(i, Math.min(due.size(), i + ThordataClient.TASK_STATUS_BATCH_SIZE));
+      List<String> ids = new ArrayList<>(batch.size());
+      for (Watch w : batch) ids.add(w.taskId);
+      client.getTaskStatusesAsync(ids).whenCompleteAsync((statuses, err) -> onStatuses(batch, statuses, err), scheduler);
+    }
+    if (next != Long.MAX_VALUE) wakeAt(next);
+  }
+
+  private void onStatuses(List<Watch> batch, Map<String, String> statuses, Throwable err) {
+    Throwable failure = Utils.unwrapAsync(err);
+    for (Watch w : batch) {
+      w.inFlight = false;
+      if (w.future.isDone()) {
+        watches.remove(w.taskId, w);
+        continue;
+      }
+      if (failure != null) {
+        // Transient trouble (already retried by the send pipeline) keeps the watch alive until
+        // maxWait; anything else, such as bad credentials, will not fix itself.
+        if (isTransient(failure)) {
+          reschedule(w);
+        } else {
+          finish(w, null, failure);
+        }
+        continue;
+      }
+
+      String status = statuses.getOrDefault(w.taskId, "unknown");
+      String lower = status.toLowerCase();
+      if (lower.equals("ready") || lower.equals("success") || lower.equals("finished")) {
+        w.inFlight = true;
+        client.getTaskResultAsync(w.taskId, "json")
+            .whenCompleteAsync((url, e) -> onResult(w, url, Utils.unwrapAsync(e)), scheduler);
+      } else if (lower.equals("failed") || lower.equals("error") || lower.equals("cancelled")) {
+        finish(w, null, new ThordataErrors.ThordataApiException("Task failed with status: " + status, null, 200, null));
+      } else {
+        reschedule(w);
+      }
+    }
+  }
+
+  private void onResult(Watch w, String url, Throwable error) {
+    w.inFlight = false;
+    if (w.future.isDone()) {
+      watches.remove(w.taskId, w);
+    } else if (error != null && isTransient(error)) {
+      // The task is ready; the next poll sees that again and retries the lookup.
+      reschedule(w);
+    } else {
+      finish(w, url, error);
+    }
+  }
+
+  private static boolean isTransient(Throwable error) {
+    return CircuitBreaker.isFailure(error) || error instanceof ThordataErrors.ThordataCircuitOpenException;
+  }
+
+  private void reschedule(Watch w) {
+    w.nextPollAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(w.intervalMs);
+    w.intervalMs = Math.min((long) (w.intervalMs * 1.5), w.config.maxPollInterval.toMillis());
+    wakeAt(Math.min(w.nextPollAt, w.deadline));
+  }
+
+  private void finish(Watch w, String url, Throwable error) {
+    watches.remove(w.taskId, w);
+    if (error == null) w.future.complete(url);
+    else w.future.completeExceptionally(error);
+  }
+
+  private void wakeAt(long at) {
+    if (closed.get()) return;
+    if (wake != null) {
+      if (at - wakeAt >= 0) return;
+      wake.cancel(false);
+    }
+    wakeAt = at;
+    wake = scheduler.schedule(this::pollDue, Math.max(0, at - System.nanoTime()), TimeUnit.NANOSECONDS);
+  }
+
+  private static final class Watch {
+    final String taskId;
+    final RunTaskConfig config;
+    final CompletableFuture<String> future = new CompletableFuture<>();
+    final long deadline;
+    long nextPollAt;
+    long intervalMs;
+    boolean inFlight;
+
+    Watch(String taskId, RunTaskConfig config) {
+      this.taskId = taskId;
+      this.config = config;
+      long now = System.nanoTime();
+      this.deadline = now + config.maxWait.toNanos();
+      this.nextPollAt = now;
+      this.intervalMs = config.initialPollInterval.toMillis();
+    }
+  }
+}
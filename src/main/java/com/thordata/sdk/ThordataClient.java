@@ -1,25 +1,52 @@
 package com.thordata.sdk;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-
-import java.net.InetSocketAddress;
-import java.net.ProxySelector;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
-import java.util.Base64;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
 
-public final class ThordataClient {
+public final class ThordataClient implements AutoCloseable {
   private final ThordataConfig cfg;
-  private final HttpClient apiClient; 
+  private final ThordataTransport apiClient;
   private final ObjectMapper om = new ObjectMapper();
+  private final ObjectReader serpReader;
+  private final FileDownloader downloader;
+  private volatile TaskWatcher taskWatcher;
+  private volatile ThordataProxyClient proxyClient;
+  private volatile boolean closed;
+  private final CompletableFuture<WarmUpReport> initialWarmUp;
 
   // API Endpoints
   private final String serpUrl;
@@ -36,6 +63,22 @@ public final class ThordataClient {
   private final String proxyExpirationUrl;
   private final String taskListUrl;
 
+  // Prebuilt URI + header sets for the frequently called endpoints
+  private final RequestTemplate serpTemplate;
+  private final RequestTemplate universalTemplate;
+  private final RequestTemplate builderTemplate;
+  private final RequestTemplate videoBuilderTemplate;
+  private final RequestTemplate statusTemplate;
+  private final RequestTemplate downloadTemplate;
+  private final RequestTemplate taskListTemplate;
+
+  private final ObjectWriter stringMapListWriter;
+  private final ObjectWriter objectMapListWriter;
+  private final ObjectWriter jsonWriter;
+
+  /** Task ids sent per {@code tasks-status} call by {@link #getTaskStatuses(Collection)}. */
+  public static final int TASK_STATUS_BATCH_SIZE = 100;
+
   private static final Map<String, String> TBM_MAP = Map.of(
       "images", "isch",
       "shopping", "shop",
@@ -64,19 +107,15 @@ public final class ThordataClient {
       throw new IllegalArgumentException("Config cannot be null");
     }
     this.cfg = cfg;
-    
-    // Initialize API Client
-    HttpClient.Builder b = HttpClient.newBuilder()
-        .connectTimeout(cfg.timeout == null ? Duration.ofSeconds(30) : cfg.timeout)
-        .followRedirects(HttpClient.Redirect.NORMAL);
-
-    if (cfg.httpProxyUrl != null && !cfg.httpProxyUrl.isBlank()) {
-        InetSocketAddress proxy = Utils.parseHttpProxy(cfg.httpProxyUrl);
-        if (proxy != null) {
-            b.proxy(ProxySelector.of(proxy));
-        }
-    }
-    this.apiClient = b.build();
+
+    this.apiClient = cfg.transport != null ? cfg.transport : JdkTransport.forConfig(cfg);
+    this.downloader = new FileDownloader(apiClient, cfg.userAgent, cfg.timeout, cfg.compression);
+    this.serpReader = cfg.serpRetainUnknownFields
+        ? om.copy()
+            .addMixIn(SerpResponse.class, RetainUnknownFields.class)
+            .addMixIn(SerpResult.class, RetainUnknownFields.class)
+            .readerFor(SerpResponse.class)
+        : om.readerFor(SerpResponse.class);
 
     // Setup URLs
     String s = normalizeUrl(cfg.scraperApiBaseUrl);
@@ -99,6 +138,21 @@ public final class ThordataClient {
     this.proxyListUrl = "https://openapi.thordata.com/api/proxy/proxy-list";
     this.proxyExpirationUrl = apiBase + "/proxy/expiration-time";
     this.taskListUrl = w + "/tasks-list";
+
+    this.serpTemplate = scraperTemplate(serpUrl);
+    this.universalTemplate = scraperTemplate(universalUrl);
+    this.builderTemplate = builderTemplate(builderUrl);
+    this.videoBuilderTemplate = builderTemplate(videoBuilderUrl);
+    this.statusTemplate = publicTemplate(statusUrl);
+    this.downloadTemplate = publicTemplate(downloadUrl);
+    this.taskListTemplate = publicTemplate(taskListUrl);
+
+    this.stringMapListWriter = om.writerFor(new TypeReference<List<Map<String, String>>>() {});
+    this.objectMapListWriter = om.writerFor(new TypeReference<List<Map<String, Object>>>() {});
+    this.jsonWriter = om.writer();
+
+    if (cfg.locationsCache != null) cfg.locationsCache.loadSnapshot();
+    this.initialWarmUp = cfg.warmUpOnStart ? warmUpAsync() : null;
   }
 
   private String normalizeUrl(String url) {
@@ -111,84 +165,75 @@ public final class ThordataClient {
   // ==========================================================
 
   public void updateProxyUser(String username, Integer trafficLimit, Boolean status, int proxyType) throws Exception {
+    send(ThordataEndpoint.MANAGEMENT, updateProxyUserRequest(username, trafficLimit, status, proxyType), ofBytes(), res -> checkApiResponse("Update proxy user failed", res));
+  }
+
+  public CompletableFuture<Void> updateProxyUserAsync(String username, Integer trafficLimit, Boolean status, int proxyType) {
+    return sendAsync(ThordataEndpoint.MANAGEMENT, () -> updateProxyUserRequest(username, trafficLimit, status, proxyType), ofBytes(), res -> checkApiResponse("Update proxy user failed", res));
+  }
+
+  private HttpRequest updateProxyUserRequest(String username, Integer trafficLimit, Boolean status, int proxyType) {
     requirePublicCreds();
     Map<String, String> payload = new HashMap<>();
     payload.put("username", username);
     payload.put("proxy_type", String.valueOf(proxyType));
     if (trafficLimit != null) payload.put("traffic_limit", String.valueOf(trafficLimit));
     if (status != null) payload.put("status", status ? "true" : "false");
+    return publicFormPost(proxyUsersUrl + "/update-user", payload);
+  }
 
-    HttpRequest req = HttpRequest.newBuilder()
-        .uri(URI.create(proxyUsersUrl + "/update-user"))
-        .timeout(cfg.timeout)
-        .header("token", cfg.publicToken)
-        .header("key", cfg.publicKey)
-        .header("Content-Type", "application/x-www-form-urlencoded")
-        .header("User-Agent", cfg.userAgent)
-        .POST(HttpRequest.BodyPublishers.ofString(Utils.formEncode(payload)))
-        .build();
+  public void deleteProxyUser(String username, int proxyType) throws Exception {
+    send(ThordataEndpoint.MANAGEMENT, deleteProxyUserRequest(username, proxyType), ofBytes(), res -> checkApiResponse("Delete proxy user failed", res));
+  }
 
-    HttpResponse<String> res = apiClient.send(req, HttpResponse.BodyHandlers.ofString());
-    checkApiResponse("Update proxy user failed", res);
+  public CompletableFuture<Void> deleteProxyUserAsync(String username, int proxyType) {
+    return sendAsync(ThordataEndpoint.MANAGEMENT, () -> deleteProxyUserRequest(username, proxyType), ofBytes(), res -> checkApiResponse("Delete proxy user failed", res));
   }
 
-  public void deleteProxyUser(String username, int proxyType) throws Exception {
+  private HttpRequest deleteProxyUserRequest(String username, int proxyType) {
     requirePublicCreds();
     Map<String, String> payload = new HashMap<>();
     payload.put("username", username);
     payload.put("proxy_type", String.valueOf(proxyType));
+    return publicFormPost(proxyUsersUrl + "/delete-user", payload);
+  }
 
-    HttpRequest req = HttpRequest.newBuilder()
-        .uri(URI.create(proxyUsersUrl + "/delete-user"))
-        .timeout(cfg.timeout)
-        .header("token", cfg.publicToken)
-        .header("key", cfg.publicKey)
-        .header("Content-Type", "application/x-www-form-urlencoded")
-        .header("User-Agent", cfg.userAgent)
-        .POST(HttpRequest.BodyPublishers.ofString(Utils.formEncode(payload)))
-        .build();
+  public void deleteWhitelistIp(String ip, int proxyType) throws Exception {
+    send(ThordataEndpoint.MANAGEMENT, deleteWhitelistIpRequest(ip, proxyType), ofBytes(), res -> checkApiResponse("Delete whitelist IP failed", res));
+  }
 
-    HttpResponse<String> res = apiClient.send(req, HttpResponse.BodyHandlers.ofString());
-    checkApiResponse("Delete proxy user failed", res);
+  public CompletableFuture<Void> deleteWhitelistIpAsync(String ip, int proxyType) {
+    return sendAsync(ThordataEndpoint.MANAGEMENT, () -> deleteWhitelistIpRequest(ip, proxyType), ofBytes(), res -> checkApiResponse("Delete whitelist IP failed", res));
   }
 
-  public void deleteWhitelistIp(String ip, int proxyType) throws Exception {
+  private HttpRequest deleteWhitelistIpRequest(String ip, int proxyType) {
     requirePublicCreds();
     Map<String, String> payload = new HashMap<>();
     payload.put("ip", ip);
     payload.put("proxy_type", String.valueOf(proxyType));
+    return publicFormPost(whitelistUrl + "/delete-ip", payload);
+  }
 
-    HttpRequest req = HttpRequest.newBuilder()
-        .uri(URI.create(whitelistUrl + "/delete-ip"))
-        .timeout(cfg.timeout)
-        .header("token", cfg.publicToken)
-        .header("key", cfg.publicKey)
-        .header("Content-Type", "application/x-www-form-urlencoded")
-        .header("User-Agent", cfg.userAgent)
-        .POST(HttpRequest.BodyPublishers.ofString(Utils.formEncode(payload)))
-        .build();
+  public List<String> listWhitelistIps(int proxyType) throws Exception {
+    return send(ThordataEndpoint.MANAGEMENT, listWhitelistIpsRequest(proxyType), ofBytes(), this::parseWhitelistIps);
+  }
 
-    HttpResponse<String> res = apiClient.send(req, HttpResponse.BodyHandlers.ofString());
-    checkApiResponse("Delete whitelist IP failed", res);
+  public CompletableFuture<List<String>> listWhitelistIpsAsync(int proxyType) {
+    return sendAsync(ThordataEndpoint.MANAGEMENT, () -> listWhitelistIpsRequest(proxyType), ofBytes(), this::parseWhitelistIps);
   }
 
-  @SuppressWarnings("unchecked")
-  public List<String> listWhitelistIps(int proxyType) throws Exception {
+  private HttpRequest listWhitelistIpsRequest(int proxyType) {
     requirePublicCreds();
-    String qs = "token=" + URLEncoder.encode(cfg.publicToken, StandardCharsets.UTF_8) + 
-                "&key=" + URLEncoder.encode(cfg.publicKey, StandardCharsets.UTF_8) + 
+    String qs = "token=" + URLEncoder.encode(cfg.publicToken, StandardCharsets.UTF_8) +
+                "&key=" + URLEncoder.encode(cfg.publicKey, StandardCharsets.UTF_8) +
                 "&proxy_type=" + proxyType;
-                
-    HttpRequest req = HttpRequest.newBuilder()
-        .uri(URI.create(whitelistUrl + "/ip-list?" + qs))
-        .timeout(cfg.timeout)
-        .header("User-Agent", cfg.userAgent)
-        .GET()
-        .build();
+    return get(whitelistUrl + "/ip-list?" + qs);
+  }
 
-    HttpResponse<String> res = apiClient.send(req, HttpResponse.BodyHandlers.ofString());
+  @SuppressWarnings("unchecked")
+  private List<String> parseWhitelistIps(HttpResponse<byte[]> res) {
     Object parsed = safeParseJson(res.body());
-    
+
     if (parsed instanceof Map<?, ?> m) {
         Integer apiCode = m.containsKey("code") ? toInt(m.get("code")) : null;
         if (apiCode != null && apiCode != 200) {
@@ -202,7 +247,7 @@ public final class ThordataClient {
     return List.of();
   }
 
-  private void checkApiResponse(String errorMsg, HttpResponse<String> res) {
+  private Void checkApiResponse(String errorMsg, HttpResponse<byte[]> res) {
       Object parsed = safeParseJson(res.body());
       if (parsed instanceof Map<?, ?> m) {
           Integer apiCode = m.containsKey("code") ? toInt(m.get("code")) : null;
@@ -210,8 +255,9 @@ public final class ThordataClient {
               throw raiseForCode(errorMsg, m, res.statusCode());
           }
       } else if (res.statusCode() >= 400) {
-          throw new ThordataErrors.ThordataApiException(errorMsg, 0, res.statusCode(), res.body());
+          throw new ThordataErrors.ThordataApiException(errorMsg, 0, res.statusCode(), bodyText(res));
       }
+      return null;
   }
 
   // ==========================================================
@@ -219,54 +265,43 @@ public final class ThordataClient {
   // ==========================================================
 
   public Object getUsageStatistics(String fromDate, String toDate) throws Exception {
+    return send(ThordataEndpoint.MANAGEMENT, usageStatisticsRequest(fromDate, toDate), ofBytes(), res -> parseData("Usage statistics failed", res));
+  }
+
+  public CompletableFuture<Object> getUsageStatisticsAsync(String fromDate, String toDate) {
+    return sendAsync(ThordataEndpoint.MANAGEMENT, () -> usageStatisticsRequest(fromDate, toDate), ofBytes(), res -> parseData("Usage statistics failed", res));
+  }
+
+  private HttpRequest usageStatisticsRequest(String fromDate, String toDate) {
     requirePublicCreds();
-    String qs = "token=" + cfg.publicToken + "&key=" + cfg.publicKey + 
+    String qs = "token=" + cfg.publicToken + "&key=" + cfg.publicKey +
                 "&from_date=" + fromDate + "&to_date=" + toDate;
-                
-    HttpRequest req = HttpRequest.newBuilder()
-        .uri(URI.create(usageStatsUrl + "?" + qs))
-        .timeout(cfg.timeout)
-        .header("User-Agent", cfg.userAgent)
-        .GET()
-        .build();
-        
-    HttpResponse<String> res = apiClient.send(req, HttpResponse.BodyHandlers.ofString());
-    Object parsed = safeParseJson(res.body());
-    if (parsed instanceof Map<?, ?> m) {
-        Integer apiCode = m.containsKey("code") ? toInt(m.get("code")) : null;
-        if (apiCode != null && apiCode != 200) {
-            throw raiseForCode("Usage statistics failed", m, res.statusCode());
-        }
-        if (m.containsKey("data")) {
-            return m.get("data");
-        }
-    }
-    return parsed;
+    return get(usageStatsUrl + "?" + qs);
   }
 
   public Object listProxyUsers(int proxyType) throws Exception {
+    return send(ThordataEndpoint.MANAGEMENT, listProxyUsersRequest(proxyType), ofBytes(), res -> parseData("List proxy users failed", res));
+  }
+
+  public CompletableFuture<Object> listProxyUsersAsync(int proxyType) {
+    return sendAsync(ThordataEndpoint.MANAGEMENT, () -> listProxyUsersRequest(proxyType), ofBytes(), res -> parseData("List proxy users failed", res));
+  }
+
+  private HttpRequest listProxyUsersRequest(int proxyType) {
     requirePublicCreds();
     String qs = "token=" + cfg.publicToken + "&key=" + cfg.publicKey + "&proxy_type=" + proxyType;
-    HttpRequest req = HttpRequest.newBuilder()
-        .uri(URI.create(proxyUsersUrl + "/user-list?" + qs))
-        .timeout(cfg.timeout)
-        .header("User-Agent", cfg.userAgent)
-        .GET()
-        .build();
-
-    HttpResponse<String> res = apiClient.send(req, HttpResponse.BodyHandlers.ofString());
-    Object parsed = safeParseJson(res.body());
-    if (parsed instanceof Map<?, ?> m) {
-        Integer apiCode = m.containsKey("code") ? toInt(m.get("code")) : null;
-        if (apiCode != null && apiCode != 200) {
-            throw raiseForCode("List proxy users failed", m, res.statusCode());
-        }
-        if (m.containsKey("data")) return m.get("data");
-    }
-    return parsed;
+    return get(proxyUsersUrl + "/user-list?" + qs);
   }
 
   public Object createProxyUser(String username, String password, int trafficLimit, boolean status, int proxyType) throws Exception {
+    return send(ThordataEndpoint.MANAGEMENT, createProxyUserRequest(username, password, trafficLimit, status, proxyType), ofBytes(), res -> parseData("Create proxy user failed", res));
+  }
+
+  public CompletableFuture<Object> createProxyUserAsync(String username, String password, int trafficLimit, boolean status, int proxyType) {
+    return sendAsync(ThordataEndpoint.MANAGEMENT, () -> createProxyUserRequest(username, password, trafficLimit, status, proxyType), ofBytes(), res -> parseData("Create proxy user failed", res));
+  }
+
+  private HttpRequest createProxyUserRequest(String username, String password, int trafficLimit, boolean status, int proxyType) {
     requirePublicCreds();
     Map<String, String> payload = new HashMap<>();
     payload.put("username", username);
@@ -274,47 +309,27 @@ public final class ThordataClient {
     payload.put("traffic_limit", String.valueOf(trafficLimit));
     payload.put("status", status ? "true" : "false");
     payload.put("proxy_type", String.valueOf(proxyType));
+    return publicFormPost(proxyUsersUrl + "/create-user", payload);
+  }
 
-    HttpRequest req = HttpRequest.newBuilder()
-        .uri(URI.create(proxyUsersUrl + "/create-user"))
-        .timeout(cfg.timeout)
-        .header("token", cfg.publicToken)
-        .header("key", cfg.publicKey)
-        .header("Content-Type", "application/x-www-form-urlencoded")
-        .header("User-Agent", cfg.userAgent)
-        .POST(HttpRequest.BodyPublishers.ofString(Utils.formEncode(payload)))
-        .build();
+  public Object addWhitelistIp(String ip, int proxyType, boolean status) throws Exception {
+    return send(ThordataEndpoint.MANAGEMENT, addWhitelistIpRequest(ip, proxyType, status), ofBytes(), this::parseAddWhitelistIp);
+  }
 
-    HttpResponse<String> res = apiClient.send(req, HttpResponse.BodyHandlers.ofString());
-    Object parsed = safeParseJson(res.body());
-    if (parsed instanceof Map<?, ?> m) {
-        Integer apiCode = m.containsKey("code") ? toInt(m.get("code")) : null;
-        if (apiCode != null && apiCode != 200) {
-            throw raiseForCode("Create proxy user failed", m, res.statusCode());
-        }
-        if (m.containsKey("data")) return m.get("data");
-    }
-    return parsed;
+  public CompletableFuture<Object> addWhitelistIpAsync(String ip, int proxyType, boolean status) {
+    return sendAsync(ThordataEndpoint.MANAGEMENT, () -> addWhitelistIpRequest(ip, proxyType, status), ofBytes(), this::parseAddWhitelistIp);
   }
 
-  public Object addWhitelistIp(String ip, int proxyType, boolean status) throws Exception {
+  private HttpRequest addWhitelistIpRequest(String ip, int proxyType, boolean status) {
     requirePublicCreds();
     Map<String, String> payload = new HashMap<>();
     payload.put("ip", ip);
     payload.put("proxy_type", String.valueOf(proxyType));
     payload.put("status", status ? "true" : "false");
+    return publicFormPost(whitelistUrl + "/add-ip", payload);
+  }
 
-    HttpRequest req = HttpRequest.newBuilder()
-        .uri(URI.create(whitelistUrl + "/add-ip"))
-        .timeout(cfg.timeout)
-        .header("token", cfg.publicToken)
-        .header("key", cfg.publicKey)
-        .header("Content-Type", "application/x-www-form-urlencoded")
-        .header("User-Agent", cfg.userAgent)
-        .POST(HttpRequest.BodyPublishers.ofString(Utils.formEncode(payload)))
-        .build();
-
-    HttpResponse<String> res = apiClient.send(req, HttpResponse.BodyHandlers.ofString());
+  private Object parseAddWhitelistIp(HttpResponse<byte[]> res) {
     Object parsed = safeParseJson(res.body());
     if (parsed instanceof Map<?, ?> m) {
         Integer apiCode = m.containsKey("code") ? toInt(m.get("code")) : null;
@@ -327,16 +342,20 @@ public final class ThordataClient {
   }
 
   public Object listProxyServers(int proxyType) throws Exception {
+    return send(ThordataEndpoint.MANAGEMENT, listProxyServersRequest(proxyType), ofBytes(), this::parseProxyServers);
+  }
+
+  public CompletableFuture<Object> listProxyServersAsync(int proxyType) {
+    return sendAsync(ThordataEndpoint.MANAGEMENT, () -> listProxyServersRequest(proxyType), ofBytes(), this::parseProxyServers);
+  }
+
+  private HttpRequest listProxyServersRequest(int proxyType) {
     requirePublicCreds();
     String qs = "token=" + cfg.publicToken + "&key=" + cfg.publicKey + "&proxy_type=" + proxyType;
-    HttpRequest req = HttpRequest.newBuilder()
-        .uri(URI.create(proxyListUrl + "?" + qs))
-        .timeout(cfg.timeout)
-        .header("User-Agent", cfg.userAgent)
-        .GET()
-        .build();
+    return get(proxyListUrl + "?" + qs);
+  }
 
-    HttpResponse<String> res = apiClient.send(req, HttpResponse.BodyHandlers.ofString());
+  private Object parseProxyServers(HttpResponse<byte[]> res) {
     Object parsed = safeParseJson(res.body());
     if (parsed instanceof Map<?, ?> m) {
         Integer apiCode = m.containsKey("code") ? toInt(m.get("code")) : null;
@@ -350,22 +369,30 @@ public final class ThordataClient {
   }
 
   public Object getProxyExpiration(String ips, int proxyType) throws Exception {
+    return send(ThordataEndpoint.MANAGEMENT, proxyExpirationRequest(ips, proxyType), ofBytes(), res -> parseData("Get proxy expiration failed", res));
+  }
+
+  public CompletableFuture<Object> getProxyExpirationAsync(String ips, int proxyType) {
+    return sendAsync(ThordataEndpoint.MANAGEMENT, () -> proxyExpirationRequest(ips, proxyType), ofBytes(), res -> parseData("Get proxy expiration failed", res));
+  }
+
+  private HttpRequest proxyExpirationRequest(String ips, int proxyType) {
     requirePublicCreds();
-    String qs = "token=" + cfg.publicToken + "&key=" + cfg.publicKey + 
+    String qs = "token=" + cfg.publicToken + "&key=" + cfg.publicKey +
                 "&proxy_type=" + proxyType + "&ips=" + ips;
-    HttpRequest req = HttpRequest.newBuilder()
-        .uri(URI.create(proxyExpirationUrl + "?" + qs))
-        .timeout(cfg.timeout)
-        .header("User-Agent", cfg.userAgent)
-        .GET()
-        .build();
+    return get(proxyExpirationUrl + "?" + qs);
+  }
 
-    HttpResponse<String> res = apiClient.send(req, HttpResponse.BodyHandlers.ofString());
+  /**
+   * Shared handling for management calls that answer with {@code {"code":..,"data":..}}:
+   * maps a non-200 code to the matching exception and unwraps {@code data} when present.
+   */
+  private Object parseData(String errorMsg, HttpResponse<byte[]> res) {
     Object parsed = safeParseJson(res.body());
     if (parsed instanceof Map<?, ?> m) {
         Integer apiCode = m.containsKey("code") ? toInt(m.get("code")) : null;
         if (apiCode != null && apiCode != 200) {
-            throw raiseForCode("Get proxy expiration failed", m, res.statusCode());
+            throw raiseForCode(errorMsg, m, res.statusCode());
         }
         if (m.containsKey("data")) return m.get("data");
     }
@@ -377,15 +404,62 @@ public final class ThordataClient {
   // ==========================================================
 
   public SerpResponse serpSearch(SerpOptions opt) throws Exception {
+    Map<String, String> payload = serpPayload(opt);
+    if (cfg.serpCache == null || Boolean.TRUE.equals(opt.noCache)) {
+      return send(ThordataEndpoint.SERP, payload.get("engine"), serpTemplate.post(payload), ofBytes(), this::parseSerpResponse);
+    }
+    try {
+      return cfg.serpCache.get(SerpCache.key(payload), () -> sendSerpAsync(payload)).get();
+    } catch (ExecutionException e) {
+      Throwable cause = Utils.unwrapAsync(e);
+      if (cause instanceof Exception ex) throw ex;
+      throw e;
+    }
+  }
+
+  public CompletableFuture<SerpResponse> serpSearchAsync(SerpOptions opt) {
+    Map<String, String> payload;
+    try {
+      payload = serpPayload(opt);
+    } catch (Exception e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    if (cfg.serpCache == null || Boolean.TRUE.equals(opt.noCache)) return sendSerpAsync(payload);
+    return cfg.serpCache.get(SerpCache.key(payload), () -> sendSerpAsync(payload));
+  }
+
+  private CompletableFuture<SerpResponse> sendSerpAsync(Map<String, String> payload) {
+    return sendAsync(ThordataEndpoint.SERP, payload.get("engine"), () -> serpTemplate.post(payload), ofBytes(), this::parseSerpResponse);
+  }
+
+  /**
+   * Runs many SERP searches with at most {@code bulk.maxConcurrency} in flight. A failing item
+   * is reported in its {@link ScrapeResult} and does not abort the rest of the batch.
+   */
+  public BulkResult<SerpResponse> serpSearchAll(List<SerpOptions> opts, BulkOptions bulk) throws InterruptedException {
+    return BulkExecutor.run(opts, bulk, this::serpSearchAsync);
+  }
+
+  /**
+   * Streaming {@link #serpSearchAll}: searches each item of {@code opts} as it arrives and
+   * publishes one {@link ScrapeResult} per item in completion order. Items are requested from
+   * {@code opts} only while fewer than {@code bulk.maxConcurrency} are in flight or awaiting
+   * the subscriber, so nothing is buffered without bound.
+   */
+  public Flow.Publisher<ScrapeResult<SerpResponse>> serpSearchStream(Flow.Publisher<SerpOptions> opts, BulkOptions bulk) {
+    return new ScrapeStream<>(opts, bulk, this::serpSearchAsync);
+  }
+
+  private Map<String, String> serpPayload(SerpOptions opt) {
     if (cfg.scraperToken == null || cfg.scraperToken.isBlank()) {
         throw new IllegalArgumentException("scraperToken is required for SERP API");
-    }    
+    }
     if (opt == null || opt.query == null || opt.query.isBlank()) {
       throw new IllegalArgumentException("query is required");
     }
 
     String engine = (opt.engine == null || opt.engine.isBlank()) ? "google" : normalizeEngine(opt.engine);
-    
+
     Map<String, String> payload = new HashMap<>();
     payload.put("engine", engine);
     payload.put("json", "1");
@@ -409,33 +483,26 @@ public final class ThordataClient {
 
     if (opt.extra != null) payload.putAll(opt.extra);
 
-    String body = Utils.formEncode(payload);
-
-    HttpRequest req = HttpRequest.newBuilder()
-        .uri(URI.create(serpUrl))
-        .timeout(cfg.timeout)
-        .header("token", cfg.scraperToken)
-        .header("Authorization", "Bearer " + cfg.scraperToken)
-        .header("Content-Type", "application/x-www-form-urlencoded")
-        .header("User-Agent", cfg.userAgent)
-        .POST(HttpRequest.BodyPublishers.ofString(body))
-        .build();
-
-    HttpResponse<String> res = apiClient.send(req, HttpResponse.BodyHandlers.ofString());
+    return payload;
+  }
 
+  private SerpResponse parseSerpResponse(HttpResponse<byte[]> res) throws Exception {
     try {
-        SerpResponse response = om.readValue(res.body(), SerpResponse.class);
-        
+        SerpResponse response = cfg.lazySerpResponses
+            ? SerpResponse.lazy(res.body(), serpReader)
+            : serpReader.readValue(res.body());
+
         if (response.code != 0 && response.code != 200) {
-            throw new ThordataErrors.ThordataApiException(
-                "SERP API Error: " + (response.status != null ? response.status : "Unknown"), 
+            throw errorForCode(
+                "SERP API Error: " + (response.status != null ? response.status : "Unknown"),
                 response.code, res.statusCode(), response
             );
         }
         return response;
     } catch (Exception e) {
         if (res.statusCode() >= 400) {
-             throw new ThordataErrors.ThordataApiException("Request failed: " + res.body(), 0, res.statusCode(), res.body());
+             String body = bodyText(res);
+             throw errorForCode("Request failed: " + body, null, res.statusCode(), body);
         }
         throw e;
     }
@@ -446,6 +513,41 @@ public final class ThordataClient {
   // ==========================================================
 
   public Object universalScrape(UniversalOptions opt) throws Exception {
+    HttpRequest req = universalRequest(opt);
+    if (isPng(opt)) {
+      return send(ThordataEndpoint.UNIVERSAL, req, ofBytes(), this::parseUniversalPng);
+    }
+    return send(ThordataEndpoint.UNIVERSAL, req, ofBytes(), this::parseUniversalHtml);
+  }
+
+  public CompletableFuture<Object> universalScrapeAsync(UniversalOptions opt) {
+    if (opt != null && isPng(opt)) {
+      return sendAsync(ThordataEndpoint.UNIVERSAL, () -> universalRequest(opt), ofBytes(), this::parseUniversalPng);
+    }
+    return sendAsync(ThordataEndpoint.UNIVERSAL, () -> universalRequest(opt), ofBytes(), this::parseUniversalHtml);
+  }
+
+  /**
+   * Runs many Universal scrapes with at most {@code bulk.maxConcurrency} in flight. A failing
+   * item is reported in its {@link ScrapeResult} and does not abort the rest of the batch.
+   */
+  public BulkResult<Object> universalScrapeAll(List<UniversalOptions> opts, BulkOptions bulk) throws InterruptedException {
+    return BulkExecutor.run(opts, bulk, this::universalScrapeAsync);
+  }
+
+  /**
+   * Streaming {@link #universalScrapeAll}, with the same backpressure as
+   * {@link #serpSearchStream}: a slow subscriber holds back requests to {@code opts}.
+   */
+  public Flow.Publisher<ScrapeResult<Object>> universalScrapeStream(Flow.Publisher<UniversalOptions> opts, BulkOptions bulk) {
+    return new ScrapeStream<>(opts, bulk, this::universalScrapeAsync);
+  }
+
+  private static boolean isPng(UniversalOptions opt) {
+    return opt.outputFormat != null && opt.outputFormat.equalsIgnoreCase("png");
+  }
+
+  private HttpRequest universalRequest(UniversalOptions opt) throws Exception {
     if (cfg.scraperToken == null || cfg.scraperToken.isBlank()) {
         throw new IllegalArgumentException("scraperToken is required for Universal API");
     }
@@ -469,42 +571,145 @@ public final class ThordataClient {
     if (opt.waitFor != null) payload.put("wait_for", opt.waitFor);
 
     if (opt.headers != null && !opt.headers.isEmpty()) {
-      payload.put("headers", om.writeValueAsString(opt.headers));
+      payload.put("headers", stringMapListWriter.writeValueAsString(opt.headers));
     }
     if (opt.cookies != null && !opt.cookies.isEmpty()) {
-      payload.put("cookies", om.writeValueAsString(opt.cookies));
+      payload.put("cookies", stringMapListWriter.writeValueAsString(opt.cookies));
     }
     if (opt.extra != null) payload.putAll(opt.extra);
 
-    HttpRequest req = HttpRequest.newBuilder()
-        .uri(URI.create(universalUrl))
-        .timeout(cfg.timeout)
-        .header("token", cfg.scraperToken)
-        .header("Authorization", "Bearer " + cfg.scraperToken)
-        .header("Content-Type", "application/x-www-form-urlencoded")
-        .header("User-Agent", cfg.userAgent)
-        .POST(HttpRequest.BodyPublishers.ofString(Utils.formEncode(payload)))
-        .build();
+    return universalTemplate.post(payload);
+  }
 
-    if (format.equals("png")) {
-      HttpResponse<byte[]> res = apiClient.send(req, HttpResponse.BodyHandlers.ofByteArray());
-      byte[] raw = res.body();
+  private Object parseUniversalPng(HttpResponse<byte[]> res) throws Exception {
+    byte[] raw = res.body();
+    Object png = decodePng(raw, res.statusCode());
+    if (png != null) return png;
+    // The envelope may come JSON-encoded as a string, which safeParseJson unwraps as well.
+    byte[] inner = jsonStringContent(raw);
+    if (inner != null) {
+      png = decodePng(inner, res.statusCode());
+      if (png != null) return png;
+    }
+    return raw;
+  }
 
-      Object parsed = safeParseJsonBytes(raw);
-      if (parsed instanceof Map<?, ?> m) {
-        Integer apiCode = m.containsKey("code") ? toInt(m.get("code")) : null;
-        if (apiCode != null && apiCode != 200) {
-          throw raiseForCode("Universal API error", m, res.statusCode());
+  /** The decoded screenshot, or null when {@code body} is not a JSON object carrying one. */
+  private Object decodePng(byte[] body, int status) throws Exception {
+    ScreenshotDecoder d = new ScreenshotDecoder(new ByteArrayInputStream(body));
+    ByteArrayOutputStream png = new ByteArrayOutputStream(body.length / 4 * 3);
+    try {
+      d.decode(png, false);
+    } catch (IOException e) {
+      // Not well-formed JSON: hand back the body as before, unless the png itself was corrupt.
+      if (d.written() > 0) throw e;
+      return null;
+    }
+    if (!d.isJson()) return null;
+
+    checkScreenshotEnvelope(d, status);
+    return d.found() ? png.toByteArray() : null;
+  }
+
+  /** The content of a body that is a single JSON string, or null for anything else. */
+  private byte[] jsonStringContent(byte[] body) {
+    int i = 0;
+    while (i < body.length && Character.isWhitespace(body[i])) i++;
+    if (i == body.length || body[i] != '"') return null;
+    try {
+      return om.readValue(body, String.class).trim().getBytes(StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Renders a PNG screenshot of {@code opt.url} into {@code out}. The base64 payload is decoded
+   * while the response is read, so memory use stays flat however large the screenshot is.
+   *
+   * <p>{@code out} cannot be rewound: if the transfer breaks after bytes were written the call
+   * fails with a {@link ThordataErrors.ThordataException} instead of being retried.
+   *
+   * @return the number of PNG bytes written
+   */
+  public long universalScreenshot(UniversalOptions opt, OutputStream out) throws Exception {
+    if (out == null) throw new IllegalArgumentException("out is required");
+    HttpRequest req = screenshotRequest(opt);
+    return send(ThordataEndpoint.UNIVERSAL, req, DecodingBodyHandler.ofInputStream(), res -> streamScreenshot(res, out, false));
+  }
+
+  public long universalScreenshot(UniversalOptions opt, WritableByteChannel out) throws Exception {
+    if (out == null) throw new IllegalArgumentException("out is required");
+    return universalScreenshot(opt, Channels.newOutputStream(out));
+  }
+
+  /**
+   * Renders a PNG screenshot of {@code opt.url} into {@code target}. Data goes to
+   * {@code target + ".part"} first, so retries start from a clean file and a failed call never
+   * leaves a truncated image at {@code target}.
+   */
+  public long universalScreenshot(UniversalOptions opt, Path target) throws Exception {
+    if (target == null) throw new IllegalArgumentException("target is required");
+    HttpRequest req = screenshotRequest(opt);
+    Path part = target.resolveSibling(target.getFileName() + ".part");
+    try {
+      long n = send(ThordataEndpoint.UNIVERSAL, req, DecodingBodyHandler.ofInputStream(), res -> {
+        try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(part), 64 * 1024)) {
+          return streamScreenshot(res, os, true);
+        }
+      });
+      Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+      return n;
+    } finally {
+      Files.deleteIfExists(part);
+    }
+  }
+
+  private HttpRequest screenshotRequest(UniversalOptions opt) throws Exception {
+    if (opt != null && !isPng(opt)) {
+      throw new IllegalArgumentException("outputFormat must be \"png\" for screenshots");
+    }
+    return universalRequest(opt);
+  }
+
+  private long streamScreenshot(HttpResponse<InputStream> res, OutputStream out, boolean rewindable) throws Exception {
+    int status = res.statusCode();
+    InputStream in = res.body();
+    ScreenshotDecoder d = new ScreenshotDecoder(in);
+    try {
+      d.decode(out, status < 400);
+      if (!d.isJson()) {
+        if (status >= 400) {
+          String text = new String(d.envelope(), StandardCharsets.UTF_8);
+          throw errorForCode("Request failed: " + text, null, status, text);
         }
-        if (m.containsKey("png")) {
-          String b64 = String.valueOf(m.get("png"));
-          return decodeBase64MaybeDataUri(b64);
+      } else {
+        checkScreenshotEnvelope(d, status);
+        if (!d.found()) {
+          throw new ThordataErrors.ThordataApiException("png missing in Universal API response", null, status, new String(d.envelope(), StandardCharsets.UTF_8));
         }
       }
-      return raw;
+      out.flush();
+      return d.written();
+    } catch (Exception e) {
+      if (!rewindable && d.written() > 0) {
+        throw new ThordataErrors.ThordataException("Screenshot failed after " + d.written() + " bytes were written", e);
+      }
+      throw e;
+    } finally {
+      in.close();
+    }
+  }
+
+  private void checkScreenshotEnvelope(ScreenshotDecoder d, int status) throws IOException {
+    Map<?, ?> m = om.readValue(d.envelope(), Map.class);
+    Integer apiCode = m.containsKey("code") ? toInt(m.get("code")) : null;
+    if ((apiCode != null && apiCode != 200) || (!d.found() && status >= 400)) {
+      throw raiseForCode("Universal API error", m, status);
     }
+  }
 
-    HttpResponse<String> res = apiClient.send(req, HttpResponse.BodyHandlers.ofString());
+  private Object parseUniversalHtml(HttpResponse<byte[]> res) {
     Object parsed = safeParseJson(res.body());
 
     if (parsed instanceof Map<?, ?> m && m.containsKey("code")) {
@@ -524,6 +729,14 @@ public final class ThordataClient {
   // ==========================================================
 
   public String createScraperTask(ScraperTaskOptions opt) throws Exception {
+    return send(ThordataEndpoint.BUILDER, scraperTaskRequest(opt), ofBytes(), res -> parseTaskId("Invalid response from builder API", "Task creation failed", "task_id missing in response", res));
+  }
+
+  public CompletableFuture<String> createScraperTaskAsync(ScraperTaskOptions opt) {
+    return sendAsync(ThordataEndpoint.BUILDER, () -> scraperTaskRequest(opt), ofBytes(), res -> parseTaskId("Invalid response from builder API", "Task creation failed", "task_id missing in response", res));
+  }
+
+  private HttpRequest scraperTaskRequest(ScraperTaskOptions opt) throws Exception {
     if (cfg.scraperToken == null || cfg.scraperToken.isBlank()) {
         throw new IllegalArgumentException("scraperToken is required for Task Builder");
     }
@@ -538,61 +751,123 @@ public final class ThordataClient {
     payload.put("file_name", opt.fileName);
     payload.put("spider_id", opt.spiderId);
     payload.put("spider_name", opt.spiderName);
-    payload.put("spider_parameters", om.writeValueAsString(List.of(opt.parameters)));
+    payload.put("spider_parameters", objectMapListWriter.writeValueAsString(List.of(opt.parameters)));
     payload.put("spider_errors", opt.includeErrors ? "true" : "false");
 
     if (opt.universalParams != null) {
-      payload.put("spider_universal", om.writeValueAsString(opt.universalParams));
+      payload.put("spider_universal", jsonWriter.writeValueAsString(opt.universalParams));
     }
 
-    HttpRequest.Builder reqBuilder = HttpRequest.newBuilder()
-        .uri(URI.create(builderUrl))
-        .timeout(cfg.timeout)
-        .header("Authorization", "Bearer " + cfg.scraperToken)
-        .header("Content-Type", "application/x-www-form-urlencoded")
-        .header("User-Agent", cfg.userAgent);
-
-    if (cfg.publicToken != null) reqBuilder.header("token", cfg.publicToken);
-    if (cfg.publicKey != null) reqBuilder.header("key", cfg.publicKey);
-
-    HttpRequest req = reqBuilder.POST(HttpRequest.BodyPublishers.ofString(Utils.formEncode(payload))).build();
+    return builderTemplate.post(payload);
+  }
 
-    HttpResponse<String> res = apiClient.send(req, HttpResponse.BodyHandlers.ofString());
+  private String parseTaskId(String invalidMsg, String failedMsg, String missingMsg, HttpResponse<byte[]> res) {
     Object parsed = safeParseJson(res.body());
 
     if (!(parsed instanceof Map<?, ?> m)) {
-      throw new ThordataErrors.ThordataApiException("Invalid response from builder API", null, res.statusCode(), parsed);
+      throw new ThordataErrors.ThordataApiException(invalidMsg, null, res.statusCode(), parsed);
     }
     Integer apiCode = m.containsKey("code") ? toInt(m.get("code")) : null;
     if (apiCode != null && apiCode != 200) {
-      throw raiseForCode("Task creation failed", m, res.statusCode());
+      throw raiseForCode(failedMsg, m, res.statusCode());
     }
 
     Object dataObj = m.get("data");
     if (dataObj instanceof Map<?, ?> dm && dm.containsKey("task_id")) {
       return String.valueOf(dm.get("task_id"));
     }
-    throw new ThordataErrors.ThordataApiException("task_id missing in response", apiCode, res.statusCode(), parsed);
+    throw new ThordataErrors.ThordataApiException(missingMsg, apiCode, res.statusCode(), parsed);
   }
 
   public String getTaskStatus(String taskId) throws Exception {
+    return send(ThordataEndpoint.TASKS_STATUS, taskStatusRequest(taskId), ofBytes(), res -> parseTaskStatus(taskId, res));
+  }
+
+  public CompletableFuture<String> getTaskStatusAsync(String taskId) {
+    return sendAsync(ThordataEndpoint.TASKS_STATUS, () -> taskStatusRequest(taskId), ofBytes(), res -> parseTaskStatus(taskId, res));
+  }
+
+  /**
+   * Looks up many tasks with one {@code tasks-status} call per {@link #TASK_STATUS_BATCH_SIZE}
+   * ids. The result follows the iteration order of {@code taskIds}; ids the API does not know
+   * map to {@code "unknown"}.
+   */
+  public Map<String, String> getTaskStatuses(Collection<String> taskIds) throws Exception {
+    return getTaskStatuses(taskIds, TASK_STATUS_BATCH_SIZE);
+  }
+
+  public Map<String, String> getTaskStatuses(Collection<String> taskIds, int batchSize) throws Exception {
+    List<List<String>> batches = statusBatches(taskIds, batchSize);
+    Map<String, String> found = new HashMap<>();
+    for (List<String> batch : batches) {
+      found.putAll(send(ThordataEndpoint.TASKS_STATUS, taskStatusRequest(batch), ofBytes(), this::parseTaskStatuses));
+    }
+    return orderedStatuses(batches, found);
+  }
+
+  public CompletableFuture<Map<String, String>> getTaskStatusesAsync(Collection<String> taskIds) {
+    return getTaskStatusesAsync(taskIds, TASK_STATUS_BATCH_SIZE);
+  }
+
+  public CompletableFuture<Map<String, String>> getTaskStatusesAsync(Collection<String> taskIds, int batchSize) {
+    List<List<String>> batches;
+    try {
+      batches = statusBatches(taskIds, batchSize);
+    } catch (Exception e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    List<CompletableFuture<Map<String, String>>> calls = new ArrayList<>(batches.size());
+    for (List<String> batch : batches) {
+      calls.add(sendAsync(ThordataEndpoint.TASKS_STATUS, () -> taskStatusRequest(batch), ofBytes(), this::parseTaskStatuses));
+    }
+    return CompletableFuture.allOf(calls.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+      Map<String, String> found = new HashMap<>();
+      for (CompletableFuture<Map<String, String>> c : calls) found.putAll(c.join());
+      return orderedStatuses(batches, found);
+    });
+  }
+
+  private static List<List<String>> statusBatches(Collection<String> taskIds, int batchSize) {
+    if (taskIds == null) throw new IllegalArgumentException("taskIds is required");
+    if (batchSize < 1) throw new IllegalArgumentException("batchSize must be positive");
+    List<String> ids = new ArrayList<>(new LinkedHashSet<>(taskIds));
+    for (String id : ids) {
+      if (id == null || id.isBlank()) throw new IllegalArgumentException("taskIds must not contain blank ids");
+    }
+    List<List<String>> batches = new ArrayList<>();
+    for (int i = 0; i < ids.size(); i += batchSize) {
+      batches.add(ids.subList(i, Math.min(ids.size(), i + batchSize)));
+    }
+    return batches;
+  }
+
+  private static Map<String, String> orderedStatuses(List<List<String>> batches, Map<String, String> found) {
+    Map<String, String> out = new LinkedHashMap<>();
+    for (List<String> batch : batches) {
+      for (String id : batch) out.put(id, found.getOrDefault(id, "unknown"));
+    }
+    return out;
+  }
+
+  private HttpRequest taskStatusRequest(String taskId) {
     requirePublicCreds();
     if (taskId == null || taskId.isBlank()) throw new IllegalArgumentException("taskId is required");
+    return taskStatusRequest(List.of(taskId));
+  }
 
-    Map<String, String> payload = Map.of("tasks_ids", taskId);
+  private HttpRequest taskStatusRequest(List<String> taskIds) {
+    requirePublicCreds();
+    return statusTemplate.post(Map.of("tasks_ids", String.join(",", taskIds)));
+  }
 
-    HttpRequest req = HttpRequest.newBuilder()
-        .uri(URI.create(statusUrl))
-        .timeout(cfg.timeout)
-        .header("token", cfg.publicToken)
-        .header("key", cfg.publicKey)
-        .header("Content-Type", "application/x-www-form-urlencoded")
-        .header("User-Agent", cfg.userAgent)
-        .POST(HttpRequest.BodyPublishers.ofString(Utils.formEncode(payload)))
-        .build();
+  private String parseTaskStatus(String taskId, HttpResponse<byte[]> res) {
+    return parseTaskStatuses(res).getOrDefault(taskId, "unknown");
+  }
 
-    HttpResponse<String> res = apiClient.send(req, HttpResponse.BodyHandlers.ofString());
+  /** Maps every {@code task_id} in the response's {@code data} list to its status. */
+  private Map<String, String> parseTaskStatuses(HttpResponse<byte[]> res) {
     Object parsed = safeParseJson(res.body());
+    Map<String, String> statuses = new HashMap<>();
 
     if (parsed instanceof Map<?, ?> m) {
       Integer apiCode = m.containsKey("code") ? toInt(m.get("code")) : null;
@@ -602,36 +877,33 @@ public final class ThordataClient {
       Object data = m.get("data");
       if (data instanceof List<?> list) {
         for (Object it : list) {
-          if (it instanceof Map<?, ?> item) {
-            if (taskId.equals(String.valueOf(item.get("task_id")))) {
-              Object st = item.get("status");
-              return st == null ? "unknown" : String.valueOf(st);
-            }
+          if (it instanceof Map<?, ?> item && item.get("task_id") != null) {
+            Object st = item.get("status");
+            statuses.put(String.valueOf(item.get("task_id")), st == null ? "unknown" : String.valueOf(st));
           }
         }
       }
     }
-    return "unknown";
+    return statuses;
   }
 
   public String getTaskResult(String taskId, String fileType) throws Exception {
-    requirePublicCreds();
-    if (taskId == null || taskId.isBlank()) throw new IllegalArgumentException("taskId is required");
-    if (fileType == null || fileType.isBlank()) fileType = "json";
+    return send(ThordataEndpoint.TASKS_DOWNLOAD, taskResultRequest(taskId, fileType), ofBytes(), this::parseTaskResult);
+  }
 
-    Map<String, String> payload = Map.of("tasks_id", taskId, "type", fileType);
+  public CompletableFuture<String> getTaskResultAsync(String taskId, String fileType) {
+    return sendAsync(ThordataEndpoint.TASKS_DOWNLOAD, () -> taskResultRequest(taskId, fileType), ofBytes(), this::parseTaskResult);
+  }
 
-    HttpRequest req = HttpRequest.newBuilder()
-        .uri(URI.create(downloadUrl))
-        .timeout(cfg.timeout)
-        .header("token", cfg.publicToken)
-        .header("key", cfg.publicKey)
-        .header("Content-Type", "application/x-www-form-urlencoded")
-        .header("User-Agent", cfg.userAgent)
-        .POST(HttpRequest.BodyPublishers.ofString(Utils.formEncode(payload)))
-        .build();
+  private HttpRequest taskResultRequest(String taskId, String fileType) {
+    requirePublicCreds();
+    if (taskId == null || taskId.isBlank()) throw new IllegalArgumentException("taskId is required");
+    if (fileType == null || fileType.isBlank()) fileType = "json";
 
-    HttpResponse<String> res = apiClient.send(req, HttpResponse.BodyHandlers.ofString());
+    return downloadTemplate.post(Map.of("tasks_id", taskId, "type", fileType));
+  }
+
+  private String parseTaskResult(HttpResponse<byte[]> res) {
     Object parsed = safeParseJson(res.body());
 
     if (parsed instanceof Map<?, ?> m) {
@@ -646,7 +918,58 @@ public final class ThordataClient {
     throw new ThordataErrors.ThordataApiException("Invalid response from download API", null, res.statusCode(), parsed);
   }
 
+  /**
+   * Resolves the result file of a finished task and streams it to {@code target}.
+   *
+   * @see #downloadFile(String, Path, DownloadProgressListener)
+   */
+  public DownloadResult downloadTaskResult(String taskId, String fileType, Path target) throws Exception {
+    return downloadTaskResult(taskId, fileType, target, null);
+  }
+
+  public DownloadResult downloadTaskResult(String taskId, String fileType, Path target, DownloadProgressListener listener) throws Exception {
+    return downloadFile(getTaskResult(taskId, fileType), target, listener);
+  }
+
+  /**
+   * Streams {@code url} to {@code target} without holding the file in memory. Data is written
+   * to {@code target + ".part"} and moved into place once its size matches what the server
+   * announced; an interrupted transfer, including one left behind by an earlier process, is
+   * resumed with an HTTP Range request.
+   */
+  public DownloadResult downloadFile(String url, Path target, DownloadProgressListener listener) throws Exception {
+    return downloader.download(url, target, listener);
+  }
+
+  /**
+   * Downloads the JSON result of a finished task and binds it one record at a time as the bytes
+   * arrive, so large results can be processed in constant memory. Close the iterator (or the
+   * {@link TaskResultIterator#stream() stream}) to stop early and abort the download.
+   */
+  public <T> TaskResultIterator<T> streamTaskResults(String taskId, Class<T> type) throws Exception {
+    if (type == null) throw new IllegalArgumentException("type is required");
+    InputStream in = downloader.open(getTaskResult(taskId, "json"));
+    try {
+      return new TaskResultIterator<>(om.readerFor(type).readValues(in));
+    } catch (Exception e) {
+      in.close();
+      throw e;
+    }
+  }
+
+  public TaskResultIterator<JsonNode> streamTaskResults(String taskId) throws Exception {
+    return streamTaskResults(taskId, JsonNode.class);
+  }
+
   public String createVideoTask(VideoTaskOptions opt) throws Exception {
+    return send(ThordataEndpoint.BUILDER, videoTaskRequest(opt), ofBytes(), res -> parseTaskId("Invalid response", "Video task creation failed", "task_id missing", res));
+  }
+
+  public CompletableFuture<String> createVideoTaskAsync(VideoTaskOptions opt) {
+    return sendAsync(ThordataEndpoint.BUILDER, () -> videoTaskRequest(opt), ofBytes(), res -> parseTaskId("Invalid response", "Video task creation failed", "task_id missing", res));
+  }
+
+  private HttpRequest videoTaskRequest(VideoTaskOptions opt) throws Exception {
     if (cfg.scraperToken == null || cfg.scraperToken.isBlank()) {
         throw new IllegalArgumentException("scraperToken is required for Video Task Builder");
     }
@@ -661,62 +984,35 @@ public final class ThordataClient {
     payload.put("file_name", opt.fileName);
     payload.put("spider_id", opt.spiderId);
     payload.put("spider_name", opt.spiderName);
-    payload.put("spider_parameters", om.writeValueAsString(List.of(opt.parameters)));
+    payload.put("spider_parameters", objectMapListWriter.writeValueAsString(List.of(opt.parameters)));
     payload.put("spider_errors", opt.includeErrors ? "true" : "false");
 
     if (opt.commonSettings != null) {
-      payload.put("common_settings", om.writeValueAsString(opt.commonSettings));
+      payload.put("common_settings", jsonWriter.writeValueAsString(opt.commonSettings));
     }
 
-    HttpRequest.Builder reqBuilder = HttpRequest.newBuilder()
-        .uri(URI.create(videoBuilderUrl))
-        .timeout(cfg.timeout)
-        .header("Authorization", "Bearer " + cfg.scraperToken)
-        .header("Content-Type", "application/x-www-form-urlencoded")
-        .header("User-Agent", cfg.userAgent);
-
-    if (cfg.publicToken != null) reqBuilder.header("token", cfg.publicToken);
-    if (cfg.publicKey != null) reqBuilder.header("key", cfg.publicKey);
-
-    HttpRequest req = reqBuilder.POST(HttpRequest.BodyPublishers.ofString(Utils.formEncode(payload))).build();
-
-    HttpResponse<String> res = apiClient.send(req, HttpResponse.BodyHandlers.ofString());
-    Object parsed = safeParseJson(res.body());
+    return videoBuilderTemplate.post(payload);
+  }
 
-    if (!(parsed instanceof Map<?, ?> m)) {
-      throw new ThordataErrors.ThordataApiException("Invalid response", null, res.statusCode(), parsed);
-    }
-    Integer apiCode = m.containsKey("code") ? toInt(m.get("code")) : null;
-    if (apiCode != null && apiCode != 200) {
-      throw raiseForCode("Video task creation failed", m, res.statusCode());
-    }
+  public Map<String, Object> listTasks(int page, int size) throws Exception {
+    return send(ThordataEndpoint.TASKS_LIST, listTasksRequest(page, size), ofBytes(), this::parseListTasks);
+  }
 
-    Object dataObj = m.get("data");
-    if (dataObj instanceof Map<?, ?> dm && dm.containsKey("task_id")) {
-      return String.valueOf(dm.get("task_id"));
-    }
-    throw new ThordataErrors.ThordataApiException("task_id missing", apiCode, res.statusCode(), parsed);
+  public CompletableFuture<Map<String, Object>> listTasksAsync(int page, int size) {
+    return sendAsync(ThordataEndpoint.TASKS_LIST, () -> listTasksRequest(page, size), ofBytes(), this::parseListTasks);
   }
 
-  public Map<String, Object> listTasks(int page, int size) throws Exception {
+  private HttpRequest listTasksRequest(int page, int size) {
     requirePublicCreds();
     Map<String, String> payload = new HashMap<>();
     payload.put("page", String.valueOf(page));
     payload.put("size", String.valueOf(size));
+    return taskListTemplate.post(payload);
+  }
 
-    HttpRequest req = HttpRequest.newBuilder()
-        .uri(URI.create(taskListUrl))
-        .timeout(cfg.timeout)
-        .header("token", cfg.publicToken)
-        .header("key", cfg.publicKey)
-        .header("Content-Type", "application/x-www-form-urlencoded")
-        .header("User-Agent", cfg.userAgent)
-        .POST(HttpRequest.BodyPublishers.ofString(Utils.formEncode(payload)))
-        .build();
-
-    HttpResponse<String> res = apiClient.send(req, HttpResponse.BodyHandlers.ofString());
+  private Map<String, Object> parseListTasks(HttpResponse<byte[]> res) {
     Object parsed = safeParseJson(res.body());
-    
+
     if (parsed instanceof Map<?, ?> m) {
         Integer apiCode = m.containsKey("code") ? toInt(m.get("code")) : null;
         if (apiCode != null && apiCode != 200) {
@@ -734,32 +1030,119 @@ public final class ThordataClient {
   // ==========================================================
 
   public Object listCountries(int proxyType) throws Exception {
-    return getLocations("countries", Map.of("proxy_type", String.valueOf(proxyType)));
+    return getLocations("countries", countriesParams(proxyType));
+  }
+
+  public CompletableFuture<Object> listCountriesAsync(int proxyType) {
+    return getLocationsAsync("countries", countriesParams(proxyType));
+  }
+
+  private static Map<String, String> countriesParams(int proxyType) {
+    return Map.of("proxy_type", String.valueOf(proxyType));
   }
 
   public Object listStates(String countryCode, int proxyType) throws Exception {
-    return getLocations("states", Map.of(
-        "proxy_type", String.valueOf(proxyType),
-        "country_code", countryCode.toUpperCase()
-    ));
+    return getLocations("states", countryParams(countryCode, proxyType));
+  }
+
+  public CompletableFuture<Object> listStatesAsync(String countryCode, int proxyType) {
+    return getLocationsAsync("states", () -> countryParams(countryCode, proxyType));
   }
 
   public Object listCities(String countryCode, String stateCode, int proxyType) throws Exception {
+    return getLocations("cities", citiesParams(countryCode, stateCode, proxyType));
+  }
+
+  public CompletableFuture<Object> listCitiesAsync(String countryCode, String stateCode, int proxyType) {
+    return getLocationsAsync("cities", () -> citiesParams(countryCode, stateCode, proxyType));
+  }
+
+  private static Map<String, String> citiesParams(String countryCode, String stateCode, int proxyType) {
     Map<String, String> params = new HashMap<>();
     params.put("proxy_type", String.valueOf(proxyType));
     params.put("country_code", countryCode.toUpperCase());
     if (stateCode != null && !stateCode.isBlank()) params.put("state_code", stateCode.toLowerCase());
-    return getLocations("cities", params);
+    return params;
   }
 
   public Object listAsns(String countryCode, int proxyType) throws Exception {
-    return getLocations("asn", Map.of(
+    return getLocations("asn", countryParams(countryCode, proxyType));
+  }
+
+  public CompletableFuture<Object> listAsnsAsync(String countryCode, int proxyType) {
+    return getLocationsAsync("asn", () -> countryParams(countryCode, proxyType));
+  }
+
+  private static Map<String, String> countryParams(String countryCode, int proxyType) {
+    return Map.of(
         "proxy_type", String.valueOf(proxyType),
         "country_code", countryCode.toUpperCase()
-    ));
+    );
+  }
+
+  /**
+   * Warms the locations cache: countries for {@code proxyType}, plus states, cities and ASNs of
+   * each country in {@code countryCodes}. Calls run concurrently and are saved to the snapshot
+   * once at the end. Without a configured {@link LocationsCache} this only costs requests.
+   */
+  public BulkResult<Object> prefetchLocations(int proxyType, String... countryCodes) throws Exception {
+    List<Map.Entry<String, Map<String, String>>> calls = new ArrayList<>();
+    calls.add(Map.entry("countries", countriesParams(proxyType)));
+    for (String cc : countryCodes) {
+      calls.add(Map.entry("states", countryParams(cc, proxyType)));
+      calls.add(Map.entry("cities", citiesParams(cc, null, proxyType)));
+      calls.add(Map.entry("asn", countryParams(cc, proxyType)));
+    }
+    BulkResult<Object> res = BulkExecutor.run(calls, new BulkOptions(), c -> fetchLocationsAsync(c.getKey(), c.getValue()));
+    if (cfg.locationsCache != null) cfg.locationsCache.saveSnapshot();
+    return res;
   }
 
   private Object getLocations(String endpoint, Map<String, String> params) throws Exception {
+    LocationsCache cache = cfg.locationsCache;
+    if (cache == null) {
+      return send(ThordataEndpoint.LOCATIONS, locationsRequest(endpoint, params), ofBytes(), this::parseLocations);
+    }
+    String key = LocationsCache.key(endpoint, params);
+    Object hit = cache.get(key);
+    if (hit != null) return hit;
+
+    Object data = send(ThordataEndpoint.LOCATIONS, locationsRequest(endpoint, params), ofBytes(), this::parseLocations);
+    cache.put(key, data);
+    return data;
+  }
+
+  private CompletableFuture<Object> getLocationsAsync(String endpoint, Map<String, String> params) {
+    return getLocationsAsync(endpoint, () -> params);
+  }
+
+  private CompletableFuture<Object> getLocationsAsync(String endpoint, ThrowingSupplier<Map<String, String>> params) {
+    Map<String, String> p;
+    try {
+      p = params.get();
+    } catch (Exception e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    return fetchLocationsAsync(endpoint, p);
+  }
+
+  private CompletableFuture<Object> fetchLocationsAsync(String endpoint, Map<String, String> params) {
+    LocationsCache cache = cfg.locationsCache;
+    if (cache == null) {
+      return sendAsync(ThordataEndpoint.LOCATIONS, () -> locationsRequest(endpoint, params), ofBytes(), this::parseLocations);
+    }
+    String key = LocationsCache.key(endpoint, params);
+    Object hit = cache.get(key);
+    if (hit != null) return CompletableFuture.completedFuture(hit);
+
+    return sendAsync(ThordataEndpoint.LOCATIONS, () -> locationsRequest(endpoint, params), ofBytes(), this::parseLocations)
+        .thenApply(data -> {
+          cache.put(key, data);
+          return data;
+        });
+  }
+
+  private HttpRequest locationsRequest(String endpoint, Map<String, String> params) {
     requirePublicCreds();
 
     StringBuilder qs = new StringBuilder();
@@ -770,16 +1153,10 @@ public final class ThordataClient {
       qs.append("=").append(java.net.URLEncoder.encode(e.getValue(), java.nio.charset.StandardCharsets.UTF_8));
     }
 
-    String url = locationsBaseUrl + "/" + endpoint + "?" + qs;
-
-    HttpRequest req = HttpRequest.newBuilder()
-        .uri(URI.create(url))
-        .timeout(cfg.timeout)
-        .header("User-Agent", cfg.userAgent)
-        .GET()
-        .build();
+    return get(locationsBaseUrl + "/" + endpoint + "?" + qs);
+  }
 
-    HttpResponse<String> res = apiClient.send(req, HttpResponse.BodyHandlers.ofString());
+  private Object parseLocations(HttpResponse<byte[]> res) {
     Object parsed = safeParseJson(res.body());
 
     if (parsed instanceof Map<?, ?> m) {
@@ -796,63 +1173,568 @@ public final class ThordataClient {
 
   public String runTask(ScraperTaskOptions taskOpt, RunTaskConfig runConfig) throws Exception {
       if (runConfig == null) runConfig = new RunTaskConfig();
-      
+
       // 1. Create Task
       String taskId = createScraperTask(taskOpt);
-      
+
       // 2. Poll Status
       long startTime = System.currentTimeMillis();
       long maxWaitMs = runConfig.maxWait.toMillis();
       long currentPollMs = runConfig.initialPollInterval.toMillis();
       long maxPollMs = runConfig.maxPollInterval.toMillis();
-      
-      while (System.currentTimeMillis() - startTime < maxWaitMs) {
+
+      for (int poll = 1; System.currentTimeMillis() - startTime < maxWaitMs; poll++) {
+          ThordataEvents.TaskPoll event = new ThordataEvents.TaskPoll();
+          event.begin();
           String status = getTaskStatus(taskId);
+          commitTaskPoll(event, taskId, poll, status);
           String lower = status.toLowerCase();
-          
+
           if (lower.equals("ready") || lower.equals("success") || lower.equals("finished")) {
               return getTaskResult(taskId, "json");
           }
-          
+
           if (lower.equals("failed") || lower.equals("error") || lower.equals("cancelled")) {
               throw new ThordataErrors.ThordataApiException("Task failed with status: " + status, null, 200, null);
           }
-          
+
           try { Thread.sleep(currentPollMs); } catch (InterruptedException e) { Thread.currentThread().interrupt(); throw e; }
-          
+
           currentPollMs = Math.min((long)(currentPollMs * 1.5), maxPollMs);
       }
-      
+
       throw new java.util.concurrent.TimeoutException("Task " + taskId + " timed out after " + runConfig.maxWait);
   }
 
+  /**
+   * Non-blocking variant of {@link #runTask}: polls on the common delayed executor instead of
+   * sleeping, so no thread is held while the task is running.
+   */
+  public CompletableFuture<String> runTaskAsync(ScraperTaskOptions taskOpt, RunTaskConfig runConfig) {
+      RunTaskConfig rc = runConfig == null ? new RunTaskConfig() : runConfig;
+      long deadline = System.currentTimeMillis() + rc.maxWait.toMillis();
+      return createScraperTaskAsync(taskOpt)
+          .thenCompose(taskId -> pollTaskAsync(taskId, rc, deadline, rc.initialPollInterval.toMillis(), 1));
+  }
+
+  private CompletableFuture<String> pollTaskAsync(String taskId, RunTaskConfig rc, long deadline, long currentPollMs, int poll) {
+      if (System.currentTimeMillis() >= deadline) {
+          return CompletableFuture.failedFuture(
+              new java.util.concurrent.TimeoutException("Task " + taskId + " timed out after " + rc.maxWait));
+      }
+      ThordataEvents.TaskPoll event = new ThordataEvents.TaskPoll();
+      event.begin();
+      return getTaskStatusAsync(taskId).thenCompose(status -> {
+          commitTaskPoll(event, taskId, poll, status);
+          String lower = status.toLowerCase();
+
+          if (lower.equals("ready") || lower.equals("success") || lower.equals("finished")) {
+              return getTaskResultAsync(taskId, "json");
+          }
+
+          if (lower.equals("failed") || lower.equals("error") || lower.equals("cancelled")) {
+              return CompletableFuture.failedFuture(
+                  new ThordataErrors.ThordataApiException("Task failed with status: " + status, null, 200, null));
+          }
+
+          long nextPollMs = Math.min((long)(currentPollMs * 1.5), rc.maxPollInterval.toMillis());
+          return CompletableFuture
+              .supplyAsync(() -> null, CompletableFuture.delayedExecutor(currentPollMs, TimeUnit.MILLISECONDS))
+              .thenCompose(ignored -> pollTaskAsync(taskId, rc, deadline, nextPollMs, poll + 1));
+      });
+  }
+
+  private static void commitTaskPoll(ThordataEvents.TaskPoll event, String taskId, int poll, String status) {
+      event.end();
+      if (!event.shouldCommit()) return;
+      event.taskId = taskId;
+      event.poll = poll;
+      event.status = status;
+      event.commit();
+  }
+
+  /**
+   * The client's shared {@link TaskWatcher}, created on first use. Prefer it over
+   * {@link #runTask} when many tasks are in flight: it polls them in batches from one thread.
+   * After the watcher is closed the next call starts a new one.
+   */
+  public TaskWatcher taskWatcher() {
+    TaskWatcher w = taskWatcher;
+    if (w == null || w.isClosed()) {
+      synchronized (this) {
+        requireOpen();
+        w = taskWatcher;
+        if (w == null || w.isClosed()) taskWatcher = w = new TaskWatcher(this);
+      }
+    }
+    return w;
+  }
+
   // ==========================================================
-  // Helpers
+  // Proxy Network
   // ==========================================================
 
-  private void requirePublicCreds() {
-    if (cfg.publicToken == null || cfg.publicToken.isBlank() || cfg.publicKey == null || cfg.publicKey.isBlank()) {
-      throw new IllegalArgumentException("publicToken and publicKey are required for this operation");
+  /**
+   * Fetches {@code url} through the proxy network. Uses a shared {@link ThordataProxyClient}
+   * with this client's timeout and User-Agent; create one directly to resolve the route once
+   * and control its lifetime.
+   */
+  public ProxyResponse proxyGet(String url, ProxyConfig proxy) throws IOException {
+    return proxyClient().get(url, ProxyRoute.of(proxy));
+  }
+
+  public CompletableFuture<ProxyResponse> proxyGetAsync(String url, ProxyConfig proxy) {
+    ProxyRoute route;
+    try {
+      route = ProxyRoute.of(proxy);
+    } catch (RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    return proxyClient().getAsync(url, route);
+  }
+
+  private ThordataProxyClient proxyClient() {
+    ThordataProxyClient c = proxyClient;
+    if (c == null) {
+      synchronized (this) {
+        requireOpen();
+        c = proxyClient;
+        if (c == null) proxyClient = c = new ThordataProxyClient(null, cfg.timeout, cfg.userAgent);
+      }
     }
+    return c;
   }
 
-  private Object safeParseJson(String data) {
+  /**
+   * Releases what the client created for itself: the shared {@link TaskWatcher}, the proxy
+   * client behind {@link #proxyGet} and the default transport. A transport passed in through
+   * {@link ThordataConfig.Builder#transport} is left open for its owner to close. Pending
+   * {@link LocationsCache} entries are written to its snapshot.
+   */
+  @Override
+  public void close() {
+    TaskWatcher w;
+    ThordataProxyClient p;
+    synchronized (this) {
+      if (closed) return;
+      closed = true;
+      w = taskWatcher;
+      p = proxyClient;
+      taskWatcher = null;
+      proxyClient = null;
+    }
+    if (w != null) w.close();
+    if (p != null) p.close();
+    if (cfg.transport == null) apiClient.close();
+    if (cfg.locationsCache != null) {
+      try {
+        cfg.locationsCache.saveSnapshot();
+      } catch (IOException ignored) {
+        // The snapshot is an optimisation; losing it only costs a cold start.
+      }
+    }
+  }
+
+  private void requireOpen() {
+    if (closed) throw new IllegalStateException("ThordataClient is closed");
+  }
+
+  // ==========================================================
+  // Connection Warm-up
+  // ==========================================================
+
+  /**
+   * Opens {@code warmUpConnections} connections to each configured API origin (SERP, Universal,
+   * Web Scraper and locations base URLs, deduplicated), running DNS, TCP, TLS and HTTP/2
+   * negotiation ahead of the first real call; the transport then keeps them in its pool. The
+   * requests are {@code HEAD /} and any response counts, whatever its status. They bypass the
+   * rate limiter, circuit breaker and metrics. Never throws for unreachable origins; check
+   * {@link WarmUpReport#isReady()}.
+   */
+  public WarmUpReport warmUp() {
+    return warmUpAsync().join();
+  }
+
+  public CompletableFuture<WarmUpReport> warmUpAsync() {
+    long started = System.nanoTime();
+    List<CompletableFuture<WarmUpReport.Origin>> origins = new ArrayList<>();
+    for (URI origin : apiOrigins()) origins.add(warmUpOrigin(origin));
+    return CompletableFuture.allOf(origins.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+      List<WarmUpReport.Origin> done = new ArrayList<>(origins.size());
+      for (CompletableFuture<WarmUpReport.Origin> f : origins) done.add(f.join());
+      return new WarmUpReport(done, Duration.ofNanos(System.nanoTime() - started));
+    });
+  }
+
+  /** The warm-up started by {@link ThordataConfig.Builder#warmUpOnStart}, or null. */
+  public CompletableFuture<WarmUpReport> initialWarmUp() {
+    return initialWarmUp;
+  }
+
+  private Collection<URI> apiOrigins() {
+    LinkedHashSet<URI> origins = new LinkedHashSet<>();
+    for (String url : List.of(serpUrl, universalUrl, statusUrl, locationsBaseUrl)) {
+      try {
+        URI u = URI.create(url);
+        if (u.getScheme() != null && u.getHost() != null) {
+          origins.add(new URI(u.getScheme(), null, u.getHost(), u.getPort(), "/", null, null));
+        }
+      } catch (Exception ignored) {
+        // Malformed base URLs fail on the first real call instead.
+      }
+    }
+    return origins;
+  }
+
+  private CompletableFuture<WarmUpReport.Origin> warmUpOrigin(URI origin) {
+    int n = Math.max(1, cfg.warmUpConnections);
+    List<CompletableFuture<HttpResponse<Void>>> attempts = new ArrayList<>(n);
+    long[] latencies = new long[n];
+    for (int i = 0; i < n; i++) {
+      HttpRequest.Builder rb = HttpRequest.newBuilder(origin)
+          .method("HEAD", HttpRequest.BodyPublishers.noBody())
+          .timeout(cfg.timeout == null ? Duration.ofSeconds(30) : cfg.timeout);
+      if (cfg.userAgent != null) rb.header("User-Agent", cfg.userAgent);
+      int slot = i;
+      long started = System.nanoTime();
+      CompletableFuture<HttpResponse<Void>> f;
+      try {
+        f = apiClient.sendAsync(rb.build(), HttpResponse.BodyHandlers.discarding());
+      } catch (RuntimeException e) {
+        f = CompletableFuture.failedFuture(e);
+      }
+      attempts.add(f.whenComplete((res, err) -> latencies[slot] = System.nanoTime() - started));
+    }
+    return CompletableFuture.allOf(attempts.toArray(new CompletableFuture<?>[0])).handle((v, ignored) -> {
+      int ok = 0;
+      long slowest = 0;
+      HttpClient.Version version = null;
+      Throwable error = null;
+      for (int i = 0; i < n; i++) {
+        CompletableFuture<HttpResponse<Void>> f = attempts.get(i);
+        if (f.isCompletedExceptionally()) {
+          if (error == null) error = f.handle((r, e) -> Utils.unwrapAsync(e)).join();
+          continue;
+        }
+        ok++;
+        slowest = Math.max(slowest, latencies[i]);
+        if (version == null) version = f.join().version();
+      }
+      return new WarmUpReport.Origin(origin, ok, version, ok > 0 ? Duration.ofNanos(slowest) : null, ok > 0 ? null : error);
+    });
+  }
+
+  // ==========================================================
+  // Request Execution
+  // ==========================================================
+
+  @FunctionalInterface
+  private interface ResponseParser<B, T> {
+    T parse(HttpResponse<B> res) throws Exception;
+  }
+
+  @FunctionalInterface
+  private interface ThrowingSupplier<V> {
+    V get() throws Exception;
+  }
+
+  /**
+   * Bodies are kept as raw bytes and handed straight to Jackson; text is only decoded on the
+   * rare paths that need it (non-JSON bodies, error messages). gzip / deflate bodies are inflated
+   * as they arrive.
+   */
+  private static HttpResponse.BodyHandler<byte[]> ofBytes() {
+    return DecodingBodyHandler.ofByteArray();
+  }
+
+  private <B, T> T send(ThordataEndpoint endpoint, HttpRequest req, HttpResponse.BodyHandler<B> handler, ResponseParser<B, T> parser) throws Exception {
+    return send(endpoint, null, req, handler, parser);
+  }
+
+  /** {@code engine} only labels the JFR request event. */
+  private <B, T> T send(ThordataEndpoint endpoint, String engine, HttpRequest req, HttpResponse.BodyHandler<B> handler, ResponseParser<B, T> parser) throws Exception {
+    if (cfg.retryPolicy != null && cfg.retryPolicy.budget != null) cfg.retryPolicy.budget.onRequest();
+
+    for (int attempt = 1; ; attempt++) {
+      // Admitted first, so an open circuit fails fast instead of after a rate-limit wait.
+      long ticket = admit(endpoint);
+      long waitNanos = reservePermit(endpoint);
+      long started = System.nanoTime() + Math.max(0, waitNanos);
+
+      ThordataEvents.Request event = new ThordataEvents.Request();
+      long received = 0;
+      HttpResponse<B> res = null;
+      try {
+        if (waitNanos > 0) {
+          ThordataEvents.rateLimited(endpoint, waitNanos, false);
+          TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        event.begin();
+        res = apiClient.send(req, handler);
+        received = System.nanoTime();
+        T value = parser.parse(res);
+        onComplete(endpoint, ticket, null, started);
+        recordCall(event, endpoint, engine, attempt, req, handler, res, null, waitNanos, received - started);
+        return value;
+      } catch (Throwable e) {
+        // Errors included: the ticket must be handed back, or a half-open probe slot is lost.
+        onComplete(endpoint, ticket, e, started);
+        recordCall(event, endpoint, engine, attempt, req, handler, res, e, waitNanos, (received == 0 ? System.nanoTime() : received) - started);
+        long delayNanos = e instanceof Exception ? retryDelayNanos(endpoint, req, res, e, attempt) : -1;
+        if (delayNanos < 0) throw e;
+        ThordataEvents.retry(endpoint, attempt, e, delayNanos);
+        TimeUnit.NANOSECONDS.sleep(delayNanos);
+      }
+    }
+  }
+
+  /**
+   * Async counterpart of {@link #send}. Request building runs on the caller thread; validation
+   * failures complete the returned future exceptionally instead of being thrown, so callers see
+   * every error in one place. Rate-limit waits and retry backoff are scheduled on the delayed
+   * executor rather than blocking a thread.
+   */
+  private <B, T> CompletableFuture<T> sendAsync(ThordataEndpoint endpoint, ThrowingSupplier<HttpRequest> request, HttpResponse.BodyHandler<B> handler, ResponseParser<B, T> parser) {
+    return sendAsync(endpoint, null, request, handler, parser);
+  }
+
+  private <B, T> CompletableFuture<T> sendAsync(ThordataEndpoint endpoint, String engine, ThrowingSupplier<HttpRequest> request, HttpResponse.BodyHandler<B> handler, ResponseParser<B, T> parser) {
+    HttpRequest req;
     try {
-      Object obj = om.readValue(data, Object.class);
-      if (obj instanceof String s) {
+      req = request.get();
+    } catch (Exception e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    if (cfg.retryPolicy != null && cfg.retryPolicy.budget != null) cfg.retryPolicy.budget.onRequest();
+
+    CompletableFuture<T> result = new CompletableFuture<>();
+    attemptAsync(endpoint, engine, req, handler, parser, 1, result);
+    return result;
+  }
+
+  private <B, T> void attemptAsync(ThordataEndpoint endpoint, String engine, HttpRequest req, HttpResponse.BodyHandler<B> handler,
+                                   ResponseParser<B, T> parser, int attempt, CompletableFuture<T> result) {
+    long ticket;
+    try {
+      ticket = admit(endpoint);
+    } catch (ThordataErrors.ThordataCircuitOpenException e) {
+      result.completeExceptionally(e);
+      return;
+    }
+    long waitNanos = reservePermit(endpoint);
+    long started = System.nanoTime() + Math.max(0, waitNanos);
+    ThordataEvents.Request event = new ThordataEvents.Request();
+    CompletableFuture<HttpResponse<B>> sent;
+    if (waitNanos <= 0) {
+      event.begin();
+      sent = transportSendAsync(req, handler);
+    } else {
+      ThordataEvents.rateLimited(endpoint, waitNanos, false);
+      sent = CompletableFuture.runAsync(event::begin, delayed(waitNanos)).thenCompose(ignored -> transportSendAsync(req, handler));
+    }
+
+    sent.whenComplete((res, err) -> {
+      long networkNanos = System.nanoTime() - started;
+      Throwable failure = Utils.unwrapAsync(err);
+      if (failure == null) {
         try {
-          return om.readValue(s.trim(), Object.class);
-        } catch (Exception ignored) {
-          return obj;
+          T value = parser.parse(res);
+          onComplete(endpoint, ticket, null, started);
+          recordCall(event, endpoint, engine, attempt, req, handler, res, null, waitNanos, networkNanos);
+          result.complete(value);
+          return;
+        } catch (Throwable e) {
+          // Errors included: the ticket and the caller's future must not be left pending.
+          failure = e;
         }
       }
-      return obj;
-    } catch (Exception e) {
-      return data;
+
+      onComplete(endpoint, ticket, failure, started);
+      recordCall(event, endpoint, engine, attempt, req, handler, res, failure, waitNanos, networkNanos);
+      long delayNanos = retryDelayNanos(endpoint, req, res, failure, attempt);
+      if (delayNanos < 0) {
+        result.completeExceptionally(failure);
+        return;
+      }
+      ThordataEvents.retry(endpoint, attempt, failure, delayNanos);
+      delayed(delayNanos).execute(() -> attemptAsync(endpoint, engine, req, handler, parser, attempt + 1, result));
+    });
+  }
+
+  /**
+   * A custom transport may throw instead of failing the future; that must still release the
+   * circuit-breaker ticket and reach the caller's future.
+   */
+  private <B> CompletableFuture<HttpResponse<B>> transportSendAsync(HttpRequest req, HttpResponse.BodyHandler<B> handler) {
+    try {
+      return apiClient.sendAsync(req, handler);
+    } catch (RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
     }
   }
 
-  private Object safeParseJsonBytes(byte[] data) {
+  private static Executor delayed(long nanos) {
+    return CompletableFuture.delayedExecutor(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  private long reservePermit(ThordataEndpoint endpoint) {
+    return cfg.rateLimiter == null ? 0L : cfg.rateLimiter.reserve(endpoint.family);
+  }
+
+  private long admit(ThordataEndpoint endpoint) {
+    return cfg.circuitBreaker == null ? 0L : cfg.circuitBreaker.acquire(endpoint);
+  }
+
+  private void onComplete(ThordataEndpoint endpoint, long ticket, Throwable error, long startedNanos) {
+    if (cfg.circuitBreaker != null) {
+      cfg.circuitBreaker.onResult(endpoint, ticket, error, System.nanoTime() - startedNanos);
+    }
+    if (error instanceof ThordataErrors.ThordataRateLimitException) {
+      ThordataEvents.rateLimited(endpoint, 0, true);
+      if (cfg.rateLimiter != null) cfg.rateLimiter.onRateLimited(endpoint.family);
+    }
+  }
+
+  private void recordCall(ThordataEvents.Request event, ThordataEndpoint endpoint, String engine, int attempt, HttpRequest req,
+                          HttpResponse.BodyHandler<?> handler, HttpResponse<?> res, Throwable error, long queueNanos, long networkNanos) {
+    ThordataMetrics m = cfg.metrics;
+    event.end();
+    boolean emit = event.shouldCommit();
+    if (m == null && !emit) return;
+    long requestBytes = req.bodyPublisher().map(HttpRequest.BodyPublisher::contentLength).orElse(0L);
+    long responseBytes = -1;
+    long wireBytes = -1;
+    if (res != null && handler instanceof DecodingBodyHandler<?> d) {
+      responseBytes = d.decodedBytes();
+      wireBytes = d.wireBytes();
+    } else if (res != null) {
+      responseBytes = res.body() instanceof byte[] b ? b.length : res.headers().firstValueAsLong("Content-Length").orElse(-1);
+      wireBytes = responseBytes;
+    }
+    Integer apiCode = error instanceof ThordataErrors.ThordataApiException api ? api.apiCode : null;
+    if (emit) {
+      event.endpoint = endpoint.name();
+      event.engine = engine;
+      event.attempt = attempt;
+      event.httpStatus = res == null ? 0 : res.statusCode();
+      event.apiCode = apiCode == null ? 0 : apiCode;
+      event.error = error == null ? null : error.getClass().getName();
+      event.requestBytes = Math.max(0, requestBytes);
+      event.responseBytes = responseBytes;
+      event.wireBytes = wireBytes;
+      event.queueNanos = Math.max(0, queueNanos);
+      event.commit();
+    }
+    if (m == null) return;
+    try {
+      m.onCall(new ThordataMetrics.Call(endpoint, attempt, res == null ? 0 : res.statusCode(), apiCode,
+          error == null ? null : error.getClass(), Math.max(0, requestBytes), responseBytes, wireBytes,
+          Math.max(0, queueNanos), Math.max(0, networkNanos)));
+    } catch (RuntimeException ignored) {
+      // A misbehaving listener must not break request handling.
+    }
+  }
+
+  private long retryDelayNanos(ThordataEndpoint endpoint, HttpRequest req, HttpResponse<?> res, Throwable error, int attempt) {
+    if (cfg.retryPolicy == null) return -1;
+    return cfg.retryPolicy.retryDelayNanos(error, attempt, res == null ? null : res.headers(), isIdempotent(endpoint, req));
+  }
+
+  /**
+   * Task creation and management POSTs (create user, add whitelist IP, ...) change server
+   * state, so they are not retried unless the request never reached the server.
+   */
+  private static boolean isIdempotent(ThordataEndpoint endpoint, HttpRequest req) {
+    if (endpoint == ThordataEndpoint.BUILDER) return false;
+    return !(endpoint == ThordataEndpoint.MANAGEMENT && "POST".equals(req.method()));
+  }
+
+  private HttpRequest publicFormPost(String url, Map<String, String> payload) {
+    return HttpRequest.newBuilder()
+        .uri(URI.create(url))
+        .timeout(cfg.timeout)
+        .header("token", cfg.publicToken)
+        .header("key", cfg.publicKey)
+        .header("Content-Type", "application/x-www-form-urlencoded")
+        .header("User-Agent", cfg.userAgent)
+        .header("Accept-Encoding", acceptEncoding())
+        .POST(HttpRequest.BodyPublishers.ofByteArray(FormEncoder.encode(payload)))
+        .build();
+  }
+
+  private RequestTemplate scraperTemplate(String url) {
+    return new RequestTemplate(url, cfg.timeout,
+        "token", cfg.scraperToken,
+        "Authorization", cfg.scraperToken == null ? null : "Bearer " + cfg.scraperToken,
+        "Content-Type", "application/x-www-form-urlencoded",
+        "User-Agent", cfg.userAgent,
+        "Accept-Encoding", acceptEncoding());
+  }
+
+  private RequestTemplate builderTemplate(String url) {
+    return new RequestTemplate(url, cfg.timeout,
+        "Authorization", cfg.scraperToken == null ? null : "Bearer " + cfg.scraperToken,
+        "Content-Type", "application/x-www-form-urlencoded",
+        "User-Agent", cfg.userAgent,
+        "token", cfg.publicToken,
+        "key", cfg.publicKey,
+        "Accept-Encoding", acceptEncoding());
+  }
+
+  private RequestTemplate publicTemplate(String url) {
+    return new RequestTemplate(url, cfg.timeout,
+        "token", cfg.publicToken,
+        "key", cfg.publicKey,
+        "Content-Type", "application/x-www-form-urlencoded",
+        "User-Agent", cfg.userAgent,
+        "Accept-Encoding", acceptEncoding());
+  }
+
+  /** {@code identity} also keeps OkHttp from negotiating gzip behind the client's back. */
+  private String acceptEncoding() {
+    return cfg.compression ? DecodingBodyHandler.ACCEPT_ENCODING : "identity";
+  }
+
+  private HttpRequest get(String url) {
+    return HttpRequest.newBuilder()
+        .uri(URI.create(url))
+        .timeout(cfg.timeout)
+        .header("User-Agent", cfg.userAgent)
+        .header("Accept-Encoding", acceptEncoding())
+        .GET()
+        .build();
+  }
+
+  // ==========================================================
+  // Helpers
+  // ==========================================================
+
+  private void requirePublicCreds() {
+    if (cfg.publicToken == null || cfg.publicToken.isBlank() || cfg.publicKey == null || cfg.publicKey.isBlank()) {
+      throw new IllegalArgumentException("publicToken and publicKey are required for this operation");
+    }
+  }
+
+  private static final Object NOT_JSON = new Object();
+
+  /**
+   * Parses a JSON body, unwrapping the JSON-encoded-as-a-string case. Falls back to the decoded
+   * text when the body is not JSON.
+   */
+  Object safeParseJson(byte[] data) {
+    Object obj = parseJsonOrMarker(data);
+    return obj == NOT_JSON ? new String(data, StandardCharsets.UTF_8) : obj;
+  }
+
+  /**
+   * Same as {@link #safeParseJson} but falls back to the raw bytes, for binary responses.
+   */
+  Object safeParseJsonBytes(byte[] data) {
+    Object obj = parseJsonOrMarker(data);
+    return obj == NOT_JSON ? data : obj;
+  }
+
+  private Object parseJsonOrMarker(byte[] data) {
     try {
       Object obj = om.readValue(data, Object.class);
       if (obj instanceof String s) {
@@ -864,10 +1746,14 @@ public final class ThordataClient {
       }
       return obj;
     } catch (Exception e) {
-      return data;
+      return NOT_JSON;
     }
   }
 
+  private static String bodyText(HttpResponse<byte[]> res) {
+    return new String(res.body(), StandardCharsets.UTF_8);
+  }
+
   private static Integer toInt(Object o) {
     if (o == null) return null;
     if (o instanceof Integer i) return i;
@@ -878,15 +1764,19 @@ public final class ThordataClient {
   private RuntimeException raiseForCode(String message, Map<?, ?> payload, int httpStatus) {
     Integer apiCode = payload.containsKey("code") ? toInt(payload.get("code")) : null;
 
+    String errMsg = message;
+    if (payload.containsKey("msg")) errMsg = String.valueOf(payload.get("msg"));
+    else if (payload.containsKey("message")) errMsg = String.valueOf(payload.get("message"));
+
+    return errorForCode(errMsg, apiCode, httpStatus, payload);
+  }
+
+  private static ThordataErrors.ThordataApiException errorForCode(String errMsg, Integer apiCode, int httpStatus, Object payload) {
     int effective;
     if (apiCode != null && apiCode != 200) effective = apiCode;
     else if (httpStatus != 200) effective = httpStatus;
     else effective = apiCode == null ? httpStatus : apiCode;
 
-    String errMsg = message;
-    if (payload.containsKey("msg")) errMsg = String.valueOf(payload.get("msg"));
-    else if (payload.containsKey("message")) errMsg = String.valueOf(payload.get("message"));
-
     if (effective == 300) return new ThordataErrors.ThordataNotCollectedException(errMsg, apiCode, httpStatus, payload);
     if (effective == 401 || effective == 403) return new ThordataErrors.ThordataAuthException(errMsg, apiCode, httpStatus, payload);
     if (effective == 402 || effective == 429) return new ThordataErrors.ThordataRateLimitException(errMsg, apiCode, httpStatus, payload);
@@ -895,16 +1785,4 @@ public final class ThordataClient {
 
     return new ThordataErrors.ThordataApiException(errMsg, apiCode, httpStatus, payload);
   }
-
-  private static byte[] decodeBase64MaybeDataUri(String s) {
-    if (s == null) return new byte[0];
-    String v = s.trim();
-    int idx = v.indexOf(",");
-    if (idx >= 0) v = v.substring(idx + 1);
-    v = v.replace("\n", "").replace("\r", "").replace(" ", "");
-    int mod = v.length() % 4;
-    if (mod == 2) v = v + "==";
-    if (mod == 3) v = v + "=";
-    return Base64.getDecoder().decode(v);
-  }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.thordata.sdk;
 
+import java.net.http.HttpClient;
 import java.time.Duration;
 
 public final class ThordataConfig {
@@ -16,6 +17,20 @@ public final class ThordataConfig {
   public final String webScraperApiBaseUrl;
   public final String locationsBaseUrl;
 
+  public final RateLimiter rateLimiter;
+  public final RetryPolicy retryPolicy;
+  public final CircuitBreaker circuitBreaker;
+  public final LocationsCache locationsCache;
+  public final SerpCache serpCache;
+  public final boolean serpRetainUnknownFields;
+  public final boolean lazySerpResponses;
+  public final ThordataMetrics metrics;
+  public final ThordataTransport transport;
+  public final HttpClient.Version httpVersion;
+  public final boolean warmUpOnStart;
+  public final int warmUpConnections;
+  public final boolean compression;
+
   private ThordataConfig(Builder builder) {
     this.scraperToken = builder.scraperToken;
     this.publicToken = builder.publicToken;
@@ -28,6 +43,19 @@ public final class ThordataConfig {
     this.universalApiBaseUrl = Utils.getenvOrDefault("THORDATA_UNIVERSALAPI_BASE_URL", builder.universalApiBaseUrl, "https://universalapi.thordata.com");
     this.webScraperApiBaseUrl = Utils.getenvOrDefault("THORDATA_WEB_SCRAPER_API_BASE_URL", builder.webScraperApiBaseUrl, "https://openapi.thordata.com/api/web-scraper-api");
     this.locationsBaseUrl = Utils.getenvOrDefault("THORDATA_LOCATIONS_BASE_URL", builder.locationsBaseUrl, "https://openapi.thordata.com/api/locations");
+    this.rateLimiter = builder.rateLimiter;
+    this.retryPolicy = builder.retryPolicy;
+    this.circuitBreaker = builder.circuitBreaker;
+    this.locationsCache = builder.locationsCache;
+    this.serpCache = builder.serpCache;
+    this.serpRetainUnknownFields = builder.serpRetainUnknownFields;
+    this.lazySerpResponses = builder.lazySerpResponses;
+    this.metrics = builder.metrics;
+    this.transport = builder.transport;
+    this.httpVersion = builder.httpVersion;
+    this.warmUpOnStart = builder.warmUpOnStart;
+    this.warmUpConnections = builder.warmUpConnections;
+    this.compression = builder.compression;
   }
 
   // Deprecated constructor for backward compatibility (updated to match what tests expect + proxy)
@@ -48,6 +76,19 @@ public final class ThordataConfig {
       this.webScraperApiBaseUrl = webScraperApiBaseUrl;
       this.locationsBaseUrl = locationsBaseUrl;
       this.httpProxyUrl = httpProxyUrl;
+      this.rateLimiter = null;
+      this.retryPolicy = null;
+      this.circuitBreaker = null;
+      this.locationsCache = null;
+      this.serpCache = null;
+      this.serpRetainUnknownFields = false;
+      this.lazySerpResponses = false;
+      this.metrics = null;
+      this.transport = null;
+      this.httpVersion = null;
+      this.warmUpOnStart = false;
+      this.warmUpConnections = 1;
+      this.compression = true;
   }
   
   // Another overload for tests that don't pass proxy
@@ -75,6 +116,19 @@ public final class ThordataConfig {
     private String universalApiBaseUrl;
     private String webScraperApiBaseUrl;
     private String locationsBaseUrl;
+    private RateLimiter rateLimiter;
+    private RetryPolicy retryPolicy;
+    private CircuitBreaker circuitBreaker;
+    private LocationsCache locationsCache;
+    private SerpCache serpCache;
+    private boolean serpRetainUnknownFields;
+    private boolean lazySerpResponses;
+    private ThordataMetrics metrics;
+    private ThordataTransport transport;
+    private HttpClient.Version httpVersion;
+    private boolean warmUpOnStart;
+    private int warmUpConnections = 1;
+    private boolean compression = true;
 
     public Builder(String scraperToken) {
       this.scraperToken = scraperToken; // Allow null here
@@ -85,6 +139,35 @@ public final class ThordataConfig {
     public Builder timeout(Duration d) { this.timeout = d; return this; }
     public Builder userAgent(String ua) { this.userAgent = ua; return this; }
     public Builder httpProxy(String url) { this.httpProxyUrl = url; return this; }
+    public Builder scraperApiBaseUrl(String url) { this.scraperApiBaseUrl = url; return this; }
+    public Builder universalApiBaseUrl(String url) { this.universalApiBaseUrl = url; return this; }
+    public Builder webScraperApiBaseUrl(String url) { this.webScraperApiBaseUrl = url; return this; }
+    public Builder locationsBaseUrl(String url) { this.locationsBaseUrl = url; return this; }
+    public Builder rateLimiter(RateLimiter l) { this.rateLimiter = l; return this; }
+    public Builder retryPolicy(RetryPolicy p) { this.retryPolicy = p; return this; }
+    public Builder circuitBreaker(CircuitBreaker b) { this.circuitBreaker = b; return this; }
+    public Builder locationsCache(LocationsCache c) { this.locationsCache = c; return this; }
+    public Builder serpCache(SerpCache c) { this.serpCache = c; return this; }
+    /** Keep SERP fields that have no typed counterpart in the models' {@code extra} maps. */
+    public Builder serpRetainUnknownFields(boolean retain) { this.serpRetainUnknownFields = retain; return this; }
+    /** Return SERP responses that keep the raw JSON and bind sections on first access. */
+    public Builder lazySerpResponses(boolean lazy) { this.lazySerpResponses = lazy; return this; }
+    /** Receive an event for every HTTP attempt, e.g. a {@link MetricsRecorder}. */
+    public Builder metrics(ThordataMetrics m) { this.metrics = m; return this; }
+    /** HTTP layer for API calls, e.g. an {@link OkHttpTransport}; defaults to {@link JdkTransport}. */
+    public Builder transport(ThordataTransport t) { this.transport = t; return this; }
+    /**
+     * Preferred protocol of the default transport. {@code HTTP_2} (the JDK default) is negotiated
+     * over TLS and falls back to HTTP/1.1; {@code HTTP_1_1} never tries HTTP/2. Set
+     * {@link OkHttpTransport#httpVersion} on an OkHttp transport instead.
+     */
+    public Builder httpVersion(HttpClient.Version v) { this.httpVersion = v; return this; }
+    /** Start {@link ThordataClient#warmUpAsync()} from the client's constructor. */
+    public Builder warmUpOnStart(boolean warmUp) { this.warmUpOnStart = warmUp; return this; }
+    /** Connections opened per origin by a warm-up; HTTP/2 origins multiplex them onto one. */
+    public Builder warmUpConnections(int n) { this.warmUpConnections = n; return this; }
+    /** Ask for gzip / deflate responses, decoded as they arrive; on by default. */
+    public Builder compression(boolean enabled) { this.compression = enabled; return this; }
 
     public ThordataConfig build() {
       return new ThordataConfig(this);
@@ -0,0 +1,25 @@
+package com.thordata.sdk;
+
+/**
+ * The API endpoints the client talks to, grouped into the families that share server-side limits.
+ */
+public enum ThordataEndpoint {
+  SERP(Family.SERP),
+  UNIVERSAL(Family.UNIVERSAL),
+  BUILDER(Family.WEB_SCRAPER),
+  TASKS_STATUS(Family.WEB_SCRAPER),
+  TASKS_DOWNLOAD(Family.WEB_SCRAPER),
+  TASKS_LIST(Family.WEB_SCRAPER),
+  LOCATIONS(Family.PUBLIC_API),
+  MANAGEMENT(Family.PUBLIC_API);
+
+  public enum Family {
+    SERP, UNIVERSAL, WEB_SCRAPER, PUBLIC_API
+  }
+
+  public final Family family;
+
+  ThordataEndpoint(Family family) {
+    this.family = family;
+  }
+}
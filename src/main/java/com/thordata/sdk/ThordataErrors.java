@@ -4,6 +4,7 @@ public final class ThordataErrors {
 
   public static class ThordataException extends RuntimeException {
     public ThordataException(String message) { super(message); }
+    public ThordataException(String message, Throwable cause) { super(message, cause); }
   }
 
   public static class ThordataApiException extends ThordataException {
@@ -38,4 +39,16 @@ public final class ThordataErrors {
   public static class ThordataNotCollectedException extends ThordataApiException {
     public ThordataNotCollectedException(String m, Integer c, Integer s, Object p) { super(m, c, s, p); }
   }
-}
\ No newline at end of file
+
+  public static class ThordataCircuitOpenException extends ThordataException {
+    private static final long serialVersionUID = 1L;
+    public final ThordataEndpoint endpoint;
+    public final java.time.Duration retryAfter;
+
+    public ThordataCircuitOpenException(ThordataEndpoint endpoint, java.time.Duration retryAfter) {
+      super("Circuit open for " + endpoint + "; retry in " + retryAfter.toMillis() + "ms");
+      this.endpoint = endpoint;
+      this.retryAfter = retryAfter;
+    }
+  }
+}
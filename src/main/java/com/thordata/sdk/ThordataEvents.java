@@ -0,0 +1,148 @@
+package com.thordata.sdk;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events emitted by the client, under the "Thordata" category:
+ * <ul>
+ *   <li>{@code com.thordata.ThordataRequest}: one per HTTP attempt, spanning send to parsed result;</li>
+ *   <li>{@code com.thordata.ThordataRetry}: a failed attempt that will be retried after a backoff;</li>
+ *   <li>{@code com.thordata.ThordataRateLimited}: a request held back by the {@link RateLimiter}
+ *       or rejected by the server with a rate-limit error;</li>
+ *   <li>{@code com.thordata.ThordataTaskPoll}: one status check of {@code runTask} / {@code runTaskAsync}.</li>
+ * </ul>
+ * Like all custom events they are on by default, so any recording started with e.g.
+ * {@code -XX:StartFlightRecording} captures them. When no recording is running, emitting one
+ * costs a flag check.
+ */
+final class ThordataEvents {
+  private ThordataEvents() {}
+
+  @Name("com.thordata.ThordataRequest")
+  @Label("Thordata Request")
+  @Category("Thordata")
+  @Description("An HTTP attempt against a Thordata API, from send to parsed result")
+  @StackTrace(false)
+  static final class Request extends Event {
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Engine")
+    @Description("SERP engine, null for other endpoints")
+    String engine;
+
+    @Label("Attempt")
+    int attempt;
+
+    @Label("HTTP Status")
+    @Description("0 when no response was received")
+    int httpStatus;
+
+    @Label("API Code")
+    @Description("The code of a ThordataApiException, 0 otherwise")
+    int apiCode;
+
+    @Label("Error")
+    @Description("Exception class the attempt failed with, null on success")
+    String error;
+
+    @Label("Request Bytes")
+    @DataAmount
+    long requestBytes;
+
+    @Label("Response Bytes")
+    @Description("Body size after decompression, -1 when no response was received")
+    @DataAmount
+    long responseBytes;
+
+    @Label("Wire Bytes")
+    @Description("Body size as transferred, before gzip / deflate decoding")
+    @DataAmount
+    long wireBytes;
+
+    @Label("Queue Time")
+    @Description("Time spent waiting for the rate limiter before sending")
+    @Timespan
+    long queueNanos;
+  }
+
+  @Name("com.thordata.ThordataRetry")
+  @Label("Thordata Retry")
+  @Category("Thordata")
+  @Description("A failed attempt that is retried after a backoff")
+  @StackTrace(false)
+  static final class Retry extends Event {
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Failed Attempt")
+    int attempt;
+
+    @Label("Error")
+    String error;
+
+    @Label("Backoff")
+    @Timespan
+    long backoffNanos;
+  }
+
+  @Name("com.thordata.ThordataRateLimited")
+  @Label("Thordata Rate Limited")
+  @Category("Thordata")
+  @Description("A request delayed by the client-side rate limiter or rejected by the server")
+  @StackTrace(false)
+  static final class RateLimited extends Event {
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Wait")
+    @Description("Delay imposed by the rate limiter, 0 for server rejections")
+    @Timespan
+    long waitNanos;
+
+    @Label("Server Rejected")
+    boolean serverRejected;
+  }
+
+  @Name("com.thordata.ThordataTaskPoll")
+  @Label("Thordata Task Poll")
+  @Category("Thordata")
+  @Description("One status check while waiting for a Web Scraper task")
+  @StackTrace(false)
+  static final class TaskPoll extends Event {
+    @Label("Task Id")
+    String taskId;
+
+    @Label("Poll")
+    int poll;
+
+    @Label("Status")
+    String status;
+  }
+
+  static void retry(ThordataEndpoint endpoint, int attempt, Throwable error, long backoffNanos) {
+    Retry e = new Retry();
+    if (!e.isEnabled()) return;
+    e.endpoint = endpoint.name();
+    e.attempt = attempt;
+    e.error = error == null ? null : error.getClass().getName();
+    e.backoffNanos = backoffNanos;
+    e.commit();
+  }
+
+  static void rateLimited(ThordataEndpoint endpoint, long waitNanos, boolean serverRejected) {
+    RateLimited e = new RateLimited();
+    if (!e.isEnabled()) return;
+    e.endpoint = endpoint.name();
+    e.waitNanos = waitNanos;
+    e.serverRejected = serverRejected;
+    e.commit();
+  }
+}
@@ -0,0 +1,67 @@
+package com.thordata.sdk;
+
+/**
+ * Receives one event per API request attempt made by the client, registered through
+ * {@link ThordataConfig.Builder#metrics}. Retries produce one event each.
+ *
+ * <p>Events are delivered on the thread that finished the attempt, which for async calls is an
+ * HTTP client thread, so implementations must be thread-safe and quick. Exceptions thrown by the
+ * listener are ignored. {@link MetricsRecorder} is a ready-made implementation.
+ */
+@FunctionalInterface
+public interface ThordataMetrics {
+
+  void onCall(Call call);
+
+  /** What happened during one attempt. */
+  final class Call {
+    public final ThordataEndpoint endpoint;
+    /** 1 for the first attempt, incremented on each retry. */
+    public final int attempt;
+    /** HTTP status, or 0 when no response was received. */
+    public final int httpStatus;
+    /** The API {@code code} carried by a {@link ThordataErrors.ThordataApiException}, otherwise null. */
+    public final Integer apiCode;
+    /** Class of the exception the attempt failed with, null on success. */
+    public final Class<? extends Throwable> error;
+    /** Request body size, 0 without a body. */
+    public final long requestBytes;
+    /** Response body size after decompression, or -1 when no response was received. */
+    public final long responseBytes;
+    /**
+     * Response body size as received, before gzip / deflate decoding; equal to
+     * {@code responseBytes} for uncompressed bodies, -1 when no response was received.
+     */
+    public final long wireBytes;
+    /** Time spent waiting for the rate limiter before the request was sent. */
+    public final long queueNanos;
+    /** Time from sending the request until the response body was received. */
+    public final long networkNanos;
+
+    Call(ThordataEndpoint endpoint, int attempt, int httpStatus, Integer apiCode, Class<? extends Throwable> error,
+         long requestBytes, long responseBytes, long wireBytes, long queueNanos, long networkNanos) {
+      this.endpoint = endpoint;
+      this.attempt = attempt;
+      this.httpStatus = httpStatus;
+      this.apiCode = apiCode;
+      this.error = error;
+      this.requestBytes = requestBytes;
+      this.responseBytes = responseBytes;
+      this.wireBytes = wireBytes;
+      this.queueNanos = queueNanos;
+      this.networkNanos = networkNanos;
+    }
+
+    public boolean isSuccess() {
+      return error == null;
+    }
+
+    @Override
+    public String toString() {
+      return "Call{" + endpoint + " #" + attempt + ", http=" + httpStatus + ", code=" + apiCode
+          + ", error=" + (error == null ? null : error.getSimpleName())
+          + ", bytes=" + requestBytes + "/" + responseBytes + " (wire " + wireBytes + ")"
+          + ", queue=" + queueNanos / 1_000 + "us, network=" + networkNanos / 1_000 + "us}";
+    }
+  }
+}
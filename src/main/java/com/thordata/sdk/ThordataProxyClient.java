@@ -0,0 +1,327 @@
+package com.thordata.sdk;
+
+import okhttp3.Authenticator;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Headers;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import javax.net.SocketFactory;
+import javax.net.ssl.SNIHostName;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends HTTP requests through the Thordata proxy network.
+ *
+ * <pre>{@code
+ * try (ThordataProxyClient proxy = new ThordataProxyClient(ProxyConfig.residentialFromEnv().country("us"))) {
+ *   ProxyResponse res = proxy.get("https://httpbin.org/ip");
+ * }
+ * }</pre>
+ *
+ * <p>Each {@link ProxyRoute} (product, gateway and gateway username, so country, city and
+ * session) gets its own pool of keep-alive connections: a tunnelled connection is pinned to the
+ * exit IP it was opened with, so it must never be reused for a different route. Up to
+ * {@link #MAX_ROUTES} routes are pooled, least recently used first out. The
+ * {@code Proxy-Authorization} header is computed once per route and sent preemptively, saving a
+ * 407 round trip on every new connection. With {@code https} the connection to the gateway
+ * itself is TLS.
+ *
+ * <p>All routes share one dispatcher. Async calls are capped at {@link #maxRequests} in total
+ * and {@link #maxRequestsPerHost} per target host, however many routes they use, since OkHttp
+ * counts hosts by the request URL rather than by the proxy; further calls queue. Sync calls are
+ * not limited.
+ *
+ * <p>Instances are thread-safe and meant to be shared; close them to release pooled connections.
+ */
+public final class ThordataProxyClient implements AutoCloseable {
+  public static final int MAX_ROUTES = 256;
+  /** Idle connections kept per route. */
+  public static final int MAX_IDLE_CONNECTIONS = 5;
+  public static final Duration KEEP_ALIVE = Duration.ofMinutes(5);
+  public static final int DEFAULT_MAX_REQUESTS = 256;
+  public static final int DEFAULT_MAX_REQUESTS_PER_HOST = 64;
+
+  private final ProxyRoute defaultRoute;
+  private final String userAgent;
+  private final OkHttpClient base;
+  private final Map<String, OkHttpClient> clients = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, OkHttpClient> eldest) {
+      if (size() <= MAX_ROUTES) return false;
+      eldest.getValue().connectionPool().evictAll();
+      return true;
+    }
+  };
+
+  public ThordataProxyClient(ProxyConfig config) {
+    this(config, Duration.ofSeconds(30), Utils.buildUserAgent("1.2.0"));
+  }
+
+  /**
+   * @param config default route, used by the methods without a route argument; may be null if
+   *               every call passes its own
+   */
+  public ThordataProxyClient(ProxyConfig config, Duration timeout, String userAgent) {
+    this.defaultRoute = config == null ? null : ProxyRoute.of(config);
+    this.userAgent = userAgent;
+    Duration t = timeout == null ? Duration.ofSeconds(30) : timeout;
+    Dispatcher dispatcher = new Dispatcher();
+    dispatcher.setMaxRequests(DEFAULT_MAX_REQUESTS);
+    dispatcher.setMaxRequestsPerHost(DEFAULT_MAX_REQUESTS_PER_HOST);
+    this.base = new OkHttpClient.Builder()
+        .dispatcher(dispatcher)
+        .connectTimeout(t)
+        .readTimeout(t)
+        .writeTimeout(t)
+        .callTimeout(t.multipliedBy(2))
+        .build();
+  }
+
+  /** Caps concurrent async calls across all routes; takes effect immediately. */
+  public ThordataProxyClient maxRequests(int n) {
+    base.dispatcher().setMaxRequests(n);
+    return this;
+  }
+
+  /** Caps concurrent async calls to one target host across all routes; takes effect immediately. */
+  public ThordataProxyClient maxRequestsPerHost(int n) {
+    base.dispatcher().setMaxRequestsPerHost(n);
+    return this;
+  }
+
+  public ProxyResponse get(String url) throws IOException {
+    return request("GET", url, null, null, requireDefault());
+  }
+
+  public ProxyResponse get(String url, ProxyRoute route) throws IOException {
+    return request("GET", url, null, null, route);
+  }
+
+  /** Resolves {@code config} for this call only; prefer {@link ProxyRoute#of} for repeated use. */
+  public ProxyResponse get(String url, ProxyConfig config) throws IOException {
+    return request("GET", url, null, null, ProxyRoute.of(config));
+  }
+
+  /**
+   * Sends {@code method} to {@code url} through {@code route}. {@code body} may be null; its
+   * type is taken from a {@code Content-Type} entry in {@code headers}.
+   */
+  public ProxyResponse request(String method, String url, Map<String, String> headers, byte[] body, ProxyRoute route) throws IOException {
+    Call call = clientFor(route).newCall(buildRequest(method, url, headers, body, route));
+    try (Response res = call.execute()) {
+      return toProxyResponse(res);
+    }
+  }
+
+  public CompletableFuture<ProxyResponse> getAsync(String url) {
+    return requestAsync("GET", url, null, null, defaultRoute);
+  }
+
+  public CompletableFuture<ProxyResponse> getAsync(String url, ProxyRoute route) {
+    return requestAsync("GET", url, null, null, route);
+  }
+
+  /** Async {@link #request}; cancelling the future cancels the call. */
+  public CompletableFuture<ProxyResponse> requestAsync(String method, String url, Map<String, String> headers, byte[] body, ProxyRoute route) {
+    Call call;
+    try {
+      if (route == null) requireDefault();
+      call = clientFor(route).newCall(buildRequest(method, url, headers, body, route));
+    } catch (RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    CompletableFuture<ProxyResponse> result = new CompletableFuture<>();
+    call.enqueue(new Callback() {
+      @Override
+      public void onFailure(Call c, IOException e) {
+        result.completeExceptionally(e);
+      }
+
+      @Override
+      public void onResponse(Call c, Response res) {
+        try (res) {
+          result.complete(toProxyResponse(res));
+        } catch (IOException e) {
+          result.completeExceptionally(e);
+        }
+      }
+    });
+    result.whenComplete((r, e) -> {
+      if (result.isCancelled()) call.cancel();
+    });
+    return result;
+  }
+
+  /** Number of routes with a connection pool. */
+  public int routes() {
+    synchronized (clients) {
+      return clients.size();
+    }
+  }
+
+  /** Total idle keep-alive connections across all routes. */
+  public int idleConnections() {
+    synchronized (clients) {
+      int n = 0;
+      for (OkHttpClient c : clients.values()) n += c.connectionPool().idleConnectionCount();
+      return n;
+    }
+  }
+
+  @Override
+  public void close() {
+    synchronized (clients) {
+      for (OkHttpClient c : clients.values()) c.connectionPool().evictAll();
+      clients.clear();
+    }
+    base.dispatcher().executorService().shutdown();
+  }
+
+  private ProxyRoute requireDefault() {
+    if (defaultRoute == null) throw new IllegalStateException("No default ProxyConfig; pass a ProxyRoute");
+    return defaultRoute;
+  }
+
+  private OkHttpClient clientFor(ProxyRoute route) {
+    ProxyRoute r = route == null ? requireDefault() : route;
+    synchronized (clients) {
+      OkHttpClient c = clients.get(r.key);
+      if (c == null) {
+        c = newRouteClient(r);
+        clients.put(r.key, c);
+      }
+      return c;
+    }
+  }
+
+  /** Shares the dispatcher and its threads with {@link #base}; only the pool and proxy differ. */
+  private OkHttpClient newRouteClient(ProxyRoute r) {
+    OkHttpClient.Builder b = base.newBuilder()
+        .proxy(new Proxy(Proxy.Type.HTTP, InetSocketAddress.createUnresolved(r.host, r.port)))
+        .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE.toMillis(), TimeUnit.MILLISECONDS));
+    if (r.proxyAuthorization != null) b.proxyAuthenticator(preemptiveAuth(r.proxyAuthorization));
+    if (r.isTls()) b.socketFactory(new TlsSocketFactory(r.host));
+    return b.build();
+  }
+
+  /**
+   * OkHttp asks the proxy authenticator for credentials before opening a CONNECT tunnel, so
+   * HTTPS targets authenticate without a 407 round trip. A 407 after credentials were sent means
+   * they were rejected; retrying would not help.
+   */
+  private static Authenticator preemptiveAuth(String proxyAuthorization) {
+    return (route, response) -> {
+      if (response.request().header("Proxy-Authorization") != null) return null;
+      return response.request().newBuilder().header("Proxy-Authorization", proxyAuthorization).build();
+    };
+  }
+
+  private Request buildRequest(String method, String url, Map<String, String> headers, byte[] body, ProxyRoute route) {
+    HttpUrl target = HttpUrl.parse(url);
+    if (target == null) throw new IllegalArgumentException("Invalid URL: " + url);
+    ProxyRoute r = route == null ? requireDefault() : route;
+
+    Request.Builder b = new Request.Builder().url(target);
+    if (userAgent != null) b.header("User-Agent", userAgent);
+    String contentType = null;
+    if (headers != null) {
+      for (Map.Entry<String, String> h : headers.entrySet()) {
+        if (h.getKey().equalsIgnoreCase("Content-Type")) contentType = h.getValue();
+        b.header(h.getKey(), h.getValue());
+      }
+    }
+    // Plain-HTTP requests go to the gateway as-is, so they carry the credentials themselves. Over
+    // a CONNECT tunnel the header would reach the target site instead and must not be set.
+    if (!target.isHttps() && r.proxyAuthorization != null) b.header("Proxy-Authorization", r.proxyAuthorization);
+
+    RequestBody requestBody = body == null ? null : RequestBody.create(body, contentType == null ? null : MediaType.parse(contentType));
+    String m = method == null ? "GET" : method.toUpperCase(Locale.ROOT);
+    if (requestBody == null && (m.equals("POST") || m.equals("PUT") || m.equals("PATCH"))) {
+      requestBody = RequestBody.create(new byte[0], null);
+    }
+    return b.method(m, requestBody).build();
+  }
+
+  private static ProxyResponse toProxyResponse(Response res) throws IOException {
+    ResponseBody body = res.body();
+    byte[] bytes = body == null ? new byte[0] : body.bytes();
+    Map<String, List<String>> headers = new TreeMap<>();
+    Headers h = res.headers();
+    for (String name : h.names()) headers.put(name.toLowerCase(Locale.ROOT), h.values(name));
+    return new ProxyResponse(res.code(), res.request().url().toString(), headers, bytes);
+  }
+
+  /**
+   * Opens TLS connections to the gateway. The sockets are handed out unconnected, as OkHttp
+   * expects; the handshake runs on first use, with SNI and hostname verification for the
+   * gateway host.
+   */
+  private static final class TlsSocketFactory extends SocketFactory {
+    private final SSLSocketFactory tls = (SSLSocketFactory) SSLSocketFactory.getDefault();
+    private final String host;
+
+    TlsSocketFactory(String host) {
+      this.host = host;
+    }
+
+    @Override
+    public Socket createSocket() throws IOException {
+      SSLSocket s = (SSLSocket) tls.createSocket();
+      SSLParameters p = s.getSSLParameters();
+      p.setServerNames(List.of(new SNIHostName(host)));
+      p.setEndpointIdentificationAlgorithm("HTTPS");
+      s.setSSLParameters(p);
+      return s;
+    }
+
+    @Override
+    public Socket createSocket(String h, int port) throws IOException {
+      return connect(new InetSocketAddress(h, port));
+    }
+
+    @Override
+    public Socket createSocket(String h, int port, InetAddress localHost, int localPort) throws IOException {
+      return connect(new InetSocketAddress(h, port));
+    }
+
+    @Override
+    public Socket createSocket(InetAddress address, int port) throws IOException {
+      return connect(new InetSocketAddress(address, port));
+    }
+
+    @Override
+    public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) throws IOException {
+      return connect(new InetSocketAddress(address, port));
+    }
+
+    private Socket connect(InetSocketAddress address) throws IOException {
+      Socket s = createSocket();
+      s.connect(address);
+      return s;
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package com.thordata.sdk;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The HTTP layer under {@link ThordataClient}, chosen through
+ * {@link ThordataConfig.Builder#transport}. The client builds {@code java.net.http} requests and
+ * consumes responses through {@code BodyHandler}s whatever the transport, so an implementation
+ * only has to carry them over the wire.
+ *
+ * <p>{@link JdkTransport} (the default) runs on {@code java.net.http.HttpClient};
+ * {@link OkHttpTransport} runs on OkHttp with tunable pooling and dispatching.
+ */
+public interface ThordataTransport extends AutoCloseable {
+
+  <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException, InterruptedException;
+
+  <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler);
+
+  /** Connection pool and dispatcher state; values the transport cannot see are -1. */
+  default Stats stats() {
+    return new Stats(-1, -1, -1, -1);
+  }
+
+  /** Releases pooled connections and threads. The default does nothing. */
+  @Override
+  default void close() {
+  }
+
+  final class Stats {
+    /** Open connections, idle ones included. */
+    public final int connections;
+    public final int idleConnections;
+    /** Calls being executed. */
+    public final int runningCalls;
+    /** Async calls waiting for a free slot under the per-host or total limit. */
+    public final int queuedCalls;
+
+    public Stats(int connections, int idleConnections, int runningCalls, int queuedCalls) {
+      this.connections = connections;
+      this.idleConnections = idleConnections;
+      this.runningCalls = runningCalls;
+      this.queuedCalls = queuedCalls;
+    }
+
+    @Override
+    public String toString() {
+      return "Stats{connections=" + connections + ", idle=" + idleConnections
+          + ", running=" + runningCalls + ", queued=" + queuedCalls + "}";
+    }
+  }
+}
@@ -1,8 +1,6 @@
 // src/main/java/com/thordata/sdk/Utils.java
 package com.thordata.sdk;
 
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
 import java.net.InetSocketAddress;
 import java.net.URI;
 
@@ -26,17 +24,7 @@ public final class Utils {
   }
 
   public static String formEncode(java.util.Map<String, String> payload) {
-    StringBuilder sb = new StringBuilder();
-    boolean first = true;
-    for (var e : payload.entrySet()) {
-      if (e.getValue() == null) continue;
-      if (!first) sb.append("&");
-      first = false;
-      sb.append(URLEncoder.encode(e.getKey(), StandardCharsets.UTF_8));
-      sb.append("=");
-      sb.append(URLEncoder.encode(e.getValue(), StandardCharsets.UTF_8));
-    }
-    return sb.toString();
+    return FormEncoder.encodeToString(payload);
   }
 
     public static InetSocketAddress parseHttpProxy(String proxyUrl) {
@@ -47,4 +35,20 @@ public final class Utils {
     if (host == null || port <= 0) return null;
     return new InetSocketAddress(host, port);
   }
-}
\ No newline at end of file
+
+  /**
+   * An I/O failure of the exchange itself. Jackson's parse errors are {@code IOException}s too,
+   * but they come from a body that did arrive and will parse no better the next time.
+   */
+  static boolean isTransportError(Throwable t) {
+    return t instanceof java.io.IOException && !(t instanceof com.fasterxml.jackson.core.JacksonException);
+  }
+
+  static Throwable unwrapAsync(Throwable t) {
+    while ((t instanceof java.util.concurrent.CompletionException || t instanceof java.util.concurrent.ExecutionException)
+        && t.getCause() != null) {
+      t = t.getCause();
+    }
+    return t;
+  }
+}
@@ -0,0 +1,62 @@
+package com.thordata.sdk;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+
+/** Outcome of {@link ThordataClient#warmUp()}: one entry per API origin. */
+public final class WarmUpReport {
+  public final List<Origin> origins;
+  public final Duration elapsed;
+
+  WarmUpReport(List<Origin> origins, Duration elapsed) {
+    this.origins = List.copyOf(origins);
+    this.elapsed = elapsed;
+  }
+
+  /** True when a connection to every origin was opened. */
+  public boolean isReady() {
+    for (Origin o : origins) {
+      if (!o.isReady()) return false;
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return "WarmUpReport{ready=" + isReady() + ", elapsed=" + elapsed.toMillis() + "ms, origins=" + origins + "}";
+  }
+
+  public static final class Origin {
+    /** Scheme, host and port, e.g. {@code https://scraperapi.thordata.com}. */
+    public final URI uri;
+    /** Warm-up requests that got a response, whatever its status. */
+    public final int connections;
+    /** Negotiated protocol, null when no request succeeded. */
+    public final HttpClient.Version version;
+    /** Slowest successful warm-up request, handshakes included. */
+    public final Duration latency;
+    /** Why the origin could not be reached, null when it is ready. */
+    public final Throwable error;
+
+    Origin(URI uri, int connections, HttpClient.Version version, Duration latency, Throwable error) {
+      this.uri = uri;
+      this.connections = connections;
+      this.version = version;
+      this.latency = latency;
+      this.error = error;
+    }
+
+    public boolean isReady() {
+      return connections > 0;
+    }
+
+    @Override
+    public String toString() {
+      return uri + (isReady()
+          ? " " + version + " x" + connections + " in " + latency.toMillis() + "ms"
+          : " failed: " + error);
+    }
+  }
+}
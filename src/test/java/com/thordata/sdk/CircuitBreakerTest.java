@@ -0,0 +1,95 @@
+package com.thordata.sdk;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CircuitBreakerTest {
+
+  @Test
+  public void opensOnFailureRateAndFailsFast() {
+    List<String> transitions = new ArrayList<>();
+    CircuitBreaker cb = new CircuitBreaker()
+        .minimumCalls(4)
+        .windowSize(10)
+        .failureRateThreshold(0.5)
+        .openDuration(Duration.ofMinutes(1))
+        .listener((ep, from, to) -> transitions.add(ep + ":" + from + "->" + to));
+
+    for (int i = 0; i < 4; i++) {
+      long t = cb.acquire(ThordataEndpoint.SERP);
+      cb.onResult(ThordataEndpoint.SERP, t, i % 2 == 0 ? new IOException("reset") : null, 1_000);
+    }
+    assertEquals(CircuitBreaker.State.OPEN, cb.state(ThordataEndpoint.SERP));
+    assertEquals(List.of("SERP:CLOSED->OPEN"), transitions);
+
+    ThordataErrors.ThordataCircuitOpenException e = assertThrows(
+        ThordataErrors.ThordataCircuitOpenException.class, () -> cb.acquire(ThordataEndpoint.SERP));
+    assertEquals(ThordataEndpoint.SERP, e.endpoint);
+
+    // Other endpoints are unaffected.
+    assertEquals(CircuitBreaker.State.CLOSED, cb.state(ThordataEndpoint.UNIVERSAL));
+  }
+
+  @Test
+  public void clientErrorsDoNotTrip() {
+    CircuitBreaker cb = new CircuitBreaker().minimumCalls(2).windowSize(4);
+    for (int i = 0; i < 10; i++) {
+      long t = cb.acquire(ThordataEndpoint.BUILDER);
+      cb.onResult(ThordataEndpoint.BUILDER, t,
+          new ThordataErrors.ThordataValidationException("bad", 400, 200, null), 1_000);
+      t = cb.acquire(ThordataEndpoint.BUILDER);
+      cb.onResult(ThordataEndpoint.BUILDER, t, new JsonParseException(null, "Unexpected character '<'"), 1_000);
+    }
+    assertEquals(CircuitBreaker.State.CLOSED, cb.state(ThordataEndpoint.BUILDER));
+  }
+
+  @Test
+  public void halfOpenProbesCloseOrReopen() throws Exception {
+    CircuitBreaker cb = new CircuitBreaker()
+        .minimumCalls(1)
+        .windowSize(1)
+        .halfOpenProbes(2)
+        .openDuration(Duration.ofMillis(20));
+
+    long t = cb.acquire(ThordataEndpoint.LOCATIONS);
+    cb.onResult(ThordataEndpoint.LOCATIONS, t, new IOException("timeout"), 1_000);
+    assertEquals(CircuitBreaker.State.OPEN, cb.state(ThordataEndpoint.LOCATIONS));
+
+    Thread.sleep(30);
+    long p1 = cb.acquire(ThordataEndpoint.LOCATIONS);
+    long p2 = cb.acquire(ThordataEndpoint.LOCATIONS);
+    assertEquals(CircuitBreaker.State.HALF_OPEN, cb.state(ThordataEndpoint.LOCATIONS));
+    assertThrows(ThordataErrors.ThordataCircuitOpenException.class, () -> cb.acquire(ThordataEndpoint.LOCATIONS));
+
+    cb.onResult(ThordataEndpoint.LOCATIONS, p1, null, 1_000);
+    cb.onResult(ThordataEndpoint.LOCATIONS, p2, null, 1_000);
+    assertEquals(CircuitBreaker.State.CLOSED, cb.state(ThordataEndpoint.LOCATIONS));
+
+    t = cb.acquire(ThordataEndpoint.LOCATIONS);
+    cb.onResult(ThordataEndpoint.LOCATIONS, t, new ThordataErrors.ThordataServerException("down", 500, 500, null), 1_000);
+    Thread.sleep(30);
+    long probe = cb.acquire(ThordataEndpoint.LOCATIONS);
+    cb.onResult(ThordataEndpoint.LOCATIONS, probe, new IOException("still down"), 1_000);
+    assertEquals(CircuitBreaker.State.OPEN, cb.state(ThordataEndpoint.LOCATIONS));
+  }
+
+  @Test
+  public void slowCallsTrip() {
+    CircuitBreaker cb = new CircuitBreaker()
+        .minimumCalls(3)
+        .slowCallDuration(Duration.ofMillis(100))
+        .slowCallRateThreshold(1.0);
+    for (int i = 0; i < 3; i++) {
+      long t = cb.acquire(ThordataEndpoint.UNIVERSAL);
+      cb.onResult(ThordataEndpoint.UNIVERSAL, t, null, Duration.ofMillis(200).toNanos());
+    }
+    assertEquals(CircuitBreaker.State.OPEN, cb.state(ThordataEndpoint.UNIVERSAL));
+  }
+}
@@ -1,13 +1,45 @@
 package com.thordata.sdk;
 
 import com.sun.net.httpserver.HttpServer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.Test;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -39,6 +71,24 @@ public class ClientOfflineTest {
     server.stop(0);
   }
 
+  @Test
+  public void bodyDecoding_offline() throws Exception {
+    HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+    server.createContext("/request", ex -> writeJson(ex, 200, "<html>caf\u00e9</html>"));
+    // JSON document delivered as a JSON-encoded string
+    server.createContext("/tasks-status", ex -> writeJson(ex, 200,
+        "\"{\\\"code\\\":200,\\\"data\\\":[{\\\"task_id\\\":\\\"t1\\\",\\\"status\\\":\\\"running\\\"}]}\""));
+    server.start();
+    String base = "http://127.0.0.1:" + server.getAddress().getPort();
+    ThordataClient client = new ThordataClient(offlineConfig(base).build());
+
+    UniversalOptions opt = new UniversalOptions();
+    opt.url = "https://example.com";
+    assertEquals("<html>caf\u00e9</html>", client.universalScrape(opt));
+    assertEquals("running", client.getTaskStatus("t1"));
+    server.stop(0);
+  }
+
   @Test
   public void tasks_offline() throws Exception {
     HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
@@ -66,6 +116,344 @@ public class ClientOfflineTest {
     server.stop(0);
   }
 
+  @Test
+  public void taskStatuses_offline() throws Exception {
+    List<String> requested = Collections.synchronizedList(new ArrayList<>());
+    HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+    server.createContext("/tasks-status", ex -> {
+      try {
+        String body = URLDecoder.decode(readBody(ex.getRequestBody()), StandardCharsets.UTF_8);
+        String ids = body.substring(body.indexOf("tasks_ids=") + "tasks_ids=".length());
+        requested.add(ids);
+        StringBuilder data = new StringBuilder();
+        for (String id : ids.split(",")) {
+          if (id.equals("t4")) continue;
+          if (data.length() > 0) data.append(',');
+          data.append("{\"task_id\":\"").append(id).append("\",\"status\":\"").append(id.equals("t1") ? "ready" : "running").append("\"}");
+        }
+        writeJson(ex, 200, "{\"code\":200,\"data\":[" + data + "]}");
+      } catch (Exception e) { throw new RuntimeException(e); }
+    });
+    server.start();
+    String base = "http://127.0.0.1:" + server.getAddress().getPort();
+    ThordataClient client = new ThordataClient(offlineConfig(base).build());
+
+    Map<String, String> statuses = client.getTaskStatuses(List.of("t1", "t2", "t3", "t4", "t5", "t1"), 2);
+    assertEquals(List.of("t1", "t2", "t3", "t4", "t5"), new ArrayList<>(statuses.keySet()));
+    assertEquals("ready", statuses.get("t1"));
+    assertEquals("running", statuses.get("t5"));
+    assertEquals("unknown", statuses.get("t4"));
+    assertEquals(List.of("t1,t2", "t3,t4", "t5"), requested);
+
+    requested.clear();
+    assertEquals(statuses, client.getTaskStatusesAsync(List.of("t1", "t2", "t3", "t4", "t5")).get(5, TimeUnit.SECONDS));
+    assertEquals(List.of("t1,t2,t3,t4,t5"), requested);
+    assertEquals("running", client.getTaskStatus("t3"));
+    server.stop(0);
+  }
+
+  @Test
+  public void taskWatcher_offline() throws Exception {
+    AtomicInteger statusCalls = new AtomicInteger();
+    AtomicInteger flakyDownloads = new AtomicInteger();
+    Map<String, AtomicInteger> polls = new ConcurrentHashMap<>();
+    HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+    server.createContext("/tasks-status", ex -> {
+      try {
+        statusCalls.incrementAndGet();
+        String body = URLDecoder.decode(readBody(ex.getRequestBody()), StandardCharsets.UTF_8);
+        StringBuilder data = new StringBuilder();
+        for (String id : body.substring(body.indexOf("tasks_ids=") + 10).split(",")) {
+          int n = polls.computeIfAbsent(id, k -> new AtomicInteger()).incrementAndGet();
+          String status = id.equals("bad") ? "failed" : id.equals("stuck") || n < 3 ? "running" : "ready";
+          if (data.length() > 0) data.append(',');
+          data.append("{\"task_id\":\"").append(id).append("\",\"status\":\"").append(status).append("\"}");
+        }
+        writeJson(ex, 200, "{\"code\":200,\"data\":[" + data + "]}");
+      } catch (Exception e) { throw new RuntimeException(e); }
+    });
+    server.createContext("/tasks-download", ex -> {
+      try {
+        String body = readBody(ex.getRequestBody());
+        String id = body.substring(body.indexOf("tasks_id=") + 9).split("&")[0];
+        if (id.equals("flaky") && flakyDownloads.incrementAndGet() == 1) {
+          writeJson(ex, 503, "{\"code\":503,\"msg\":\"busy\"}");
+          return;
+        }
+        writeJson(ex, 200, "{\"code\":200,\"data\":{\"download\":\"https://example.com/" + id + ".json\"}}");
+      } catch (Exception e) { throw new RuntimeException(e); }
+    });
+    server.start();
+    String base = "http://127.0.0.1:" + server.getAddress().getPort();
+    ThordataClient client = new ThordataClient(offlineConfig(base).build());
+    TaskWatcher watcher = client.taskWatcher();
+    RunTaskConfig rc = new RunTaskConfig(Duration.ofSeconds(5), Duration.ofMillis(20), Duration.ofMillis(40));
+
+    List<CompletableFuture<String>> futures = new ArrayList<>();
+    for (int i = 0; i < 150; i++) futures.add(watcher.watch("t" + i, rc));
+    CompletableFuture<String> bad = watcher.watch("bad", rc);
+    // The first result lookup fails with a 503; the watch polls again instead of failing.
+    CompletableFuture<String> flaky = watcher.watch("flaky", rc);
+    AtomicReference<Throwable> stuckError = new AtomicReference<>();
+    CountDownLatch stuckDone = new CountDownLatch(1);
+    watcher.watch("stuck", new RunTaskConfig(Duration.ofMillis(300), Duration.ofMillis(20), Duration.ofMillis(40)),
+        (id, url, err) -> { stuckError.set(err); stuckDone.countDown(); });
+
+    for (int i = 0; i < 150; i++) {
+      assertEquals("https://example.com/t" + i + ".json", futures.get(i).get(5, TimeUnit.SECONDS));
+    }
+    assertEquals("https://example.com/flaky.json", flaky.get(5, TimeUnit.SECONDS));
+    assertEquals(2, flakyDownloads.get());
+    ExecutionException failed = assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(ThordataErrors.ThordataApiException.class, failed.getCause());
+    assertTrue(stuckDone.await(5, TimeUnit.SECONDS));
+    assertInstanceOf(TimeoutException.class, stuckError.get());
+
+    // 153 tasks polled ~3 times each, in batches of up to 100 ids.
+    assertTrue(statusCalls.get() < 40, "status calls: " + statusCalls.get());
+    assertEquals(0, watcher.pending());
+    watcher.close();
+    server.stop(0);
+  }
+
+  @Test
+  public void taskWatcherCloseRace_offline() throws Exception {
+    ThordataClient client = new ThordataClient(offlineConfig("http://127.0.0.1:1").build());
+    RunTaskConfig rc = new RunTaskConfig(Duration.ofMinutes(1), Duration.ofMinutes(1), Duration.ofMinutes(1));
+    ExecutorService pool = Executors.newFixedThreadPool(3);
+    try {
+      for (int round = 0; round < 300; round++) {
+        TaskWatcher watcher = new TaskWatcher(client);
+        CountDownLatch go = new CountDownLatch(1);
+        List<CompletableFuture<String>> watched = Collections.synchronizedList(new ArrayList<>());
+        Callable<Void> closer = () -> { go.await(); watcher.close(); return null; };
+        Callable<Void> watching = () -> {
+          go.await();
+          for (int i = 0; ; i++) {
+            try {
+              watched.add(watcher.watch("t" + i, rc));
+            } catch (IllegalStateException closed) {
+              return null;
+            }
+          }
+        };
+        List<Future<Void>> tasks = List.of(pool.submit(closer), pool.submit(closer), pool.submit(watching));
+        go.countDown();
+        // Neither watch nor a second close may fail with RejectedExecutionException.
+        for (Future<Void> t : tasks) t.get(5, TimeUnit.SECONDS);
+        for (CompletableFuture<String> f : watched) {
+          ExecutionException e = assertThrows(ExecutionException.class, () -> f.get(5, TimeUnit.SECONDS));
+          assertEquals("TaskWatcher closed", e.getCause().getMessage());
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void downloadResume_offline() throws Exception {
+    byte[] file = new byte[300_000];
+    for (int i = 0; i < file.length; i++) file[i] = (byte) (i * 31);
+    List<String> ranges = new ArrayList<>();
+
+    // Raw socket server so the first response can be cut off mid-body.
+    ServerSocket ss = new ServerSocket(0);
+    Thread serverThread = new Thread(() -> {
+      try {
+        while (!ss.isClosed()) {
+          try (Socket sock = ss.accept()) {
+            String range = null;
+            BufferedReader r = new BufferedReader(new InputStreamReader(sock.getInputStream(), StandardCharsets.ISO_8859_1));
+            for (String line = r.readLine(); line != null && !line.isEmpty(); line = r.readLine()) {
+              if (line.toLowerCase().startsWith("range:")) range = line.substring(6).trim();
+            }
+            ranges.add(String.valueOf(range));
+            OutputStream out = sock.getOutputStream();
+            if (range == null) {
+              out.write(("HTTP/1.1 200 OK\r\nContent-Length: " + file.length + "\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+              out.write(file, 0, file.length / 2);
+            } else {
+              int from = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+              out.write(("HTTP/1.1 206 Partial Content\r\nContent-Length: " + (file.length - from)
+                  + "\r\nContent-Range: bytes " + from + "-" + (file.length - 1) + "/" + file.length
+                  + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+              out.write(file, from, file.length - from);
+            }
+            out.flush();
+          }
+        }
+      } catch (Exception ignored) {
+      }
+    });
+    serverThread.setDaemon(true);
+    serverThread.start();
+    String base = "http://127.0.0.1:" + ss.getLocalPort();
+    ThordataClient client = new ThordataClient(offlineConfig(base).build());
+
+    Path dir = Files.createTempDirectory("thordata-dl");
+    Path target = dir.resolve("result.json");
+    AtomicLong lastProgress = new AtomicLong();
+    DownloadResult res = client.downloadFile(base + "/file.json", target, (done, total, bps) -> lastProgress.set(done));
+
+    assertArrayEquals(file, Files.readAllBytes(target));
+    assertFalse(Files.exists(dir.resolve("result.json.part")));
+    assertEquals(file.length, res.bytes);
+    assertEquals(2, res.attempts);
+    assertEquals(2, ranges.size());
+    assertTrue(ranges.get(1).startsWith("bytes="));
+    assertEquals(file.length, lastProgress.get());
+    ss.close();
+  }
+
+  @Test
+  public void downloadWriteFailure_offline() throws Exception {
+    // /dev/full accepts the open and fails every write with ENOSPC.
+    Path full = Path.of("/dev/full");
+    org.junit.jupiter.api.Assumptions.assumeTrue(Files.isWritable(full));
+    byte[] file = new byte[300_000];
+    AtomicInteger requests = new AtomicInteger();
+    HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+    server.createContext("/file.bin", ex -> {
+      requests.incrementAndGet();
+      ex.sendResponseHeaders(200, file.length);
+      try (OutputStream out = ex.getResponseBody()) {
+        out.write(file);
+      } catch (IOException ignored) {
+        // The client gives up mid-body.
+      }
+    });
+    server.start();
+    String base = "http://127.0.0.1:" + server.getAddress().getPort();
+    ThordataClient client = new ThordataClient(offlineConfig(base).build());
+
+    Path dir = Files.createTempDirectory("thordata-dl");
+    Files.createSymbolicLink(dir.resolve("file.bin.part"), full);
+    IOException e = assertTimeoutPreemptively(Duration.ofSeconds(20),
+        () -> assertThrows(IOException.class, () -> client.downloadFile(base + "/file.bin", dir.resolve("file.bin"), null)));
+    assertTrue(e.getMessage().contains("space"), e.getMessage());
+    assertEquals(1, requests.get());
+    assertFalse(Files.exists(dir.resolve("file.bin")));
+    server.stop(0);
+  }
+
+  @Test
+  public void downloadMissingDirectory_offline() throws Exception {
+    AtomicInteger requests = new AtomicInteger();
+    HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+    server.createContext("/file.bin", ex -> {
+      requests.incrementAndGet();
+      byte[] file = new byte[1000];
+      ex.sendResponseHeaders(200, file.length);
+      try (OutputStream out = ex.getResponseBody()) {
+        out.write(file);
+      } catch (IOException ignored) {
+        // The client gives up before reading the body.
+      }
+    });
+    server.start();
+    String base = "http://127.0.0.1:" + server.getAddress().getPort();
+    ThordataClient client = new ThordataClient(offlineConfig(base).build());
+
+    Path target = Files.createTempDirectory("thordata-dl").resolve("missing").resolve("file.bin");
+    long t0 = System.nanoTime();
+    assertThrows(java.nio.file.NoSuchFileException.class, () -> client.downloadFile(base + "/file.bin", target, null));
+    assertEquals(1, requests.get());
+    assertTrue(System.nanoTime() - t0 < Duration.ofSeconds(2).toNanos(), "no backoff before failing");
+    server.stop(0);
+  }
+
+  @Test
+  public void streamTaskResults_offline() throws Exception {
+    HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+    String base = "http://127.0.0.1:" + server.getAddress().getPort();
+    AtomicInteger downloads = new AtomicInteger();
+    server.createContext("/tasks-download", ex -> {
+      try {
+        String body = readBody(ex.getRequestBody());
+        String file = body.contains("tasks_id=nd") ? "/files/nd.json" : "/files/array.json";
+        writeJson(ex, 200, "{\"code\":200,\"data\":{\"download\":\"" + base + file + "\"}}");
+      } catch (Exception e) { throw new RuntimeException(e); }
+    });
+    server.createContext("/files/array.json", ex -> {
+      downloads.incrementAndGet();
+      StringBuilder sb = new StringBuilder("[");
+      for (int i = 0; i < 2000; i++) sb.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"title\":\"item ").append(i).append("\"}");
+      writeJson(ex, 200, sb.append("]").toString());
+    });
+    server.createContext("/files/nd.json", ex -> writeJson(ex, 200, "{\"id\":1}\n{\"id\":2}\n{\"id\":3}\n"));
+    server.start();
+
+    ThordataClient client = new ThordataClient(offlineConfig(base).build());
+
+    try (TaskResultIterator<Map> it = client.streamTaskResults("arr", Map.class)) {
+      int n = 0;
+      while (it.hasNext()) {
+        assertEquals(n, it.next().get("id"));
+        n++;
+      }
+      assertEquals(2000, n);
+    }
+
+    try (var records = client.streamTaskResults("nd").stream()) {
+      assertEquals(List.of(1, 2, 3), records.map(r -> r.get("id").asInt()).toList());
+    }
+
+    // Early termination: take a few records and close.
+    try (var records = client.streamTaskResults("arr").stream()) {
+      assertEquals(5, records.limit(5).count());
+    }
+    assertEquals(2, downloads.get());
+    server.stop(0);
+  }
+
+  @Test
+  public void universalScreenshot_offline() throws Exception {
+    byte[] image = new byte[50_000];
+    for (int i = 0; i < image.length; i++) image[i] = (byte) (i * 7);
+    String b64 = Base64.getEncoder().encodeToString(image);
+    HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+    server.createContext("/request", ex -> {
+      try {
+        String body = readBody(ex.getRequestBody());
+        if (body.contains("expired")) writeJson(ex, 200, "{\"code\":401,\"msg\":\"token expired\"}");
+        else if (body.contains("wrapped")) writeJson(ex, 200, "\"{\\\"code\\\":200,\\\"png\\\":\\\"" + b64 + "\\\"}\"");
+        else writeJson(ex, 200, "{\"code\":200,\"png\":\"data:image/png;base64," + b64 + "\"}");
+      } catch (Exception e) { throw new RuntimeException(e); }
+    });
+    server.start();
+    String base = "http://127.0.0.1:" + server.getAddress().getPort();
+    ThordataClient client = new ThordataClient(offlineConfig(base).build());
+
+    UniversalOptions opt = new UniversalOptions();
+    opt.url = "https://example.com";
+    opt.outputFormat = "png";
+
+    Path target = Files.createTempDirectory("thordata-png").resolve("shot.png");
+    assertEquals(image.length, client.universalScreenshot(opt, target));
+    assertArrayEquals(image, Files.readAllBytes(target));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    client.universalScreenshot(opt, out);
+    assertArrayEquals(image, out.toByteArray());
+    assertArrayEquals(image, (byte[]) client.universalScrape(opt));
+
+    // The envelope JSON-encoded as a string.
+    UniversalOptions wrapped = new UniversalOptions();
+    wrapped.url = "https://wrapped.example.com";
+    wrapped.outputFormat = "png";
+    assertArrayEquals(image, (byte[]) client.universalScrape(wrapped));
+
+    UniversalOptions expired = new UniversalOptions();
+    expired.url = "https://expired.example.com";
+    expired.outputFormat = "png";
+    Path failed = target.resolveSibling("failed.png");
+    assertThrows(ThordataErrors.ThordataAuthException.class, () -> client.universalScreenshot(expired, failed));
+    assertFalse(Files.exists(failed));
+    assertFalse(Files.exists(target.resolveSibling("failed.png.part")));
+    server.stop(0);
+  }
+
   @Test
   public void locations_offline() throws Exception {
     HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
@@ -82,6 +470,956 @@ public class ClientOfflineTest {
     server.stop(0);
   }
 
+  @Test
+  public void locationsCache_offline() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+    for (String ep : List.of("countries", "states", "cities", "asn")) {
+      server.createContext("/" + ep, ex -> {
+        calls.incrementAndGet();
+        writeJson(ex, 200, "{\"code\":200,\"data\":[{\"name\":\"" + ep + "\"}]}");
+      });
+    }
+    server.start();
+    String base = "http://127.0.0.1:" + server.getAddress().getPort();
+    Path snapshot = Files.createTempDirectory("thordata-loc").resolve("locations.json");
+
+    ThordataClient client = new ThordataClient(offlineConfig(base)
+        .locationsCache(new LocationsCache().snapshot(snapshot).snapshotDelay(Duration.ofMinutes(1)))
+        .build());
+    BulkResult<Object> warm = client.prefetchLocations(1, "US", "DE");
+    assertEquals(7, warm.succeeded);
+    assertEquals(7, calls.get());
+
+    assertEquals(List.of(Map.of("name", "states")), client.listStates("us", 1));
+    client.listCountriesAsync(1).get(5, TimeUnit.SECONDS);
+    client.listCities("US", null, 1);
+    assertEquals(7, calls.get());
+    // Different proxy type and state are separate keys.
+    client.listCountries(2);
+    client.listCities("US", "ca", 1);
+    assertEquals(9, calls.get());
+    // Misses are written later in the background; prefetch and close write at once.
+    assertEquals(7, snapshotSize(snapshot));
+    client.close();
+    assertEquals(9, snapshotSize(snapshot));
+
+    // A new client with the same snapshot starts warm.
+    ThordataClient second = new ThordataClient(offlineConfig(base)
+        .locationsCache(new LocationsCache().snapshot(snapshot))
+        .build());
+    second.listAsns("DE", 1);
+    second.listCities("US", "ca", 1);
+    assertEquals(9, calls.get());
+
+    // Expired entries are fetched again.
+    ThordataClient expired = new ThordataClient(offlineConfig(base)
+        .locationsCache(new LocationsCache().snapshot(snapshot).ttl(Duration.ZERO).snapshotDelay(Duration.ofMillis(10)))
+        .build());
+    expired.listAsns("DE", 1);
+    assertEquals(10, calls.get());
+    // The background write replaces the snapshot with what this cache holds.
+    for (int i = 0; i < 500 && snapshotSize(snapshot) != 1; i++) Thread.sleep(10);
+    assertEquals(1, snapshotSize(snapshot));
+    server.stop(0);
+  }
+
+  private static int snapshotSize(Path snapshot) {
+    LocationsCache c = new LocationsCache().snapshot(snapshot);
+    c.loadSnapshot();
+    return c.size();
+  }
+
+  @Test
+  public void async_offline() throws Exception {
+    HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+    server.createContext("/request", ex -> writeJson(ex, 200, "{\"code\":200,\"status\":\"ok\",\"organic\":[{\"title\":\"A\"}]}"));
+    server.createContext("/tasks-status", ex -> writeJson(ex, 200, "{\"code\":429,\"msg\":\"slow down\"}"));
+    server.start();
+    String base = "http://127.0.0.1:" + server.getAddress().getPort();
+
+    ThordataConfig cfg = new ThordataConfig(
+        "token", "pub", "key", Duration.ofSeconds(10), null,
+        base, base, base, base
+    );
+    ThordataClient client = new ThordataClient(cfg);
+
+    SerpOptions opt = new SerpOptions();
+    opt.query = "q";
+    SerpResponse res = client.serpSearchAsync(opt).get(10, TimeUnit.SECONDS);
+    assertEquals(200, res.code);
+    assertEquals(1, res.organicResults.size());
+
+    ExecutionException err = assertThrows(ExecutionException.class,
+        () -> client.getTaskStatusAsync("t1").get(10, TimeUnit.SECONDS));
+    assertInstanceOf(ThordataErrors.ThordataRateLimitException.class, err.getCause());
+
+    ExecutionException invalid = assertThrows(ExecutionException.class,
+        () -> client.serpSearchAsync(new SerpOptions()).get(10, TimeUnit.SECONDS));
+    assertInstanceOf(IllegalArgumentException.class, invalid.getCause());
+    server.stop(0);
+  }
+
+  @Test
+  public void bulkSerp_offline() throws Exception {
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxSeen = new AtomicInteger();
+    HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+    server.setExecutor(Executors.newFixedThreadPool(8));
+    server.createContext("/request", ex -> {
+      maxSeen.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      try {
+        String body = readBody(ex.getRequestBody());
+        Thread.sleep(20);
+        if (body.contains("q=bad")) writeJson(ex, 200, "{\"code\":500,\"status\":\"boom\"}");
+        else writeJson(ex, 200, "{\"code\":200,\"status\":\"ok\"}");
+      } catch (Exception e) { throw new RuntimeException(e); }
+      finally { inFlight.decrementAndGet(); }
+    });
+    server.start();
+    String base = "http://127.0.0.1:" + server.getAddress().getPort();
+
+    ThordataConfig cfg = new ThordataConfig(
+        "token", "pub", "key", Duration.ofSeconds(10), null,
+        base, base, base, base
+    );
+    ThordataClient client = new ThordataClient(cfg);
+
+    List<SerpOptions> batch = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      SerpOptions o = new SerpOptions();
+      o.query = i == 5 ? "bad" : "q" + i;
+      batch.add(o);
+    }
+    BulkResult<SerpResponse> out = client.serpSearchAll(batch, new BulkOptions(3));
+
+    assertEquals(12, out.results.size());
+    assertEquals(11, out.succeeded);
+    assertEquals(1, out.failed);
+    assertFalse(out.results.get(5).isSuccess());
+    assertInstanceOf(ThordataErrors.ThordataApiException.class, out.results.get(5).error);
+    for (int i = 0; i < 12; i++) assertEquals(i, out.results.get(i).index);
+    assertTrue(maxSeen.get() <= 3);
+    server.stop(0);
+  }
+
+  @Test
+  public void typedSerp_offline() throws Exception {
+    HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+    server.createContext("/request", ex -> writeJson(ex, 200, "{\"code\":200,\"status\":\"ok\","
+        + "\"search_metadata\":{\"id\":\"s1\",\"total_time_taken\":1.5,\"engine_url\":\"u\"},"
+        + "\"organic\":[{\"position\":1,\"title\":\"A\",\"link\":\"https://a\",\"sitelinks\":{\"inline\":[]}}],"
+        + "\"local_results\":[{\"title\":\"Cafe\",\"rating\":4.5,\"reviews\":120},"
+        + "{\"title\":\"Bar\",\"rating\":\"4.1\",\"reviews\":\"1.2K\",\"hours\":{\"mon\":\"9-5\"}}],"
+        + "\"shopping_results\":[{\"title\":\"Mug\",\"price\":\"$9\",\"extracted_price\":9.0},"
+        + "{\"title\":\"Pot\",\"extracted_price\":\"n/a\",\"reviews\":\"12\"}],"
+        + "\"related_searches\":[{\"query\":\"b\"}]}"));
+    server.start();
+    String base = "http://127.0.0.1:" + server.getAddress().getPort();
+    SerpOptions opt = new SerpOptions();
+    opt.query = "q";
+
+    SerpResponse res = new ThordataClient(offlineConfig(base).build()).serpSearch(opt);
+    assertEquals("A", res.organicResults.get(0).title);
+    assertEquals(1, res.organicResults.get(0).position);
+    assertEquals(4.5, res.localResults.get(0).rating);
+    assertEquals(9.0, res.shoppingResults.get(0).extractedPrice);
+    assertEquals(1.5, res.searchMetadata.totalTimeTaken);
+    assertNull(res.newsResults);
+    assertNull(res.organicResults.get(0).extra);
+    assertNull(res.extra);
+
+    // Off-schema scalars leave only their own field empty.
+    LocalResult bar = res.localResults.get(1);
+    assertEquals("Bar", bar.title);
+    assertEquals(4.1, bar.rating);
+    assertNull(bar.reviews);
+    assertNull(bar.hours);
+    assertEquals(Map.of("reviews", "1.2K", "hours", Map.of("mon", "9-5")), bar.extra);
+    ShoppingResult pot = res.shoppingResults.get(1);
+    assertNull(pot.extractedPrice);
+    assertEquals(12, pot.reviews);
+    assertEquals(Map.of("extracted_price", "n/a"), pot.extra);
+    SerpResponse lazy = new ThordataClient(offlineConfig(base).lazySerpResponses(true).build()).serpSearch(opt);
+    assertEquals("1.2K", lazy.localResults().get(1).extra.get("reviews"));
+
+    SerpResponse kept = new ThordataClient(offlineConfig(base).serpRetainUnknownFields(true).build()).serpSearch(opt);
+    assertEquals(Map.of("inline", List.of()), kept.organicResults.get(0).extra.get("sitelinks"));
+    assertEquals("u", kept.searchMetadata.extra.get("engine_url"));
+    assertEquals(List.of(Map.of("query", "b")), kept.extra.get("related_searches"));
+    assertNull(kept.localResults.get(0).extra);
+    server.stop(0);
+  }
+
+  @Test
+  public void lazySerp_offline() throws Exception {
+    HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+    server.createContext("/request", ex -> {
+      try {
+        String body = readBody(ex.getRequestBody());
+        if (body.contains("q=broken")) writeJson(ex, 200, "{\"status\":\"error\",\"code\":\"401\",\"organic\":[]}");
+        else writeJson(ex, 200, "{\"search_metadata\":{\"id\":\"s1\"},\"organic\":[{\"position\":1,\"link\":\"https://a\"},"
+            + "{\"position\":2,\"link\":\"https://b\"}],\"code\":200,\"status\":\"ok\",\"related_searches\":[{\"query\":\"c\"}]}");
+      } catch (Exception e) { throw new RuntimeException(e); }
+    });
+    server.start();
+    String base = "http://127.0.0.1:" + server.getAddress().getPort();
+    ThordataClient client = new ThordataClient(offlineConfig(base).lazySerpResponses(true).build());
+    SerpOptions opt = new SerpOptions();
+    opt.query = "q";
+
+    SerpResponse res = client.serpSearch(opt);
+    assertTrue(res.isLazy());
+    assertEquals(200, res.code);
+    assertEquals("ok", res.status);
+    assertNull(res.organicResults);
+    assertEquals("https://b", res.organicResults().get(1).link);
+    assertSame(res.organicResults(), res.organicResults);
+    assertEquals("s1", res.searchMetadata().id);
+    assertNull(res.localResults());
+    assertEquals("https://a", res.at("/organic/0/link").asText());
+    assertEquals("c", res.at("/related_searches/0/query").asText());
+    assertTrue(res.at("/nope").isMissingNode());
+
+    opt.query = "broken";
+    assertThrows(ThordataErrors.ThordataAuthException.class, () -> client.serpSearch(opt));
+
+    // Accessors also work on eager responses.
+    opt.query = "q";
+    SerpResponse eager = new ThordataClient(offlineConfig(base).build()).serpSearch(opt);
+    assertFalse(eager.isLazy());
+    assertSame(eager.organicResults, eager.organicResults());
+    assertThrows(IllegalStateException.class, () -> eager.at("/code"));
+    server.stop(0);
+  }
+
+  @Test
+  public void serpCache_offline() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.createContext("/request", ex -> {
+      try {
+        String body = readBody(ex.getRequestBody());
+        calls.incrementAndGet();
+        if (body.contains("q=slow")) release.await(5, TimeUnit.SECONDS);
+        writeJson(ex, 200, "{\"code\":200,\"status\":\"ok\"}");
+      } catch (Exception e) { throw new RuntimeException(e); }
+    });
+    server.start();
+    String base = "http://127.0.0.1:" + server.getAddress().getPort();
+    SerpCache cache = new SerpCache().ttl(Duration.ofMinutes(1)).maxEntries(2);
+    ThordataClient client = new ThordataClient(offlineConfig(base).serpCache(cache).build());
+
+    SerpOptions a = new SerpOptions();
+    a.query = "pizza";
+    a.engine = "google_search";
+    a.country = "US";
+    SerpOptions same = new SerpOptions();
+    same.query = "pizza";
+    same.engine = "google";
+    same.country = "us";
+    SerpResponse first = client.serpSearch(a);
+    assertSame(first, client.serpSearch(same));
+    assertEquals(1, calls.get());
+    assertEquals(1, cache.hits());
+    assertEquals(1, cache.misses());
+
+    // noCache bypasses the cache.
+    same.noCache = true;
+    assertNotSame(first, client.serpSearch(same));
+    assertEquals(2, calls.get());
+
+    // Concurrent identical requests share one call.
+    SerpOptions slow = new SerpOptions();
+    slow.query = "slow";
+    List<CompletableFuture<SerpResponse>> futures = new ArrayList<>();
+    for (int i = 0; i < 5; i++) futures.add(client.serpSearchAsync(slow));
+    release.countDown();
+    for (var f : futures) assertEquals("ok", f.get(5, TimeUnit.SECONDS).status);
+    assertEquals(3, calls.get());
+    assertEquals(4, cache.coalesced());
+
+    // Size bound: a third distinct query evicts the least recently used entry ("pizza").
+    SerpOptions other = new SerpOptions();
+    other.query = "other";
+    client.serpSearch(other);
+    assertEquals(2, cache.size());
+    client.serpSearch(a);
+    assertEquals(5, calls.get());
+    server.stop(0);
+  }
+
+  @Test
+  public void retry_offline() throws Exception {
+    AtomicInteger serpHits = new AtomicInteger();
+    AtomicInteger builderHits = new AtomicInteger();
+    HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+    server.createContext("/request", ex -> {
+      if (serpHits.incrementAndGet() < 3) {
+        ex.getResponseHeaders().add("Retry-After", "0");
+        writeJson(ex, 503, "{\"code\":503,\"status\":\"busy\"}");
+      } else {
+        writeJson(ex, 200, "{\"code\":200,\"status\":\"ok\"}");
+      }
+    });
+    server.createContext("/builder", ex -> {
+      builderHits.incrementAndGet();
+      writeJson(ex, 200, "{\"code\":500,\"msg\":\"oops\"}");
+    });
+    AtomicInteger htmlHits = new AtomicInteger();
+    server.createContext("/html/request", ex -> {
+      htmlHits.incrementAndGet();
+      writeJson(ex, 200, "<html><body>Access denied</body></html>");
+    });
+    server.start();
+    String base = "http://127.0.0.1:" + server.getAddress().getPort();
+
+    ThordataClient client = new ThordataClient(offlineConfig(base)
+        .retryPolicy(new RetryPolicy().maxAttempts(3).initialBackoff(Duration.ofMillis(1)))
+        .build());
+
+    SerpOptions opt = new SerpOptions();
+    opt.query = "q";
+    assertEquals(200, client.serpSearch(opt).code);
+    assertEquals(3, serpHits.get());
+
+    serpHits.set(0);
+    assertEquals(200, client.serpSearchAsync(opt).get(10, TimeUnit.SECONDS).code);
+    assertEquals(3, serpHits.get());
+
+    ScraperTaskOptions task = new ScraperTaskOptions();
+    task.fileName = "f";
+    task.spiderId = "s1";
+    task.spiderName = "e";
+    assertThrows(ThordataErrors.ThordataServerException.class, () -> client.createScraperTask(task));
+    assertEquals(1, builderHits.get());
+
+    // A 200 whose body does not parse is not resent.
+    ThordataClient html = new ThordataClient(offlineConfig(base + "/html")
+        .retryPolicy(new RetryPolicy().maxAttempts(3).initialBackoff(Duration.ofMillis(1)))
+        .build());
+    assertThrows(Exception.class, () -> html.serpSearch(opt));
+    assertEquals(1, htmlHits.get());
+    server.stop(0);
+  }
+
+  @Test
+  public void metrics_offline() throws Exception {
+    AtomicInteger hits = new AtomicInteger();
+    HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+    server.createContext("/request", ex -> {
+      try {
+        String body = readBody(ex.getRequestBody());
+        if (body.contains("q=denied")) writeJson(ex, 200, "{\"code\":401,\"msg\":\"bad token\"}");
+        else if (hits.incrementAndGet() == 1) writeJson(ex, 503, "{\"code\":503,\"status\":\"busy\"}");
+        else writeJson(ex, 200, "{\"code\":200,\"status\":\"ok\"}");
+      } catch (Exception e) { throw new RuntimeException(e); }
+    });
+    server.start();
+    String base = "http://127.0.0.1:" + server.getAddress().getPort();
+    MetricsRecorder metrics = new MetricsRecorder();
+    List<ThordataMetrics.Call> events = Collections.synchronizedList(new ArrayList<>());
+    ThordataClient client = new ThordataClient(offlineConfig(base)
+        .retryPolicy(new RetryPolicy().maxAttempts(2).initialBackoff(Duration.ofMillis(1)))
+        .metrics(call -> { events.add(call); metrics.onCall(call); })
+        .build());
+
+    SerpOptions opt = new SerpOptions();
+    opt.query = "q";
+    client.serpSearch(opt);
+    SerpOptions denied = new SerpOptions();
+    denied.query = "denied";
+    assertThrows(ExecutionException.class, () -> client.serpSearchAsync(denied).get(5, TimeUnit.SECONDS));
+
+    assertEquals(3, events.size());
+    ThordataMetrics.Call retried = events.get(0);
+    assertEquals(ThordataEndpoint.SERP, retried.endpoint);
+    assertEquals(503, retried.httpStatus);
+    assertEquals(ThordataErrors.ThordataServerException.class, retried.error);
+    assertTrue(retried.requestBytes > 0);
+    assertTrue(retried.responseBytes > 0);
+    assertEquals(2, events.get(1).attempt);
+    assertTrue(events.get(1).isSuccess());
+    assertEquals(401, events.get(2).apiCode);
+
+    MetricsRecorder.EndpointMetrics serp = metrics.endpoint(ThordataEndpoint.SERP);
+    assertEquals(3, serp.calls());
+    assertEquals(2, serp.errors());
+    assertEquals(1, serp.retries());
+    assertEquals(Map.of(200, 2L, 503, 1L), serp.httpStatuses());
+    assertEquals(Map.of("ThordataAuthException", 1L, "ThordataServerException", 1L), serp.errorTypes());
+    assertEquals(3, serp.networkLatency().count());
+    assertTrue(serp.networkLatency().p99().compareTo(serp.networkLatency().max()) <= 0);
+    assertEquals(0, metrics.endpoint(ThordataEndpoint.UNIVERSAL).calls());
+    server.stop(0);
+  }
+
+  @Test
+  public void jfrEvents_offline() throws Exception {
+    AtomicInteger serpHits = new AtomicInteger();
+    AtomicInteger polls = new AtomicInteger();
+    HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+    server.createContext("/request", ex -> {
+      if (serpHits.incrementAndGet() == 1) writeJson(ex, 429, "{\"code\":429,\"msg\":\"slow down\"}");
+      else writeJson(ex, 200, "{\"code\":200,\"status\":\"ok\"}");
+    });
+    server.createContext("/builder", ex -> writeJson(ex, 200, "{\"code\":200,\"data\":{\"task_id\":\"t1\"}}"));
+    server.createContext("/tasks-status", ex -> writeJson(ex, 200, "{\"code\":200,\"data\":[{\"task_id\":\"t1\",\"status\":\""
+        + (polls.incrementAndGet() < 2 ? "running" : "ready") + "\"}]}"));
+    server.createContext("/tasks-download", ex -> writeJson(ex, 200, "{\"code\":200,\"data\":{\"download\":\"https://example.com/f.json\"}}"));
+    server.start();
+    String base = "http://127.0.0.1:" + server.getAddress().getPort();
+    ThordataClient client = new ThordataClient(offlineConfig(base)
+        .retryPolicy(new RetryPolicy().maxAttempts(2).initialBackoff(Duration.ofMillis(1)).maxRetryAfter(Duration.ofMillis(1)))
+        .build());
+
+    Path file = Files.createTempFile("thordata", ".jfr");
+    List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      for (String name : List.of("ThordataRequest", "ThordataRetry", "ThordataRateLimited", "ThordataTaskPoll")) {
+        recording.enable("com.thordata." + name);
+      }
+      recording.start();
+      SerpOptions opt = new SerpOptions();
+      opt.query = "q";
+      opt.engine = "bing";
+      client.serpSearch(opt);
+
+      ScraperTaskOptions task = new ScraperTaskOptions();
+      task.fileName = "f";
+      task.spiderId = "s1";
+      task.spiderName = "e";
+      RunTaskConfig rc = new RunTaskConfig();
+      rc.initialPollInterval = Duration.ofMillis(10);
+      client.runTask(task, rc);
+      recording.stop();
+      recording.dump(file);
+      events = RecordingFile.readAllEvents(file);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+
+    List<RecordedEvent> serp = events.stream()
+        .filter(e -> e.getEventType().getName().equals("com.thordata.ThordataRequest") && "SERP".equals(e.getString("endpoint")))
+        .sorted(java.util.Comparator.comparingInt(e -> e.getInt("attempt")))
+        .toList();
+    assertEquals(2, serp.size());
+    assertEquals(429, serp.get(0).getInt("httpStatus"));
+    assertEquals(ThordataErrors.ThordataRateLimitException.class.getName(), serp.get(0).getString("error"));
+    assertEquals("bing", serp.get(1).getString("engine"));
+    assertNull(serp.get(1).getString("error"));
+    assertTrue(serp.get(1).getLong("requestBytes") > 0);
+    assertTrue(serp.get(1).getLong("responseBytes") > 0);
+
+    assertEquals(1, count(events, "com.thordata.ThordataRetry"));
+    RecordedEvent limited = events.stream().filter(e -> e.getEventType().getName().equals("com.thordata.ThordataRateLimited")).findFirst().orElseThrow();
+    assertTrue(limited.getBoolean("serverRejected"));
+
+    List<String> statuses = events.stream()
+        .filter(e -> e.getEventType().getName().equals("com.thordata.ThordataTaskPoll"))
+        .sorted(java.util.Comparator.comparingInt(e -> e.getInt("poll")))
+        .map(e -> e.getString("status"))
+        .toList();
+    assertEquals(List.of("running", "ready"), statuses);
+    server.stop(0);
+  }
+
+  private static long count(List<RecordedEvent> events, String name) {
+    return events.stream().filter(e -> e.getEventType().getName().equals(name)).count();
+  }
+
+  @Test
+  public void proxyClientConcurrency_offline() throws Exception {
+    int calls = 12;
+    CountDownLatch arrived = new CountDownLatch(calls);
+    CountDownLatch release = new CountDownLatch(1);
+    HttpServer gateway = HttpServer.create(new InetSocketAddress(0), 0);
+    gateway.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+    gateway.createContext("/", ex -> {
+      arrived.countDown();
+      try {
+        release.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException ignored) {
+      }
+      ex.sendResponseHeaders(200, -1);
+      ex.close();
+    });
+    gateway.start();
+
+    ProxyConfig cfg = new ProxyConfig();
+    cfg.username = "u";
+    cfg.password = "p";
+    cfg.protocol = "http";
+    cfg.host = "127.0.0.1";
+    cfg.port = gateway.getAddress().getPort();
+    try (ThordataProxyClient proxy = new ThordataProxyClient(cfg)) {
+      // Separate sessions to one site: more than OkHttp's default of 5 per host run at once.
+      List<CompletableFuture<ProxyResponse>> futures = new ArrayList<>();
+      for (int i = 0; i < calls; i++) {
+        futures.add(proxy.getAsync("http://example.test/ip", ProxyRoute.of(cfg.copy().session("s" + i))));
+      }
+      assertTrue(arrived.await(5, TimeUnit.SECONDS), "only " + (calls - arrived.getCount()) + " calls in flight");
+      release.countDown();
+      for (CompletableFuture<ProxyResponse> f : futures) assertEquals(200, f.get(5, TimeUnit.SECONDS).statusCode);
+    } finally {
+      release.countDown();
+      gateway.stop(0);
+    }
+  }
+
+  @Test
+  public void proxyClient_offline() throws Exception {
+    List<String> seen = Collections.synchronizedList(new ArrayList<>());
+    HttpServer gateway = HttpServer.create(new InetSocketAddress(0), 0);
+    gateway.createContext("/", ex -> {
+      seen.add(ex.getRequestURI() + " " + ex.getRequestHeaders().getFirst("Proxy-Authorization") + " " + ex.getRemoteAddress().getPort());
+      ex.getResponseHeaders().add("Content-Type", "text/plain; charset=ISO-8859-1");
+      byte[] body = "caf\u00e9".getBytes(StandardCharsets.ISO_8859_1);
+      ex.sendResponseHeaders(200, body.length);
+      try (OutputStream out = ex.getResponseBody()) { out.write(body); }
+    });
+    gateway.start();
+
+    ProxyConfig cfg = new ProxyConfig();
+    cfg.username = "u";
+    cfg.password = "p";
+    cfg.protocol = "http";
+    cfg.host = "127.0.0.1";
+    cfg.port = gateway.getAddress().getPort();
+    String auth = "Basic " + Base64.getEncoder().encodeToString("td-customer-u:p".getBytes(StandardCharsets.UTF_8));
+
+    try (ThordataProxyClient proxy = new ThordataProxyClient(cfg)) {
+      ProxyResponse res = proxy.get("http://example.test/ip");
+      assertEquals(200, res.statusCode);
+      assertEquals("caf\u00e9", res.bodyText());
+      proxy.get("http://example.test/ip");
+      assertEquals(200, proxy.getAsync("http://example.test/ip").get(5, TimeUnit.SECONDS).statusCode);
+
+      // One route, one keep-alive connection, credentials on every plain-HTTP request.
+      assertEquals(3, seen.size());
+      String port = seen.get(0).substring(seen.get(0).lastIndexOf(' ') + 1);
+      for (String line : seen) assertEquals("http://example.test/ip " + auth + " " + port, line);
+      assertEquals(1, proxy.routes());
+
+      // A different session gets its own pool.
+      ProxyRoute session = ProxyRoute.of(cfg.session("s1"));
+      assertEquals("td-customer-u-sessid-s1", session.username);
+      proxy.get("http://example.test/ip", session);
+      assertEquals(2, proxy.routes());
+      assertFalse(seen.get(3).endsWith(" " + port));
+
+      // The client's own proxy client lives until the client is closed.
+      ThordataClient client = new ThordataClient(offlineConfig("http://127.0.0.1:1").build());
+      assertEquals("caf\u00e9", client.proxyGet("http://example.test/ip", cfg).bodyText());
+      TaskWatcher watcher = client.taskWatcher();
+      client.close();
+      assertTrue(watcher.isClosed());
+      assertThrows(IllegalStateException.class, () -> client.proxyGet("http://example.test/ip", cfg));
+      assertThrows(IllegalStateException.class, client::taskWatcher);
+    } finally {
+      gateway.stop(0);
+    }
+
+    // HTTPS targets: credentials go on the CONNECT request, before any 407.
+    AtomicReference<String> connect = new AtomicReference<>();
+    try (ServerSocket ss = new ServerSocket(0)) {
+      Thread t = new Thread(() -> {
+        try (Socket s = ss.accept()) {
+          BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.ISO_8859_1));
+          StringBuilder head = new StringBuilder();
+          for (String line; (line = in.readLine()) != null && !line.isEmpty(); ) head.append(line).append('\n');
+          connect.set(head.toString());
+          s.getOutputStream().write("HTTP/1.1 403 Forbidden\r\nContent-Length: 0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+        } catch (Exception ignored) {
+        }
+      });
+      t.start();
+      ProxyConfig tunnel = new ProxyConfig();
+      tunnel.username = "u";
+      tunnel.password = "p";
+      tunnel.protocol = "http";
+      tunnel.host = "127.0.0.1";
+      tunnel.port = ss.getLocalPort();
+      try (ThordataProxyClient proxy = new ThordataProxyClient(tunnel)) {
+        assertThrows(IOException.class, () -> proxy.get("https://example.test/ip"));
+      }
+      t.join(5000);
+    }
+    assertTrue(connect.get().startsWith("CONNECT example.test:443"), connect.get());
+    assertTrue(connect.get().contains("Proxy-Authorization: " + auth), connect.get());
+
+    ProxyConfig anonymous = new ProxyConfig();
+    assertThrows(IllegalArgumentException.class, () -> ProxyRoute.of(anonymous));
+  }
+
+  @Test
+  public void okHttpTransport_offline() throws Exception {
+    byte[] image = new byte[100_000];
+    for (int i = 0; i < image.length; i++) image[i] = (byte) (i * 13);
+    String b64 = Base64.getEncoder().encodeToString(image);
+    byte[] file = new byte[70_000];
+    for (int i = 0; i < file.length; i++) file[i] = (byte) i;
+    List<String> contentTypes = Collections.synchronizedList(new ArrayList<>());
+    HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+    server.createContext("/request", ex -> {
+      try {
+        contentTypes.add(ex.getRequestHeaders().getFirst("Content-Type"));
+        String body = readBody(ex.getRequestBody());
+        if (body.contains("type=png")) writeJson(ex, 200, "{\"code\":200,\"png\":\"data:image/png;base64," + b64 + "\"}");
+        else if (body.contains("q=denied")) writeJson(ex, 200, "{\"code\":401,\"msg\":\"bad token\"}");
+        else writeJson(ex, 200, "{\"code\":200,\"organic\":[{\"title\":\"A\",\"position\":1}]}");
+      } catch (Exception e) { throw new RuntimeException(e); }
+    });
+    server.createContext("/file.bin", ex -> {
+      ex.sendResponseHeaders(200, file.length);
+      ex.getResponseBody().write(file);
+      ex.close();
+    });
+    server.setExecutor(Executors.newFixedThreadPool(4));
+    server.start();
+    String base = "http://127.0.0.1:" + server.getAddress().getPort();
+
+    OkHttpTransport transport = new OkHttpTransport().maxRequestsPerHost(2).maxIdleConnections(4).keepAlive(Duration.ofMinutes(1));
+    assertEquals(0, transport.stats().connections);
+    ThordataClient client = new ThordataClient(offlineConfig(base).transport(transport).build());
+
+    SerpOptions opt = new SerpOptions();
+    opt.query = "q";
+    assertEquals("A", client.serpSearch(opt).organicResults.get(0).title);
+    List<CompletableFuture<SerpResponse>> fanOut = new ArrayList<>();
+    for (int i = 0; i < 8; i++) fanOut.add(client.serpSearchAsync(opt));
+    for (CompletableFuture<SerpResponse> f : fanOut) assertEquals(1, f.get(5, TimeUnit.SECONDS).organicResults.get(0).position);
+    SerpOptions denied = new SerpOptions();
+    denied.query = "denied";
+    assertThrows(ThordataErrors.ThordataAuthException.class, () -> client.serpSearch(denied));
+    assertTrue(contentTypes.stream().allMatch(t -> t.startsWith("application/x-www-form-urlencoded")), contentTypes.toString());
+
+    UniversalOptions png = new UniversalOptions();
+    png.url = "https://example.com";
+    png.outputFormat = "png";
+    assertArrayEquals(image, (byte[]) client.universalScrape(png));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    client.universalScreenshot(png, out);
+    assertArrayEquals(image, out.toByteArray());
+
+    Path target = Files.createTempDirectory("thordata-okhttp").resolve("file.bin");
+    assertEquals(file.length, client.downloadFile(base + "/file.bin", target, null).bytes);
+    assertArrayEquals(file, Files.readAllBytes(target));
+
+    // The dispatcher counts an async call as running until its callback has returned.
+    ThordataTransport.Stats stats = transport.stats();
+    for (int i = 0; i < 100 && stats.runningCalls > 0; i++) {
+      Thread.sleep(10);
+      stats = transport.stats();
+    }
+    assertEquals(0, stats.runningCalls);
+    assertEquals(0, stats.queuedCalls);
+    assertTrue(stats.connections >= 1 && stats.connections <= 4, stats.toString());
+    assertEquals(-1, new JdkTransport(java.net.http.HttpClient.newHttpClient()).stats().connections);
+
+    transport.close();
+    assertEquals(0, transport.stats().connections);
+
+    // A caller's executor is left running.
+    java.util.concurrent.ExecutorService own = Executors.newFixedThreadPool(2);
+    OkHttpTransport shared = new OkHttpTransport().executor(own);
+    assertEquals("A", new ThordataClient(offlineConfig(base).transport(shared).build()).serpSearchAsync(opt)
+        .get(5, TimeUnit.SECONDS).organicResults.get(0).title);
+    shared.close();
+    assertFalse(own.isShutdown());
+    own.shutdown();
+    server.stop(0);
+  }
+
+  @Test
+  public void throwingTransport_offline() throws Exception {
+    AtomicInteger sends = new AtomicInteger();
+    ThordataTransport transport = new ThordataTransport() {
+      @Override
+      public <T> java.net.http.HttpResponse<T> send(java.net.http.HttpRequest request, java.net.http.HttpResponse.BodyHandler<T> handler) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public <T> CompletableFuture<java.net.http.HttpResponse<T>> sendAsync(java.net.http.HttpRequest request, java.net.http.HttpResponse.BodyHandler<T> handler) {
+        if (sends.incrementAndGet() == 1) return CompletableFuture.failedFuture(new java.net.ConnectException("refused"));
+        throw new IllegalStateException("transport closed");
+      }
+    };
+    CircuitBreaker breaker = new CircuitBreaker().minimumCalls(1).windowSize(1).halfOpenProbes(1).openDuration(Duration.ZERO);
+    ThordataClient client = new ThordataClient(offlineConfig("http://127.0.0.1:1")
+        .transport(transport)
+        .circuitBreaker(breaker)
+        .retryPolicy(new RetryPolicy().maxAttempts(3).initialBackoff(Duration.ofMillis(1)))
+        .build());
+
+    SerpOptions opt = new SerpOptions();
+    opt.query = "q";
+    // The refused first attempt opens the breaker; the retry is its half-open probe and throws.
+    CompletableFuture<SerpResponse> f = client.serpSearchAsync(opt);
+    ExecutionException e = assertThrows(ExecutionException.class, () -> f.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(IllegalStateException.class, e.getCause());
+    assertEquals(2, sends.get());
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.state(ThordataEndpoint.SERP));
+
+    // Thrown on the caller's thread: still reported through the future.
+    CompletableFuture<SerpResponse> direct = client.serpSearchAsync(opt);
+    assertInstanceOf(IllegalStateException.class, assertThrows(ExecutionException.class, direct::get).getCause());
+  }
+
+  @Test
+  public void throwingSyncTransport_offline() throws Exception {
+    AtomicInteger sends = new AtomicInteger();
+    ThordataTransport transport = new ThordataTransport() {
+      @Override
+      public <T> java.net.http.HttpResponse<T> send(java.net.http.HttpRequest request, java.net.http.HttpResponse.BodyHandler<T> handler) throws IOException {
+        if (sends.incrementAndGet() == 1) throw new java.net.ConnectException("refused");
+        throw new AssertionError("broken transport");
+      }
+
+      @Override
+      public <T> CompletableFuture<java.net.http.HttpResponse<T>> sendAsync(java.net.http.HttpRequest request, java.net.http.HttpResponse.BodyHandler<T> handler) {
+        throw new UnsupportedOperationException();
+      }
+    };
+    CircuitBreaker breaker = new CircuitBreaker().minimumCalls(1).windowSize(1).halfOpenProbes(1).openDuration(Duration.ZERO);
+    ThordataClient client = new ThordataClient(offlineConfig("http://127.0.0.1:1")
+        .transport(transport)
+        .circuitBreaker(breaker)
+        .retryPolicy(new RetryPolicy().maxAttempts(3).initialBackoff(Duration.ofMillis(1)))
+        .build());
+
+    SerpOptions opt = new SerpOptions();
+    opt.query = "q";
+    // The half-open probe throws an Error; its ticket still comes back, so the slot is not lost.
+    assertThrows(AssertionError.class, () -> client.serpSearch(opt));
+    assertEquals(2, sends.get());
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.state(ThordataEndpoint.SERP));
+    assertThrows(AssertionError.class, () -> client.serpSearch(opt));
+    assertEquals(3, sends.get());
+  }
+
+  @Test
+  public void openCircuitSkipsRateLimit_offline() throws Exception {
+    ThordataTransport transport = new ThordataTransport() {
+      @Override
+      public <T> java.net.http.HttpResponse<T> send(java.net.http.HttpRequest request, java.net.http.HttpResponse.BodyHandler<T> handler) throws IOException {
+        throw new java.net.ConnectException("refused");
+      }
+
+      @Override
+      public <T> CompletableFuture<java.net.http.HttpResponse<T>> sendAsync(java.net.http.HttpRequest request, java.net.http.HttpResponse.BodyHandler<T> handler) {
+        throw new UnsupportedOperationException();
+      }
+    };
+    RateLimiter limiter = new RateLimiter().limit(ThordataEndpoint.Family.SERP, 1, 1);
+    ThordataClient client = new ThordataClient(offlineConfig("http://127.0.0.1:1")
+        .transport(transport)
+        .circuitBreaker(new CircuitBreaker().minimumCalls(1).windowSize(1).openDuration(Duration.ofMinutes(1)))
+        .rateLimiter(limiter)
+        .build());
+
+    SerpOptions opt = new SerpOptions();
+    opt.query = "q";
+    assertThrows(java.net.ConnectException.class, () -> client.serpSearch(opt));
+    // Rejected without waiting for, or spending, the next permit.
+    long t0 = System.nanoTime();
+    assertThrows(ThordataErrors.ThordataCircuitOpenException.class, () -> client.serpSearch(opt));
+    assertTrue(System.nanoTime() - t0 < Duration.ofMillis(500).toNanos());
+    assertTrue(limiter.reserve(ThordataEndpoint.Family.SERP) <= Duration.ofSeconds(1).toNanos());
+  }
+
+  @Test
+  public void warmUp_offline() throws Exception {
+    List<String> seen = Collections.synchronizedList(new ArrayList<>());
+    HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+    server.createContext("/", ex -> {
+      seen.add(ex.getRequestMethod() + " " + ex.getRequestURI().getPath());
+      ex.sendResponseHeaders(404, -1);
+      ex.close();
+    });
+    server.setExecutor(Executors.newFixedThreadPool(4));
+    server.start();
+    String base = "http://127.0.0.1:" + server.getAddress().getPort();
+
+    ThordataClient client = new ThordataClient(offlineConfig(base)
+        .httpVersion(java.net.http.HttpClient.Version.HTTP_1_1)
+        .warmUpConnections(3)
+        .warmUpOnStart(true)
+        .build());
+    WarmUpReport initial = client.initialWarmUp().get(5, TimeUnit.SECONDS);
+    assertTrue(initial.isReady(), initial.toString());
+    assertEquals(1, initial.origins.size());
+    WarmUpReport.Origin origin = initial.origins.get(0);
+    assertEquals(base + "/", origin.uri.toString());
+    assertEquals(3, origin.connections);
+    assertEquals(java.net.http.HttpClient.Version.HTTP_1_1, origin.version);
+    assertNull(origin.error);
+    assertEquals(List.of("HEAD /", "HEAD /", "HEAD /"), seen);
+
+    int closedPort;
+    try (ServerSocket ss = new ServerSocket(0)) {
+      closedPort = ss.getLocalPort();
+    }
+    ThordataClient partial = new ThordataClient(offlineConfig(base)
+        .universalApiBaseUrl("http://127.0.0.1:" + closedPort)
+        .build());
+    assertNull(partial.initialWarmUp());
+    WarmUpReport report = partial.warmUp();
+    assertFalse(report.isReady());
+    assertEquals(2, report.origins.size());
+    assertTrue(report.origins.get(0).isReady());
+    WarmUpReport.Origin down = report.origins.get(1);
+    assertFalse(down.isReady());
+    assertInstanceOf(IOException.class, down.error);
+    assertNull(down.version);
+    server.stop(0);
+  }
+
+  @Test
+  public void compression_offline() throws Exception {
+    StringBuilder organic = new StringBuilder();
+    for (int i = 0; i < 500; i++) organic.append(i == 0 ? "" : ",").append("{\"position\":").append(i).append(",\"title\":\"Result ").append(i).append("\"}");
+    String serpJson = "{\"code\":200,\"organic\":[" + organic + "]}";
+    byte[] image = new byte[30_000];
+    for (int i = 0; i < image.length; i++) image[i] = (byte) (i % 251);
+    String pngJson = "{\"code\":200,\"png\":\"data:image/png;base64," + Base64.getEncoder().encodeToString(image) + "\"}";
+    List<String> acceptEncodings = Collections.synchronizedList(new ArrayList<>());
+    HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+    server.createContext("/request", ex -> {
+      try {
+        String accept = ex.getRequestHeaders().getFirst("Accept-Encoding");
+        acceptEncodings.add(accept);
+        String body = readBody(ex.getRequestBody());
+        byte[] json = (body.contains("type=png") ? pngJson : serpJson).getBytes(StandardCharsets.UTF_8);
+        if (accept.contains("gzip")) {
+          ByteArrayOutputStream out = new ByteArrayOutputStream();
+          try (java.util.zip.GZIPOutputStream gz = new java.util.zip.GZIPOutputStream(out)) { gz.write(json); }
+          json = out.toByteArray();
+          ex.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+        ex.getResponseHeaders().add("Content-Type", "application/json");
+        ex.sendResponseHeaders(200, 0);
+        ex.getResponseBody().write(json);
+        ex.close();
+      } catch (Exception e) { throw new RuntimeException(e); }
+    });
+    server.start();
+    String base = "http://127.0.0.1:" + server.getAddress().getPort();
+    SerpOptions opt = new SerpOptions();
+    opt.query = "q";
+    UniversalOptions png = new UniversalOptions();
+    png.url = "https://example.com";
+    png.outputFormat = "png";
+
+    List<ThordataMetrics.Call> calls = Collections.synchronizedList(new ArrayList<>());
+    ThordataClient client = new ThordataClient(offlineConfig(base).metrics(calls::add).build());
+    assertEquals(499, client.serpSearch(opt).organicResults.get(499).position);
+    assertEquals(499, client.serpSearchAsync(opt).get(5, TimeUnit.SECONDS).organicResults.get(499).position);
+    ByteArrayOutputStream shot = new ByteArrayOutputStream();
+    client.universalScreenshot(png, shot);
+    assertArrayEquals(image, shot.toByteArray());
+    assertEquals(List.of("gzip, deflate", "gzip, deflate", "gzip, deflate"), acceptEncodings);
+
+    assertEquals(3, calls.size());
+    for (ThordataMetrics.Call call : calls) assertTrue(call.wireBytes > 0 && call.wireBytes < call.responseBytes, call.toString());
+    assertEquals(serpJson.length(), calls.get(0).responseBytes);
+    assertEquals(pngJson.length(), calls.get(2).responseBytes);
+
+    try (OkHttpTransport transport = new OkHttpTransport()) {
+      ThordataClient ok = new ThordataClient(offlineConfig(base).transport(transport).build());
+      assertEquals(499, ok.serpSearch(opt).organicResults.get(499).position);
+    }
+
+    acceptEncodings.clear();
+    calls.clear();
+    ThordataClient plain = new ThordataClient(offlineConfig(base).compression(false).metrics(calls::add).build());
+    assertEquals(499, plain.serpSearch(opt).organicResults.get(499).position);
+    assertEquals(List.of("identity"), acceptEncodings);
+    assertEquals(calls.get(0).responseBytes, calls.get(0).wireBytes);
+    server.stop(0);
+  }
+
+  @Test
+  public void scrapeStreams_offline() throws Exception {
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+    server.createContext("/request", ex -> {
+      try {
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        String body = URLDecoder.decode(readBody(ex.getRequestBody()), StandardCharsets.UTF_8);
+        Thread.sleep(20);
+        inFlight.decrementAndGet();
+        if (body.contains("url=https://fail.example.com")) writeJson(ex, 200, "{\"code\":401,\"msg\":\"bad token\"}");
+        else if (body.contains("url=")) writeJson(ex, 200, "{\"code\":200,\"html\":\"<p>ok</p>\"}");
+        else writeJson(ex, 200, "{\"code\":200,\"organic\":[{\"title\":\"A\"}]}");
+      } catch (Exception e) { throw new RuntimeException(e); }
+    });
+    server.setExecutor(Executors.newFixedThreadPool(8));
+    server.start();
+    String base = "http://127.0.0.1:" + server.getAddress().getPort();
+    ThordataClient client = new ThordataClient(offlineConfig(base).build());
+
+    List<ScrapeResult<Object>> results = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch done = new CountDownLatch(1);
+    try (SubmissionPublisher<UniversalOptions> urls = new SubmissionPublisher<>()) {
+      client.universalScrapeStream(urls, new BulkOptions(3)).subscribe(new Flow.Subscriber<>() {
+        Flow.Subscription s;
+        @Override public void onSubscribe(Flow.Subscription s) { this.s = s; s.request(1); }
+        @Override public void onNext(ScrapeResult<Object> r) { results.add(r); s.request(1); }
+        @Override public void onError(Throwable t) { done.countDown(); }
+        @Override public void onComplete() { done.countDown(); }
+      });
+      for (int i = 0; i < 12; i++) {
+        UniversalOptions opt = new UniversalOptions();
+        opt.url = i == 4 ? "https://fail.example.com" : i == 7 ? null : "https://example.com/" + i;
+        urls.submit(opt);
+      }
+    }
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    assertEquals(12, results.size());
+    assertTrue(maxInFlight.get() <= 3, "max in flight " + maxInFlight.get());
+    for (ScrapeResult<Object> r : results) {
+      if (r.index == 4) assertInstanceOf(ThordataErrors.ThordataAuthException.class, r.error);
+      else if (r.index == 7) assertInstanceOf(IllegalArgumentException.class, r.error);
+      else assertEquals("<p>ok</p>", r.value);
+    }
+
+    List<ScrapeResult<SerpResponse>> serp = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch serpDone = new CountDownLatch(1);
+    try (SubmissionPublisher<SerpOptions> queries = new SubmissionPublisher<>()) {
+      client.serpSearchStream(queries, new BulkOptions(2)).subscribe(new Flow.Subscriber<>() {
+        @Override public void onSubscribe(Flow.Subscription s) { s.request(Long.MAX_VALUE); }
+        @Override public void onNext(ScrapeResult<SerpResponse> r) { serp.add(r); }
+        @Override public void onError(Throwable t) { }
+        @Override public void onComplete() { serpDone.countDown(); }
+      });
+      for (int i = 0; i < 5; i++) {
+        SerpOptions opt = new SerpOptions();
+        opt.query = "q" + i;
+        queries.submit(opt);
+      }
+    }
+    assertTrue(serpDone.await(10, TimeUnit.SECONDS));
+    assertEquals(5, serp.size());
+    assertTrue(serp.stream().allMatch(r -> r.isSuccess() && r.value.organicResults.get(0).title.equals("A")));
+    server.stop(0);
+  }
+
+  private static ThordataConfig.Builder offlineConfig(String base) {
+    return ThordataConfig.builder("token")
+        .publicToken("pub")
+        .publicKey("key")
+        .timeout(Duration.ofSeconds(10))
+        .scraperApiBaseUrl(base)
+        .universalApiBaseUrl(base)
+        .webScraperApiBaseUrl(base)
+        .locationsBaseUrl(base);
+  }
+
   private static String readBody(InputStream in) throws Exception {
     try (in) { return new String(in.readAllBytes(), StandardCharsets.UTF_8); }
   }
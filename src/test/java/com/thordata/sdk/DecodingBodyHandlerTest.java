@@ -0,0 +1,167 @@
+package com.thordata.sdk;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DecodingBodyHandlerTest {
+  private static final byte[] TEXT;
+
+  static {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 5000; i++) sb.append("{\"position\":").append(i).append(",\"title\":\"café ").append(i).append("\"},");
+    TEXT = sb.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void gzipInAnyChunking() throws Exception {
+    byte[] gz = gzip(TEXT);
+    for (int chunk : new int[] {1, 3, 10, 4096, gz.length}) {
+      DecodingBodyHandler<byte[]> h = DecodingBodyHandler.ofByteArray();
+      assertArrayEquals(TEXT, feed(h, "gzip", gz, chunk), "chunk " + chunk);
+      assertEquals(gz.length, h.wireBytes());
+      assertEquals(TEXT.length, h.decodedBytes());
+    }
+  }
+
+  @Test
+  public void gzipHeaderFieldsAndConcatenatedMembers() throws Exception {
+    byte[] a = gzip(Arrays.copyOf(TEXT, 1000));
+    byte[] b = gzip(Arrays.copyOfRange(TEXT, 1000, TEXT.length));
+    // FEXTRA and FNAME set on the first member.
+    byte[] extra = {4, 0, 'a', 'b', 'c', 'd'};
+    byte[] name = "result.json\0".getBytes(StandardCharsets.ISO_8859_1);
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    body.write(a, 0, 3);
+    body.write(a[3] | 4 | 8);
+    body.write(a, 4, 6);
+    body.write(extra);
+    body.write(name);
+    body.write(a, 10, a.length - 10);
+    body.write(b);
+
+    assertArrayEquals(TEXT, feed(DecodingBodyHandler.ofByteArray(), "gzip", body.toByteArray(), 7));
+  }
+
+  @Test
+  public void largeGzipHeaderFields() throws Exception {
+    byte[] a = gzip(TEXT);
+    // Maximal FEXTRA, a long FNAME, FCOMMENT and FHCRC; parsing must stay linear.
+    byte[] extra = new byte[65535];
+    Arrays.fill(extra, (byte) 'x');
+    byte[] name = new byte[500_000];
+    Arrays.fill(name, (byte) 'n');
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    body.write(a, 0, 3);
+    body.write(a[3] | 2 | 4 | 8 | 16);
+    body.write(a, 4, 6);
+    body.write(0xFF);
+    body.write(0xFF);
+    body.write(extra);
+    body.write(name);
+    body.write(0);
+    body.write("comment\0".getBytes(StandardCharsets.ISO_8859_1));
+    body.write(new byte[] {1, 2});
+    body.write(a, 10, a.length - 10);
+
+    byte[] b = body.toByteArray();
+    assertTimeoutPreemptively(java.time.Duration.ofSeconds(10), () -> {
+      for (int chunk : new int[] {1, 4096}) {
+        assertArrayEquals(TEXT, feed(DecodingBodyHandler.ofByteArray(), "gzip", b, chunk), "chunk " + chunk);
+      }
+    });
+  }
+
+  @Test
+  public void deflateWrappedAndRaw() throws Exception {
+    assertArrayEquals(TEXT, feed(DecodingBodyHandler.ofByteArray(), "deflate", deflate(TEXT, false), 100));
+    assertArrayEquals(TEXT, feed(DecodingBodyHandler.ofByteArray(), "Deflate", deflate(TEXT, true), 1));
+  }
+
+  @Test
+  public void identityAndEmptyBodies() throws Exception {
+    DecodingBodyHandler<byte[]> h = DecodingBodyHandler.ofByteArray();
+    assertArrayEquals(TEXT, feed(h, null, TEXT, 512));
+    assertEquals(TEXT.length, h.wireBytes());
+    assertEquals(0, feed(DecodingBodyHandler.ofByteArray(), "gzip", new byte[0], 1).length);
+  }
+
+  @Test
+  public void corruptBodiesFail() throws Exception {
+    byte[] gz = gzip(TEXT);
+    ExecutionException truncated = assertThrows(ExecutionException.class,
+        () -> feed(DecodingBodyHandler.ofByteArray(), "gzip", Arrays.copyOf(gz, gz.length - 4), 64));
+    assertInstanceOf(ZipException.class, truncated.getCause());
+
+    byte[] badCrc = gz.clone();
+    badCrc[badCrc.length - 8] ^= 1;
+    assertThrows(ExecutionException.class, () -> feed(DecodingBodyHandler.ofByteArray(), "gzip", badCrc, 64));
+    assertThrows(ExecutionException.class, () -> feed(DecodingBodyHandler.ofByteArray(), "gzip", TEXT, 64));
+  }
+
+  @Test
+  public void streams() throws Exception {
+    for (String encoding : new String[] {"gzip", "deflate", null}) {
+      byte[] body = encoding == null ? TEXT : encoding.equals("gzip") ? gzip(TEXT) : deflate(TEXT, false);
+      DecodingBodyHandler<InputStream> h = DecodingBodyHandler.ofInputStream();
+      // ofInputStream queues a single buffer ahead of the reader.
+      try (InputStream in = feed(h, encoding, body, body.length)) {
+        assertArrayEquals(TEXT, in.readAllBytes(), String.valueOf(encoding));
+      }
+      assertEquals(body.length, h.wireBytes());
+      assertEquals(TEXT.length, h.decodedBytes());
+    }
+  }
+
+  private static <T> T feed(DecodingBodyHandler<T> handler, String encoding, byte[] body, int chunk) throws Exception {
+    HttpHeaders headers = HttpHeaders.of(encoding == null ? Map.of() : Map.of("Content-Encoding", List.of(encoding)), (k, v) -> true);
+    HttpResponse.BodySubscriber<T> s = handler.apply(new HttpResponse.ResponseInfo() {
+      @Override public int statusCode() { return 200; }
+      @Override public HttpHeaders headers() { return headers; }
+      @Override public HttpClient.Version version() { return HttpClient.Version.HTTP_1_1; }
+    });
+    s.onSubscribe(new Flow.Subscription() {
+      @Override public void request(long n) { }
+      @Override public void cancel() { }
+    });
+    for (int i = 0; i < body.length; i += chunk) {
+      // Read-only views, as the HTTP client delivers them.
+      s.onNext(List.of(ByteBuffer.wrap(body, i, Math.min(chunk, body.length - i)).slice().asReadOnlyBuffer()));
+    }
+    s.onComplete();
+    return s.getBody().toCompletableFuture().get();
+  }
+
+  private static byte[] gzip(byte[] data) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+      gz.write(data);
+    }
+    return out.toByteArray();
+  }
+
+  private static byte[] deflate(byte[] data, boolean raw) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (DeflaterOutputStream d = new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION, raw))) {
+      d.write(data);
+    }
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,45 @@
+package com.thordata.sdk;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FormEncoderTest {
+
+  @Test
+  public void matchesUrlEncoder() {
+    String[] samples = {
+        "", "plain", "a b+c&d=e", "café", "日本語", "emoji 😀",
+        "unpaired \ud83d end", "-._*~!'()", "{\"User-Agent\":\"x/1.0\"}", "\u0000\u007f\u0080߿ࠀ￿"
+    };
+    for (String s : samples) assertEncodesLike(s);
+
+    Random rnd = new Random(42);
+    for (int i = 0; i < 500; i++) {
+      char[] cs = new char[rnd.nextInt(40)];
+      for (int j = 0; j < cs.length; j++) cs[j] = (char) (rnd.nextBoolean() ? rnd.nextInt(128) : rnd.nextInt(0x10000));
+      assertEncodesLike(new String(cs));
+    }
+  }
+
+  @Test
+  public void joinsPairsAndSkipsNulls() {
+    Map<String, String> form = new LinkedHashMap<>();
+    form.put("q", "a b");
+    form.put("skip", null);
+    form.put("json", "1");
+    assertEquals("q=a+b&json=1", Utils.formEncode(form));
+    assertEquals("", Utils.formEncode(Map.of()));
+  }
+
+  private static void assertEncodesLike(String s) {
+    String expected = URLEncoder.encode(s, StandardCharsets.UTF_8) + "=" + URLEncoder.encode(s, StandardCharsets.UTF_8);
+    assertEquals(expected, FormEncoder.encodeToString(Map.of(s, s)), () -> "input: " + s);
+  }
+}
@@ -0,0 +1,46 @@
+package com.thordata.sdk;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void bucketsAreContiguousAndBounded() {
+    int prev = -1;
+    for (long v = 0; v < 1 << 20; v++) {
+      int b = LatencyHistogram.bucket(v);
+      assertTrue(b == prev || b == prev + 1, "bucket jump at " + v);
+      assertTrue(v <= LatencyHistogram.highestValue(b));
+      // Relative error of at most 1/16.
+      assertTrue(LatencyHistogram.highestValue(b) - v <= Math.max(0, v / 16), "error too large at " + v);
+      prev = b;
+    }
+    assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucket(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void percentiles() {
+    LatencyHistogram h = new LatencyHistogram();
+    assertEquals(Duration.ZERO, h.snapshot().p99());
+    for (int i = 1; i <= 1000; i++) h.record(Duration.ofMillis(i));
+
+    LatencyHistogram.Snapshot s = h.snapshot();
+    assertEquals(1000, s.count());
+    assertEquals(Duration.ofMillis(1000), s.max());
+    assertEquals(500.5, s.mean().toNanos() / 1e6, 0.01);
+    assertWithin(Duration.ofMillis(500), s.p50());
+    assertWithin(Duration.ofMillis(990), s.p99());
+    assertWithin(Duration.ofMillis(999), s.p999());
+    assertEquals(Duration.ofMillis(1000), s.percentile(1.0));
+    assertThrows(IllegalArgumentException.class, () -> s.percentile(1.5));
+  }
+
+  private static void assertWithin(Duration expected, Duration actual) {
+    assertTrue(actual.compareTo(expected) >= 0 && actual.toNanos() <= expected.toNanos() * 17 / 16,
+        "expected ~" + expected + " but was " + actual);
+  }
+}
@@ -0,0 +1,127 @@
+package com.thordata.sdk;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProxySessionPoolTest {
+
+  private static ProxyConfig template(String country) {
+    ProxyConfig p = new ProxyConfig();
+    p.username = "u";
+    p.password = "p";
+    p.protocol = "http";
+    p.host = "127.0.0.1";
+    p.port = 9999;
+    return p.country(country);
+  }
+
+  @Test
+  public void reusesIdleSessionsAndGrowsUnderLoad() {
+    ProxySessionPool pool = new ProxySessionPool().maxSessions(2).sessionMinutes(10);
+    ProxySessionPool.Lease a = pool.lease(template("us"));
+    assertEquals("td-customer-u-country-us-sessid-" + a.sessionId + "-sesstime-10", a.route.username);
+
+    ProxySessionPool.Lease b = pool.lease(template("us"));
+    assertNotEquals(a.sessionId, b.sessionId);
+    // At the cap, the least busy session is shared.
+    ProxySessionPool.Lease c = pool.lease(template("us"));
+    assertTrue(c.sessionId.equals(a.sessionId) || c.sessionId.equals(b.sessionId));
+    assertEquals(2, pool.created());
+
+    a.success(Duration.ofMillis(50));
+    b.success(Duration.ofMillis(10));
+    c.success(Duration.ofMillis(10));
+    // Both idle: the faster one wins.
+    assertEquals(b.sessionId, pool.lease(template("us")).sessionId);
+
+    // Another country is a separate group.
+    assertNotEquals(a.sessionId, pool.lease(template("de")).sessionId);
+    assertEquals(3, pool.size());
+  }
+
+  @Test
+  public void rotatesOnFailureAndRequestCount() {
+    ProxySessionPool pool = new ProxySessionPool().maxRequestsPerSession(2);
+    ProxySessionPool.Lease first = pool.lease(template("us"));
+    first.failure();
+    first.success(Duration.ofMillis(1)); // only the first outcome counts
+    assertEquals(1, pool.retired());
+
+    ProxySessionPool.Lease l1 = pool.lease(template("us"));
+    assertNotEquals(first.sessionId, l1.sessionId);
+    l1.success(Duration.ofMillis(5));
+    ProxySessionPool.Lease l2 = pool.lease(template("us"));
+    assertEquals(l1.sessionId, l2.sessionId);
+    l2.success(Duration.ofMillis(5));
+    assertNotEquals(l1.sessionId, pool.lease(template("us")).sessionId);
+    assertEquals(2, pool.retired());
+  }
+
+  @Test
+  public void failingSessionsRankBehindHealthyOnes() {
+    ProxySessionPool pool = new ProxySessionPool().maxConsecutiveFailures(0);
+    ProxySessionPool.Lease a = pool.lease(template("us"));
+    ProxySessionPool.Lease b = pool.lease(template("us"));
+    ProxySessionPool.Lease c = pool.lease(template("us"));
+    // a has no latency sample since it never succeeded.
+    a.failure();
+    b.success(Duration.ofMillis(40));
+    c.failure();
+    ProxySessionPool.Lease next = pool.lease(template("us"));
+    assertEquals(b.sessionId, next.sessionId);
+    next.success(Duration.ofMillis(40));
+
+    // With no latency anywhere, the error rate alone decides.
+    ProxySessionPool fresh = new ProxySessionPool().maxConsecutiveFailures(0);
+    ProxySessionPool.Lease x = fresh.lease(template("de"));
+    ProxySessionPool.Lease y = fresh.lease(template("de"));
+    x.failure();
+    y.failure();
+    ProxySessionPool.Lease t = fresh.lease(template("de"));
+    t.failure();
+    assertNotEquals(t.sessionId, fresh.lease(template("de")).sessionId);
+    assertEquals(2, fresh.created());
+  }
+
+  @Test
+  public void retiresSlowExitIps() {
+    ProxySessionPool pool = new ProxySessionPool().minSamples(3).slowFactor(3.0);
+    List<ProxySessionPool.Lease> leases = new ArrayList<>();
+    for (int i = 0; i < 4; i++) leases.add(pool.lease(template("us")));
+    Set<String> ids = new HashSet<>();
+    for (ProxySessionPool.Lease l : leases) ids.add(l.sessionId);
+    assertEquals(4, ids.size());
+
+    String slow = leases.get(3).sessionId;
+    for (int round = 0; round < 3; round++) {
+      for (int i = 0; i < 4; i++) {
+        ProxySessionPool.Lease l = round == 0 ? leases.get(i) : leaseSession(pool, leases.get(i).sessionId);
+        l.success(Duration.ofMillis(l.sessionId.equals(slow) ? 500 : 20));
+      }
+    }
+    assertEquals(1, pool.retired());
+    assertEquals(3, pool.size());
+  }
+
+  /** Holds leases until the pool hands out {@code id}, then releases the others unrecorded. */
+  private static ProxySessionPool.Lease leaseSession(ProxySessionPool pool, String id) {
+    List<ProxySessionPool.Lease> held = new ArrayList<>();
+    try {
+      while (true) {
+        ProxySessionPool.Lease l = pool.lease(template("us"));
+        if (l.sessionId.equals(id)) return l;
+        held.add(l);
+      }
+    } finally {
+      // Return the other sessions as successes at their usual speed so they stay healthy.
+      for (ProxySessionPool.Lease l : held) l.success(Duration.ofMillis(20));
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package com.thordata.sdk;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimiterTest {
+
+  @Test
+  public void burstThenWait() {
+    RateLimiter l = new RateLimiter().limit(ThordataEndpoint.Family.SERP, 10, 2);
+    assertEquals(0L, l.reserve(ThordataEndpoint.Family.SERP));
+    assertEquals(0L, l.reserve(ThordataEndpoint.Family.SERP));
+    long wait = l.reserve(ThordataEndpoint.Family.SERP);
+    assertTrue(wait > 50_000_000L && wait <= 100_000_000L, "wait=" + wait);
+  }
+
+  @Test
+  public void unconfiguredFamilyIsUnlimited() {
+    RateLimiter l = new RateLimiter().limit(ThordataEndpoint.Family.SERP, 1, 1);
+    for (int i = 0; i < 100; i++) assertEquals(0L, l.reserve(ThordataEndpoint.Family.UNIVERSAL));
+    assertEquals(-1, l.currentRate(ThordataEndpoint.Family.UNIVERSAL));
+  }
+
+  @Test
+  public void tightensOnRateLimitAndRecovers() throws Exception {
+    RateLimiter l = new RateLimiter()
+        .limit(ThordataEndpoint.Family.UNIVERSAL, 100, 10)
+        .recoveryPeriod(Duration.ofMillis(200));
+    l.onRateLimited(ThordataEndpoint.Family.UNIVERSAL);
+    l.onRateLimited(ThordataEndpoint.Family.UNIVERSAL);
+    assertTrue(l.currentRate(ThordataEndpoint.Family.UNIVERSAL) <= 26);
+
+    Thread.sleep(300);
+    assertEquals(100.0, l.currentRate(ThordataEndpoint.Family.UNIVERSAL), 0.001);
+  }
+
+  @Test
+  public void neverDropsBelowFloor() {
+    RateLimiter l = new RateLimiter().limit(ThordataEndpoint.Family.PUBLIC_API, 10, 1).minRateFraction(0.2);
+    for (int i = 0; i < 20; i++) l.onRateLimited(ThordataEndpoint.Family.PUBLIC_API);
+    assertTrue(l.currentRate(ThordataEndpoint.Family.PUBLIC_API) >= 2.0);
+  }
+}
@@ -0,0 +1,147 @@
+package com.thordata.sdk;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScrapeStreamTest {
+
+  @Test
+  public void requestsUpstreamOnlyAsSlotsFreeUp() {
+    Source source = new Source(100);
+    List<CompletableFuture<String>> calls = new ArrayList<>();
+    Sink<String> sink = new Sink<>();
+    new ScrapeStream<Integer, String>(source, new BulkOptions(3), i -> {
+      CompletableFuture<String> f = new CompletableFuture<>();
+      calls.add(f);
+      return f;
+    }).subscribe(sink);
+
+    // Slots are filled without any downstream demand, but no further.
+    assertEquals(3, source.requested.get());
+    assertEquals(3, calls.size());
+
+    // A finished call keeps its slot until the subscriber takes the result.
+    calls.get(1).complete("b");
+    assertEquals(3, source.requested.get());
+    sink.subscription.request(1);
+    assertEquals(List.of(1), sink.indexes());
+    assertEquals("b", sink.results.get(0).value);
+    assertEquals(4, source.requested.get());
+    assertEquals(4, calls.size());
+
+    sink.subscription.request(Long.MAX_VALUE);
+    calls.get(0).complete("a");
+    calls.get(2).complete("c");
+    assertEquals(6, calls.size());
+    sink.subscription.cancel();
+    assertTrue(source.cancelled);
+    calls.get(3).complete("d");
+    assertEquals(3, sink.results.size());
+    assertFalse(sink.completed);
+  }
+
+  @Test
+  public void itemErrorsAreResultsAndUpstreamErrorsTerminate() {
+    Source source = new Source(4);
+    Sink<Integer> sink = new Sink<>();
+    new ScrapeStream<Integer, Integer>(source, new BulkOptions(2), i -> {
+      if (i == 1) throw new IllegalArgumentException("bad item");
+      if (i == 2) return CompletableFuture.failedFuture(new ThordataErrors.ThordataServerException("busy", 503, 503, null));
+      return CompletableFuture.completedFuture(i * 10);
+    }).subscribe(sink);
+    sink.subscription.request(Long.MAX_VALUE);
+
+    assertEquals(List.of(0, 1, 2, 3), sink.indexes());
+    assertEquals(0, sink.results.get(0).value);
+    assertInstanceOf(IllegalArgumentException.class, sink.results.get(1).error);
+    assertInstanceOf(ThordataErrors.ThordataServerException.class, sink.results.get(2).error);
+    assertEquals(30, sink.results.get(3).value);
+    assertTrue(sink.completed);
+
+    Source failing = new Source(2);
+    failing.failAtEnd = new IllegalStateException("queue closed");
+    Sink<Integer> errors = new Sink<>();
+    new ScrapeStream<Integer, Integer>(failing, new BulkOptions(2), CompletableFuture::completedFuture).subscribe(errors);
+    errors.subscription.request(10);
+    assertEquals(2, errors.results.size());
+    assertEquals("queue closed", errors.error.get().getMessage());
+    assertFalse(errors.completed);
+  }
+
+  @Test
+  public void singleSubscriberAndValidation() {
+    ScrapeStream<Integer, Integer> stream = new ScrapeStream<>(new Source(1), null, CompletableFuture::completedFuture);
+    stream.subscribe(new Sink<>());
+    Sink<Integer> second = new Sink<>();
+    stream.subscribe(second);
+    assertInstanceOf(IllegalStateException.class, second.error.get());
+
+    assertThrows(IllegalArgumentException.class, () -> new ScrapeStream<>(new Source(1), new BulkOptions(0), CompletableFuture::completedFuture));
+
+    Sink<Integer> bad = new Sink<>();
+    new ScrapeStream<Integer, Integer>(new Source(5), null, CompletableFuture::completedFuture).subscribe(bad);
+    bad.subscription.request(0);
+    assertInstanceOf(IllegalArgumentException.class, bad.error.get());
+  }
+
+  /** Emits 0..count-1 synchronously on request. */
+  private static final class Source implements Flow.Publisher<Integer> {
+    final AtomicLong requested = new AtomicLong();
+    final int count;
+    Throwable failAtEnd;
+    volatile boolean cancelled;
+    private int next;
+
+    Source(int count) {
+      this.count = count;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Integer> s) {
+      s.onSubscribe(new Flow.Subscription() {
+        @Override
+        public void request(long n) {
+          requested.addAndGet(n);
+          for (long i = 0; i < n && next < count && !cancelled; i++) s.onNext(next++);
+          if (next == count && !cancelled) {
+            cancelled = true;
+            if (failAtEnd != null) s.onError(failAtEnd);
+            else s.onComplete();
+          }
+        }
+
+        @Override
+        public void cancel() {
+          cancelled = true;
+        }
+      });
+    }
+  }
+
+  private static final class Sink<T> implements Flow.Subscriber<ScrapeResult<T>> {
+    final List<ScrapeResult<T>> results = Collections.synchronizedList(new ArrayList<>());
+    final AtomicReference<Throwable> error = new AtomicReference<>();
+    Flow.Subscription subscription;
+    volatile boolean completed;
+
+    @Override public void onSubscribe(Flow.Subscription s) { subscription = s; }
+    @Override public void onNext(ScrapeResult<T> r) { results.add(r); }
+    @Override public void onError(Throwable t) { error.set(t); }
+    @Override public void onComplete() { completed = true; }
+
+    List<Integer> indexes() {
+      List<Integer> out = new ArrayList<>();
+      for (ScrapeResult<T> r : results) out.add(r.index);
+      return out;
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.thordata.sdk;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScreenshotDecoderTest {
+
+  private static final byte[] IMAGE = new byte[100_001];
+
+  static {
+    new Random(7).nextBytes(IMAGE);
+  }
+
+  @Test
+  public void decodesPngFieldAndKeepsEnvelope() throws Exception {
+    String b64 = Base64.getEncoder().encodeToString(IMAGE);
+    ScreenshotDecoder d = decode("{\"code\":200, \"png\":\"" + b64 + "\",\"meta\":{\"w\":[1,2],\"s\":\"}\"},\"ok\":true}", true);
+    assertTrue(d.isJson());
+    assertTrue(d.found());
+    assertArrayEquals(IMAGE, sink.toByteArray());
+    assertEquals("{\"code\":200,\"meta\":{\"w\":[1,2],\"s\":\"}\"},\"ok\":true}", new String(d.envelope(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void handlesDataUriEscapesAndMissingPadding() throws Exception {
+    // 100_001 bytes encode with one '=' of padding; drop it and wrap lines with escaped newlines.
+    String b64 = Base64.getMimeEncoder().encodeToString(IMAGE).replace("=", "").replace("/", "\\/").replace("\r\n", "\\r\\n");
+    ScreenshotDecoder d = decode("{\"png\":\"data:image/png;base64," + b64 + "\",\"code\":200}", true);
+    assertTrue(d.found());
+    assertArrayEquals(IMAGE, sink.toByteArray());
+    assertEquals("{\"code\":200}", new String(d.envelope(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void nonJsonBodyIsPassedThroughOrCaptured() throws Exception {
+    byte[] raw = {(byte) 0x89, 'P', 'N', 'G', 1, 2, 3};
+    ScreenshotDecoder d = new ScreenshotDecoder(new ByteArrayInputStream(raw));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    d.decode(out, true);
+    assertFalse(d.isJson());
+    assertArrayEquals(raw, out.toByteArray());
+
+    d = decode("Bad Gateway", false);
+    assertEquals(0, sink.size());
+    assertEquals("Bad Gateway", new String(d.envelope(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void errorEnvelopeWithoutPng() throws Exception {
+    ScreenshotDecoder d = decode("{\"code\":401,\"msg\":\"bad token\"}", true);
+    assertTrue(d.isJson());
+    assertFalse(d.found());
+    assertEquals("{\"code\":401,\"msg\":\"bad token\"}", new String(d.envelope(), StandardCharsets.UTF_8));
+  }
+
+  private ByteArrayOutputStream sink;
+
+  private ScreenshotDecoder decode(String body, boolean copyNonJson) throws Exception {
+    // Trickle the body in small reads so buffer boundaries land inside tokens.
+    InputStream in = new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)) {
+      @Override
+      public synchronized int read(byte[] b, int off, int len) {
+        return super.read(b, off, Math.min(len, 7));
+      }
+    };
+    sink = new ByteArrayOutputStream();
+    ScreenshotDecoder d = new ScreenshotDecoder(in);
+    d.decode(sink, copyNonJson);
+    return d;
+  }
+}